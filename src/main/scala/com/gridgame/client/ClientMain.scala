@@ -1623,7 +1623,12 @@ class ClientMain extends Application {
           items.add(s"#$rank  |  $username  |  ELO: $elo  |  ${wins}W  |  $matches Matches")
         }
         leaderboardListView.setItems(FXCollections.observableArrayList(items))
-        loadingLabel.setText(if (items.isEmpty) "No players found" else "")
+        val ownRank = client.leaderboardOwnRank
+        loadingLabel.setText(
+          if (items.isEmpty) "No players found"
+          else if (ownRank > 0) s"Your rank: #$ownRank"
+          else ""
+        )
       })
     }
     client.requestLeaderboard()
@@ -121,6 +121,17 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
   private val recentlyRemovedProjectiles: java.util.Set[Int] =
     java.util.Collections.newSetFromMap(new ConcurrentHashMap[Int, java.lang.Boolean]())
 
+  // Player snapshots by snapshotSeq & (SNAPSHOT_HISTORY - 1); guarded by snapshotFrames
+  private val snapshotFrames: Array[SnapshotFrame] =
+    Array.fill(Constants.SNAPSHOT_HISTORY)(new SnapshotFrame(Constants.MAX_SNAPSHOT_SLOTS))
+  private val snapshotPartsSeen: Array[java.util.BitSet] = Array.fill(Constants.SNAPSHOT_HISTORY)(new java.util.BitSet())
+  private val snapshotComplete = new Array[Boolean](Constants.SNAPSHOT_HISTORY)
+  private val lastSnapshotAckTime: AtomicLong = new AtomicLong(0)
+  private var latestSnapshotIdx: Int = -1
+
+  // Instance entity handles announced by the server (GameEvent.HANDLE_ASSIGN)
+  private val entityHandles = new EntityHandles()
+
   @volatile private var running = false
   @volatile private var isDead = false
   private val disconnected = new AtomicBoolean(false)
@@ -199,6 +210,8 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
 
   // Leaderboard state: (rank, username, elo, wins, matchesPlayed)
   val leaderboard: CopyOnWriteArrayList[Array[AnyRef]] = new CopyOnWriteArrayList[Array[AnyRef]]()
+  // Local player's position from the last leaderboard response, 0 if unranked
+  @volatile var leaderboardOwnRank: Int = 0
   @volatile var leaderboardListener: () => Unit = _
 
   @volatile var matchHistoryListener: () => Unit = _
@@ -263,6 +276,7 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
     playerHitDy.clear()
     playerHitProjType.clear()
     recentlyRemovedProjectiles.clear()
+    resetSnapshots()
     isDead = false
     isRespawning = false
     fastProjectilesUntil.set(0)
@@ -293,7 +307,8 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
       sequenceNumber.getAndIncrement(),
       action,
       username,
-      password
+      password,
+      AuthCapability.UDP_BUNDLES
     )
     networkThread.send(packet)
   }
@@ -919,6 +934,12 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
       return
     }
 
+    // Handle player snapshots (entries for the local player are applied through the local path)
+    if (packet.getType == PacketType.PLAYER_SNAPSHOT) {
+      handlePlayerSnapshot(packet.asInstanceOf[PlayerSnapshotPacket])
+      return
+    }
+
     // Handle projectile updates for all players (including local player's own projectiles)
     if (packet.getType == PacketType.PROJECTILE_UPDATE) {
       handleProjectileUpdate(packet.asInstanceOf[ProjectilePacket])
@@ -1121,6 +1142,7 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
         playerHitDy.clear()
         playerHitProjType.clear()
         recentlyRemovedProjectiles.clear()
+        resetSnapshots()
         if (gameStartingListener != null) gameStartingListener()
 
       case LobbyAction.CHARACTER_SELECT =>
@@ -1139,6 +1161,10 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
 
   private def handleGameEvent(packet: GameEventPacket): Unit = {
     packet.getEventType match {
+      case GameEvent.HANDLE_ASSIGN =>
+        entityHandles.bind(packet.getHandle, packet.getPlayerId)
+        reapplySnapshotHandle(packet.getHandle)
+
       case GameEvent.KILL =>
         val killerId = packet.getPlayerId
         val victimId = packet.getTargetId
@@ -1256,6 +1282,7 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
         ))
 
       case LeaderboardAction.END =>
+        leaderboardOwnRank = packet.getPlayerRank
         if (leaderboardListener != null) leaderboardListener()
 
       case _ =>
@@ -1482,6 +1509,7 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
     playerHitDy.clear()
     playerHitProjType.clear()
     recentlyRemovedProjectiles.clear()
+    resetSnapshots()
   }
 
   // Ranked queue actions
@@ -1516,15 +1544,115 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
     }
   }
 
+  /**
+   * Rebuild a snapshot from its baseline plus this part's entries, then apply each changed player
+   * as a PlayerUpdate. Parts whose baseline we never completed are dropped; the server keeps
+   * diffing against our last ack, so the next snapshot covers them.
+   */
+  private def handlePlayerSnapshot(packet: PlayerSnapshotPacket): Unit = {
+    snapshotFrames.synchronized { applySnapshotPart(packet) }
+  }
+
+  // Caller holds snapshotFrames' monitor
+  private def applySnapshotPart(packet: PlayerSnapshotPacket): Unit = {
+    val historyMask = Constants.SNAPSHOT_HISTORY - 1
+    val seq = packet.getSnapshotSeq
+    val idx = seq & historyMask
+    val frame = snapshotFrames(idx)
+    var base: SnapshotFrame = null
+    if (packet.getBaselineSeq != PlayerSnapshotPacket.NO_BASELINE) {
+      val baseIdx = packet.getBaselineSeq & historyMask
+      val candidate = snapshotFrames(baseIdx)
+      if (candidate.seq != packet.getBaselineSeq || !snapshotComplete(baseIdx) || (candidate eq frame)) return
+      base = candidate
+    }
+    if (frame.seq != seq) {
+      if (base != null) frame.copyFrom(base) else frame.clear()
+      frame.seq = seq
+      snapshotPartsSeen(idx).clear()
+      snapshotComplete(idx) = false
+    } else if (snapshotComplete(idx) || snapshotPartsSeen(idx).get(packet.getPart)) {
+      return // Duplicate part
+    }
+    snapshotPartsSeen(idx).set(packet.getPart)
+
+    val buf = java.nio.ByteBuffer.wrap(packet.getEntryData).order(java.nio.ByteOrder.BIG_ENDIAN)
+    var i = 0
+    while (i < packet.getEntryCount) {
+      val slot = SnapshotFrame.decodeEntry(buf, frame)
+      if (slot < 0) {
+        i = packet.getEntryCount // Malformed; stop reading this part
+      } else {
+        applySnapshotSlot(frame, slot, packet.getTimestamp)
+        i += 1
+      }
+    }
+
+    if (snapshotPartsSeen(idx).cardinality() >= packet.getPartCount) {
+      snapshotComplete(idx) = true
+      latestSnapshotIdx = idx
+      val now = System.currentTimeMillis()
+      if (now - lastSnapshotAckTime.get() >= Constants.SNAPSHOT_ACK_INTERVAL_MS) {
+        lastSnapshotAckTime.set(now)
+        networkThread.send(PlayerSnapshotPacket.ack(sequenceNumber.getAndIncrement(), localPlayerId, seq))
+      }
+    }
+  }
+
+  private def applySnapshotSlot(frame: SnapshotFrame, slot: Int, timestamp: Int): Unit = {
+    val id = entityHandles.resolve(frame.handles(slot))
+    if (id == null) return // Binding still in flight over TCP; reapplySnapshotHandle catches up
+    // The local player's position is client-authoritative; snapshots never move it
+    val position = if (id.equals(localPlayerId)) localPosition.get() else {
+      try new Position(frame.x(slot), frame.y(slot)) catch {
+        case _: IllegalArgumentException => return
+      }
+    }
+    processPacket(new PlayerUpdatePacket(
+      0, id, timestamp, position, frame.color(slot), frame.health(slot), frame.charge(slot),
+      frame.flags(slot), frame.characterId(slot), frame.teamId(slot)
+    ))
+  }
+
+  /** Apply a player whose snapshot entries arrived before its handle binding. */
+  private def reapplySnapshotHandle(handle: Int): Unit = snapshotFrames.synchronized {
+    if (latestSnapshotIdx >= 0) {
+      val frame = snapshotFrames(latestSnapshotIdx)
+      var slot = 0
+      while (slot < frame.capacity) {
+        if (frame.present(slot) && frame.handles(slot) == handle) applySnapshotSlot(frame, slot, Packet.getCurrentTimestamp)
+        slot += 1
+      }
+    }
+  }
+
+  private def resetSnapshots(): Unit = snapshotFrames.synchronized {
+    latestSnapshotIdx = -1
+    entityHandles.clear()
+    var i = 0
+    while (i < snapshotFrames.length) {
+      snapshotFrames(i).clear()
+      snapshotPartsSeen(i).clear()
+      snapshotComplete(i) = false
+      i += 1
+    }
+  }
+
   private def handleProjectileUpdate(packet: ProjectilePacket): Unit = {
     val projectileId = packet.getProjectileId
+    // Server broadcasts name players by entity handle; an unbound owner still renders
+    val ownerId = if (!packet.isHandleAddressed) packet.getPlayerId else {
+      val resolved = entityHandles.resolve(packet.getOwnerHandle)
+      if (resolved != null) resolved else EntityHandles.UNRESOLVED
+    }
+    val hitTargetId = if (packet.isHandleAddressed) entityHandles.resolve(packet.getTargetHandle) else packet.getTargetId
 
     packet.getAction match {
       case ProjectileAction.SPAWN =>
         recentlyRemovedProjectiles.remove(projectileId)
         val projectile = new Projectile(
           projectileId,
-          packet.getPlayerId,
+          ownerId,
           packet.getX,
           packet.getY,
           packet.getDx,
@@ -1554,7 +1682,7 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
           if (!recentlyRemovedProjectiles.contains(projectileId)) {
             val newProjectile = new Projectile(
               projectileId,
-              packet.getPlayerId,
+              ownerId,
               packet.getX,
               packet.getY,
               packet.getDx,
@@ -1563,18 +1691,23 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
               packet.getChargeLevel,
               packet.getProjectileType
             )
+            newProjectile.applyCorrection(packet.getX, packet.getY, packet.getDx, packet.getDy,
+              packet.getDistanceTraveled, packet.isReturning, packet.getRemainingBounces)
             projectiles.put(projectileId, newProjectile)
           }
         } else {
-          // Update in-place to avoid allocation
-          projectile.updatePosition(packet.getX, packet.getY, packet.getDx, packet.getDy)
+          // Update in-place to avoid allocation; the render thread simulates the same projectile
+          projectile.synchronized {
+            projectile.applyCorrection(packet.getX, packet.getY, packet.getDx, packet.getDy,
+              packet.getDistanceTraveled, packet.isReturning, packet.getRemainingBounces)
+          }
         }
 
       case ProjectileAction.HIT =>
         projectiles.remove(projectileId)
         recentlyRemovedProjectiles.add(projectileId)
         val hitPType = packet.getProjectileType
-        val targetId = packet.getTargetId
+        val targetId = hitTargetId
         if (targetId != null) {
           playerHitTimes.put(targetId, System.currentTimeMillis())
           playerHitColors.put(targetId, Integer.valueOf(packet.getColorRGB))
@@ -1583,7 +1716,7 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
           playerHitProjType.put(targetId, java.lang.Byte.valueOf(hitPType))
 
           // If our projectile hit another player, reduce ability cooldown by 50%
-          if (packet.getPlayerId.equals(localPlayerId)) {
+          if (ownerId.equals(localPlayerId)) {
             reduceAbilityCooldownOnHit(packet.getProjectileType)
           }
         }
@@ -1886,6 +2019,44 @@ class GameClient(serverHost: String, serverPort: Int, initialWorld: WorldData, v
   def visualPosX: Double = _visualPosX
   def visualPosY: Double = _visualPosY
 
+  // Fixed-step accumulator for local projectile simulation
+  private var lastProjectileTickTime: Long = 0L
+
+  /**
+   * Call once per frame. Advances projectiles locally at the server's tick rate so the
+   * server only has to send SPAWN, HIT/DESPAWN and periodic MOVE corrections.
+   */
+  def tickProjectiles(): Unit = {
+    if (!Constants.PROJECTILE_SPAWN_ONLY_REPLICATION) return
+    val world = currentWorld.get()
+    val now = System.currentTimeMillis()
+    if (world == null || lastProjectileTickTime == 0L) {
+      lastProjectileTickTime = now
+      return
+    }
+    var ticks = ((now - lastProjectileTickTime) / Constants.PROJECTILE_SPEED_MS).toInt
+    if (ticks <= 0) return
+    lastProjectileTickTime += ticks.toLong * Constants.PROJECTILE_SPEED_MS
+    // Don't try to catch up after a long stall (window drag, GC); the next correction resyncs
+    if (ticks > 5) ticks = 5
+
+    val iter = projectiles.values().iterator()
+    while (iter.hasNext) {
+      val projectile = iter.next()
+      val alive = projectile.synchronized {
+        var t = 0
+        var ok = true
+        while (t < ticks && ok) {
+          ok = projectile.simulateTick(world)
+          t += 1
+        }
+        ok
+      }
+      // Local end is only a prediction: don't mark as removed so a late correction can restore it
+      if (!alive) iter.remove()
+    }
+  }
+
   /** Call once per frame to update visualPosX/visualPosY. */
   def updateVisualPosition(): Unit = {
     val pos = localPosition.get()
@@ -239,20 +239,22 @@ class ClientTcpHandler(client: GameClient, networkThread: NetworkThread) extends
 /** Handles UDP packets from the server. */
 class ClientUdpHandler(client: GameClient, networkThread: NetworkThread) extends SimpleChannelInboundHandler[DatagramPacket] {
   // Reuse read buffer — safe because handler runs on a single Netty event loop thread
-  // and PacketSigner.verify() copies the payload before we return
-  private val readBuffer = new Array[Byte](Constants.PACKET_SIZE)
+  // and PacketSigner.verifyBundle() copies the payloads before we return.
+  // Sized for a full bundle; a plain 80-byte frame is a bundle of one.
+  private val readBuffer = new Array[Byte](Constants.UDP_BUNDLE_MAX_SIZE)
 
   override def channelRead0(ctx: ChannelHandlerContext, msg: DatagramPacket): Unit = {
     val buf = msg.content()
-    if (buf.readableBytes() < Constants.PACKET_SIZE) return
+    val length = buf.readableBytes()
+    if (length < Constants.PACKET_SIZE || length > Constants.UDP_BUNDLE_MAX_SIZE) return
 
     val data = readBuffer
-    buf.readBytes(data)
+    buf.readBytes(data, 0, length)
 
     try {
       val token = networkThread.sessionToken
-      val payload = if (token != null) {
-        val verified = PacketSigner.verify(data, token)
+      val payloads = if (token != null) {
+        val verified = PacketSigner.verifyBundle(data, length, token)
         if (verified == null) {
           System.err.println("ClientUdpHandler: HMAC verification failed, dropping packet")
           return
@@ -262,9 +264,14 @@ class ClientUdpHandler(client: GameClient, networkThread: NetworkThread) extends
         // No session token yet — drop all UDP packets until authenticated
         return
       }
-      val packet = PacketSerializer.deserialize(payload)
-      Metrics.clientPacketsReceived.add(1L, Attrs.packet(packet.getType))
-      client.enqueuePacket(packet)
+      var offset = 0
+      while (offset < payloads.length) {
+        val payload = java.util.Arrays.copyOfRange(payloads, offset, offset + Constants.PACKET_PAYLOAD_SIZE)
+        val packet = PacketSerializer.deserialize(payload)
+        Metrics.clientPacketsReceived.add(1L, Attrs.packet(packet.getType))
+        client.enqueuePacket(packet)
+        offset += Constants.PACKET_PAYLOAD_SIZE
+      }
     } catch {
       case e: IllegalArgumentException =>
         System.err.println(s"ClientUdpHandler: Invalid packet - ${e.getMessage}")
@@ -431,6 +431,7 @@ class GLGameRenderer(val client: GameClient) {
 
     // Use interpolated position for smooth camera tracking between grid tiles
     client.updateVisualPosition()
+    client.tickProjectiles()
     val visualPosX = client.visualPosX
     val visualPosY = client.visualPosY
 
@@ -32,10 +32,18 @@ object Constants {
   val PACKET_SIZE: Int = 80
   val PACKET_PAYLOAD_SIZE: Int = 64
   val HMAC_SIZE: Int = 16
+  // Server->client UDP bundles: N payloads + one HMAC per datagram, kept under a 1200-byte MTU budget
+  val UDP_BUNDLE_MAX_PAYLOADS: Int = (1200 - HMAC_SIZE) / PACKET_PAYLOAD_SIZE
+  val UDP_BUNDLE_MAX_SIZE: Int = UDP_BUNDLE_MAX_PAYLOADS * PACKET_PAYLOAD_SIZE + HMAC_SIZE
   val SERVER_PORT: Int = 25565
   val HEARTBEAT_INTERVAL_MS: Int = 3000 // 3 seconds
   val CLIENT_TIMEOUT_MS: Int = 10000 // 10 seconds
 
+  // Native transport (Linux epoll, --native-transport): N SO_REUSEPORT UDP sockets, one per core,
+  // so the kernel spreads client flows across event loops; replies leave via the owning socket
+  val NATIVE_TRANSPORT_ENABLED: Boolean = false
+  val UDP_REUSEPORT_SOCKETS: Int = Runtime.getRuntime.availableProcessors().max(1)
+
   // Input configuration
   val MOVE_RATE_LIMIT_MS: Int = 50 // Max 10 moves per second
 
@@ -50,6 +58,34 @@ object Constants {
   val SHOOT_COOLDOWN_MS: Int = 500        // 2 shots per second max
   val PROJECTILE_DAMAGE: Int = 15         // Default damage per hit
   val PROJECTILE_MAX_RANGE: Int = 20      // Max travel distance in tiles
+  val MAX_PROJECTILES_PER_PLAYER: Int = 30 // Live projectiles per owner; also sizes the server's projectile pool
+
+  // Projectile replication: clients simulate flight locally from SPAWN, the server only sends
+  // HIT/DESPAWN plus a periodic MOVE correction instead of a MOVE every tick
+  val PROJECTILE_SPAWN_ONLY_REPLICATION: Boolean = true
+  val PROJECTILE_CORRECTION_INTERVAL_TICKS: Int = 10 // ~300ms at PROJECTILE_SPEED_MS
+
+  // Area of interest: position/MOVE traffic only goes to players whose viewport plus margin covers the entity
+  val AOI_ENABLED: Boolean = true
+  val AOI_MARGIN_CELLS: Int = 10
+  val AOI_RADIUS_CELLS: Int = VIEWPORT_CELLS / 2 + AOI_MARGIN_CELLS
+
+  // Player snapshots: per-viewer delta-compressed player state against the last acked snapshot,
+  // replacing per-event PlayerUpdate rebroadcasts for movement, regen and burn ticks
+  val PLAYER_SNAPSHOTS_ENABLED: Boolean = true
+  val SNAPSHOT_INTERVAL_MS: Int = 50    // 20 snapshots per second
+  val MAX_SNAPSHOT_SLOTS: Int = 128      // Per-instance player slots (one byte on the wire)
+  val SNAPSHOT_HISTORY: Int = 32         // Unacked snapshots kept per viewer (power of two)
+  val SNAPSHOT_ACK_INTERVAL_MS: Int = 100 // Client ack throttle
+  val SNAPSHOT_FLAG_REFRESH_MS: Int = 400 // Re-send active effect flags; clients expire them after ~1s
+
+  // Entity handles: in-match server->client packets name players by a 16-bit instance handle
+  // (announced once over TCP) instead of a 16-byte UUID
+  val ENTITY_HANDLES_ENABLED: Boolean = true
+
+  // Shared tick engine: game instances are sharded across this many worker threads
+  val TICK_WORKER_THREADS: Int = Runtime.getRuntime.availableProcessors().max(1)
+  val INPUT_QUEUE_CAPACITY: Int = 4096 // Per-instance pending client inputs before dropping
 
   // Burst shot configuration (Shift+Space)
   val BURST_SHOT_MOVEMENT_BLOCK_MS: Int = 500  // Immobilized for 500ms after burst
@@ -91,6 +127,14 @@ object Constants {
   val TEAMS_TEAM_SIZE: Int = 3  // 3v3
   val TEAMS_MAX_PLAYERS: Int = TEAMS_TEAM_SIZE * 2 // 6
 
+  // Bot navigation: BFS distance fields per map, shared across instances (NavGrid)
+  val NAV_GOAL_REGION_CELLS: Int = 8     // Fields lead into a goal's square region; the last cells are a local search
+  val NAV_FIELD_CACHE_CAPACITY: Int = 32 // Goal fields kept per shared grid, least recently used evicted
+  val NAV_FORKED_FIELD_CAPACITY: Int = 8 // Fields kept (and repaired on every tile change) per instance-private grid
+  // Bot AI level of detail: bots with no human this close (and practice bots) think at the far rate
+  val BOT_LOD_NEAR_CELLS: Int = AOI_RADIUS_CELLS
+  val BOT_FAR_THINK_MS: Int = 400        // Far bots decide and move once per this interval (full rate: every 100ms bot tick)
+
   // Item system
   val MAX_INVENTORY_SIZE: Int = 10                      // Max items per player
 
@@ -99,8 +143,19 @@ object Constants {
   val SEQUENCE_WINDOW_SIZE: Int = 1024                   // UDP out-of-order tolerance
   val INCOMING_QUEUE_CAPACITY: Int = 8192               // Client packet queue bound
   val MAX_AUTH_FAILURES_PER_CHANNEL: Int = 5            // Close connection after N failures
+  val AUTH_WORKER_THREADS: Int = Runtime.getRuntime.availableProcessors().max(1) // bcrypt pool, off the event loops
+  val AUTH_QUEUE_CAPACITY: Int = 256                    // Pending logins before answering "busy"
   val FENCE_MAX_DISTANCE: Int = 5                       // Max Manhattan distance for fence placement
   val STAR_MAX_DISTANCE: Int = 30                       // Max Manhattan distance for star teleport
   val MAX_LOBBIES: Int = 100                            // Max concurrent active lobbies
   val MAX_CHAT_MESSAGE_LEN: Int = 42                    // Max UTF-8 bytes per chat message
+
+  // Database: SQLite in WAL mode, one writer plus this many concurrent read connections
+  val DB_READER_CONNECTIONS: Int = 4
+  // Match results + ELO are journaled and group-committed by a writer thread (MatchWriteBehind)
+  val WRITE_BEHIND_QUEUE_CAPACITY: Int = 1024           // Queued matches before submit waits (back-pressure)
+  val WRITE_BEHIND_COMPACT_BYTES: Int = 256 * 1024      // Committed journal prefix dropped once it is this large
+  val WRITE_BEHIND_MAX_BATCH: Int = 64                  // Matches per group commit
+  val ACCOUNT_CACHE_CAPACITY: Int = 4096                // Cached account records (connected players)
+  val HISTORY_CACHE_CAPACITY: Int = 4096                // Players with a cached match history
 }
@@ -175,6 +175,14 @@ object ProjectileType {
   val VENOM_BOLT_LIGHT: Byte = -107  // 149
 }
 
+object Projectile {
+  // Outcomes of Projectile.advanceSubStep
+  val STEP_MOVED: Int = 0     // moved freely; caller may test player collision
+  val STEP_DEFLECTED: Int = 1 // boomerang turned or ricocheted this sub-step
+  val STEP_EXPIRED: Int = 2   // reached max range
+  val STEP_BLOCKED: Int = 3   // left the world or hit a wall/fence
+}
+
 class Projectile(
     val id: Int,
     val ownerId: UUID,
@@ -199,6 +207,9 @@ class Projectile(
   private var _remainingBounces: Int = ProjectileDef.get(projectileType).ricochetCount
   // Cached speed (magnitude of velocity vector) to avoid per-tick sqrt
   private var _speed: Float = math.sqrt(_dx * _dx + _dy * _dy).toFloat
+  // Replication state: ticks since the last MOVE correction was broadcast
+  private var _ticksSinceCorrection: Int = 0
+  private var _correctionPending: Boolean = false
 
   def dx: Float = _dx
   def dy: Float = _dy
@@ -281,6 +292,58 @@ class Projectile(
     true
   }
 
+  /** Number of sub-steps per tick so a projectile never skips over a non-walkable tile. */
+  def subStepsPerTick: Int = math.ceil(_speed * speedMultiplier / 0.5f).toInt.max(1)
+
+  /**
+   * Advance one sub-step and resolve range, bounds and wall interactions.
+   * The client-side simulation. The server's ProjectileManager applies the same wall, ricochet and
+   * range rules with swept (tile-exact) collision and sends corrections when paths turn. Player
+   * collision is left to the caller (the server is authoritative over hits).
+   * Returns one of the Projectile.STEP_* outcomes.
+   */
+  def advanceSubStep(world: WorldData, fraction: Float): Int = {
+    moveStep(fraction)
+    val pDef = ProjectileDef.get(projectileType)
+    if (distanceTraveled >= pDef.effectiveMaxRange(chargeLevel)) {
+      // Boomerang: reverse direction at max range instead of despawning
+      if (pDef.boomerang && !_returning) {
+        reverseDirection()
+        _returning = true
+        distanceTraveled = 0f
+        _hitPlayers.clear() // can hit players again on return
+        Projectile.STEP_DEFLECTED
+      } else {
+        Projectile.STEP_EXPIRED
+      }
+    } else if (isOutOfBounds(world)) {
+      Projectile.STEP_BLOCKED
+    } else if (hitsNonWalkable(world) && (!pDef.passesThroughWalls || hitsFence(world))) {
+      // Ricochet: bounce off walls instead of despawning
+      if (_remainingBounces > 0 && !hitsFence(world)) {
+        ricochet(world)
+        Projectile.STEP_DEFLECTED
+      } else {
+        Projectile.STEP_BLOCKED
+      }
+    } else {
+      Projectile.STEP_MOVED
+    }
+  }
+
+  /** Run one full tick of movement (no player collision). Returns false once the projectile has ended. */
+  def simulateTick(world: WorldData): Boolean = {
+    val subSteps = subStepsPerTick
+    val fraction = 1.0f / subSteps
+    var sub = 0
+    while (sub < subSteps) {
+      val outcome = advanceSubStep(world, fraction)
+      if (outcome == Projectile.STEP_EXPIRED || outcome == Projectile.STEP_BLOCKED) return false
+      sub += 1
+    }
+    true
+  }
+
   /** Move one sub-step (fractional tick). */
   def moveStep(fraction: Float): Unit = {
     x += _dx * speedMultiplier * fraction
@@ -301,11 +364,11 @@ class Projectile(
   }
 
   def hitsNonWalkable(world: WorldData): Boolean = {
-    !world.isWalkable(getCellX, getCellY)
+    world.blocksProjectiles(getCellX, getCellY)
   }
 
   def hitsFence(world: WorldData): Boolean = {
-    world.getTile(getCellX, getCellY) == Tile.Fence
+    world.isFence(getCellX, getCellY)
   }
 
   def hitsPlayer(player: Player): Boolean = {
@@ -328,6 +391,27 @@ class Projectile(
     _speed = math.sqrt(newDx * newDx + newDy * newDy).toFloat
   }
 
+  /** Apply an authoritative MOVE correction, including the simulation state the client cannot derive. */
+  def applyCorrection(newX: Float, newY: Float, newDx: Float, newDy: Float, distance: Float, returning: Boolean, bounces: Int): Unit = {
+    updatePosition(newX, newY, newDx, newDy)
+    distanceTraveled = distance
+    _returning = returning
+    _remainingBounces = bounces
+  }
+
+  /** Server-side: flag this projectile for a correction on the next MOVE event (e.g. gem-boosted steps). */
+  def requestCorrection(): Unit = { _correctionPending = true }
+
+  /** Server-side: advance the correction clock by one tick. Returns true (and resets it) when a correction is due. */
+  def pollCorrection(intervalTicks: Int): Boolean = {
+    _ticksSinceCorrection += 1
+    if (_correctionPending || _ticksSinceCorrection >= intervalTicks) {
+      _correctionPending = false
+      _ticksSinceCorrection = 0
+      true
+    } else false
+  }
+
   override def toString: String = {
     s"Projectile{id=$id, owner=${ownerId.toString.substring(0, 8)}, pos=($x, $y), vel=(${_dx}, ${_dy})}"
   }
@@ -253,7 +253,16 @@ object Tile {
     Obsidian, Cliff, Ash, Thorns, Basalt, Gravel
   )
 
-  def fromId(id: Int): Tile = all.find(_.id == id).getOrElse(Grass)
+  // Direct lookup for ids read back from packed layers and map files
+  private val byId: Array[Tile] = {
+    val table = new Array[Tile](all.map(_.id).max + 1)
+    all.foreach(t => table(t.id) = t)
+    table
+  }
+
+  def fromId(id: Int): Tile = {
+    if (id >= 0 && id < byId.length && byId(id) != null) byId(id) else Grass
+  }
 
   def fromName(name: String): Tile = all.find(_.name == name).getOrElse(Grass)
 }
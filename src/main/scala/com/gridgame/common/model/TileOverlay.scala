@@ -0,0 +1,103 @@
+package com.gridgame.common.model
+
+/**
+ * Sparse per-instance tile changes over a shared base world: an open-addressing map from
+ * (x << 32 | y) to tile id on primitive arrays, so an instance holds only the cells it changed.
+ * Writes and reads may come from different threads; an overlay with no changes is read lock-free.
+ */
+final class TileOverlay {
+  private var keys = new Array[Long](16)
+  private var ids = new Array[Byte](16)
+  private var used = new Array[Boolean](16)
+  @volatile private var count = 0
+
+  def size: Int = count
+
+  /** Tile id changed at (x, y), or -1 if the base tile stands. */
+  def get(x: Int, y: Int): Int = {
+    if (count == 0) return -1
+    synchronized {
+      val key = TileOverlay.pack(x, y)
+      var slot = TileOverlay.slotOf(key, keys.length)
+      while (used(slot)) {
+        if (keys(slot) == key) return ids(slot) & 0xFF
+        slot = (slot + 1) & (keys.length - 1)
+      }
+      -1
+    }
+  }
+
+  def put(x: Int, y: Int, id: Int): Unit = synchronized {
+    val key = TileOverlay.pack(x, y)
+    var slot = TileOverlay.slotOf(key, keys.length)
+    while (used(slot)) {
+      if (keys(slot) == key) {
+        ids(slot) = id.toByte
+        return
+      }
+      slot = (slot + 1) & (keys.length - 1)
+    }
+    keys(slot) = key
+    ids(slot) = id.toByte
+    used(slot) = true
+    count += 1
+    if (count * 2 > keys.length) grow()
+  }
+
+  /**
+   * Every change as fn(x, y, tileId). fn runs on a copy taken under the lock, so it may block
+   * (e.g. send packets) without holding up writers.
+   */
+  def foreach(fn: (Int, Int, Int) => Unit): Unit = {
+    var snapshotKeys: Array[Long] = null
+    var snapshotIds: Array[Byte] = null
+    synchronized {
+      snapshotKeys = new Array[Long](count)
+      snapshotIds = new Array[Byte](count)
+      var n = 0
+      var slot = 0
+      while (slot < keys.length) {
+        if (used(slot)) {
+          snapshotKeys(n) = keys(slot)
+          snapshotIds(n) = ids(slot)
+          n += 1
+        }
+        slot += 1
+      }
+    }
+    var i = 0
+    while (i < snapshotKeys.length) {
+      fn((snapshotKeys(i) >> 32).toInt, snapshotKeys(i).toInt, snapshotIds(i) & 0xFF)
+      i += 1
+    }
+  }
+
+  private def grow(): Unit = {
+    val oldKeys = keys
+    val oldIds = ids
+    val oldUsed = used
+    keys = new Array[Long](oldKeys.length * 2)
+    ids = new Array[Byte](oldKeys.length * 2)
+    used = new Array[Boolean](oldKeys.length * 2)
+    var i = 0
+    while (i < oldKeys.length) {
+      if (oldUsed(i)) {
+        var slot = TileOverlay.slotOf(oldKeys(i), keys.length)
+        while (used(slot)) slot = (slot + 1) & (keys.length - 1)
+        keys(slot) = oldKeys(i)
+        ids(slot) = oldIds(i)
+        used(slot) = true
+      }
+      i += 1
+    }
+  }
+}
+
+object TileOverlay {
+  @inline def pack(x: Int, y: Int): Long = (x.toLong << 32) | (y.toLong & 0xFFFFFFFFL)
+
+  private def slotOf(key: Long, capacity: Int): Int = {
+    val h = key * 0x9E3779B97F4A7C15L
+    (h ^ (h >>> 32)).toInt & (capacity - 1)
+  }
+}
@@ -1,39 +1,144 @@
 package com.gridgame.common.model
 
+/**
+ * A tile map. tiles is the authoritative grid; alongside it the world keeps packed row-major
+ * layers (index y * width + x) for hot paths: tile ids as bytes plus walkable, projectile-blocking
+ * and fence bitsets. Change tiles through setTile so the layers stay in sync.
+ *
+ * overlay() gives a world that plays on top of this one without copying it: its changes go to a
+ * sparse TileOverlay, and it shares this world's tiles and layers until its first change, when it
+ * copies only the three bitsets. The base must not change after that (setTile on it throws).
+ */
 class WorldData(
   val name: String,
   val width: Int,
   val height: Int,
   val tiles: Array[Array[Tile]],
   val spawnPoints: Seq[Position],
-  val background: String = "sky"
+  val background: String = "sky",
+  val base: WorldData = null
 ) {
 
+  private val cellCount = width * height
+  // An overlay reads tile ids from the base (plus its overrides) and never writes this layer
+  private val tileIds = if (base != null) base.tileIds else new Array[Byte](cellCount)
+  private var walkableBits = if (base != null) base.walkableBits else new Array[Long]((cellCount + 63) >>> 6)
+  private var blockingBits = if (base != null) base.blockingBits else new Array[Long]((cellCount + 63) >>> 6)
+  private var fenceBits = if (base != null) base.fenceBits else new Array[Long]((cellCount + 63) >>> 6)
+  private var bitsShared = base != null
+  private val overrides: TileOverlay = if (base != null) new TileOverlay() else null
+  @volatile private var frozen = false
+
+  if (base == null) {
+    var y = 0
+    while (y < height) {
+      var x = 0
+      while (x < width) {
+        val i = y * width + x
+        tileIds(i) = tiles(y)(x).id.toByte
+        writeBits(i, tiles(y)(x))
+        x += 1
+      }
+      y += 1
+    }
+  }
+
+  private def writeBits(i: Int, tile: Tile): Unit = {
+    val word = i >>> 6
+    val mask = 1L << i
+    if (tile.walkable) {
+      walkableBits(word) |= mask
+      blockingBits(word) &= ~mask
+    } else {
+      walkableBits(word) &= ~mask
+      blockingBits(word) |= mask
+    }
+    if (tile == Tile.Fence) fenceBits(word) |= mask else fenceBits(word) &= ~mask
+  }
+
+  @inline private def inBounds(x: Int, y: Int): Boolean = x >= 0 && x < width && y >= 0 && y < height
+
+  @inline private def bit(bits: Array[Long], x: Int, y: Int): Boolean = {
+    val i = y * width + x
+    (bits(i >>> 6) & (1L << i)) != 0L
+  }
+
+  /** A world layered over this one (see class doc). This world becomes read-only. Bases only. */
+  def overlay(): WorldData = {
+    // An overlay's tiles and tile ids belong to its base; a child would lose this one's overrides
+    if (base != null) throw new IllegalStateException(s"WorldData: '$name' is already an overlay")
+    frozen = true
+    new WorldData(name, width, height, tiles, spawnPoints, background, this)
+  }
+
   def getTile(x: Int, y: Int): Tile = {
     if (x >= 0 && x < width && y >= 0 && y < height) {
+      if (overrides != null) {
+        val id = overrides.get(x, y)
+        if (id >= 0) return Tile.fromId(id)
+      }
       tiles(y)(x)
     } else {
       Tile.Wall // Out of bounds is treated as wall
     }
   }
 
+  /** Tile id at (x, y) from the packed layer; out of bounds is Tile.Wall's id. */
+  def tileId(x: Int, y: Int): Int = {
+    if (!inBounds(x, y)) return Tile.Wall.id
+    if (overrides != null) {
+      val id = overrides.get(x, y)
+      if (id >= 0) return id
+    }
+    tileIds(y * width + x)
+  }
+
   def isWalkable(x: Int, y: Int): Boolean = {
-    getTile(x, y).walkable
+    inBounds(x, y) && bit(walkableBits, x, y)
   }
 
   def isWalkable(pos: Position): Boolean = {
     isWalkable(pos.getX, pos.getY)
   }
 
+  /** Whether (x, y) stops a projectile that does not pass through walls. Out of bounds blocks. */
+  def blocksProjectiles(x: Int, y: Int): Boolean = {
+    !inBounds(x, y) || bit(blockingBits, x, y)
+  }
+
+  /** Whether (x, y) is a fence, which stops even wall-piercing projectiles and is never bounced off. */
+  def isFence(x: Int, y: Int): Boolean = {
+    inBounds(x, y) && bit(fenceBits, x, y)
+  }
+
   def setTile(x: Int, y: Int, tile: Tile): Boolean = {
+    if (frozen) throw new IllegalStateException(s"WorldData: '$name' is a shared base world; change its overlay instead")
     if (x >= 0 && x < width && y >= 0 && y < height) {
-      tiles(y)(x) = tile
+      val i = y * width + x
+      if (overrides != null) {
+        if (bitsShared) {
+          walkableBits = walkableBits.clone()
+          blockingBits = blockingBits.clone()
+          fenceBits = fenceBits.clone()
+          bitsShared = false
+        }
+        overrides.put(x, y, tile.id)
+      } else {
+        tiles(y)(x) = tile
+        tileIds(i) = tile.id.toByte
+      }
+      writeBits(i, tile)
       true
     } else {
       false
     }
   }
 
+  /** Tiles an overlay world has changed from its base, as fn(x, y, tileId). None for other worlds. */
+  def forEachOverride(fn: (Int, Int, Int) => Unit): Unit = {
+    if (overrides != null) overrides.foreach(fn)
+  }
+
   def getRandomSpawnPoint(): Position = {
     if (spawnPoints.nonEmpty) {
       val idx = (Math.random() * spawnPoints.length).toInt
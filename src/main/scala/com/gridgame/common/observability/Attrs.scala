@@ -41,6 +41,7 @@ object Attrs {
   val InstanceId: AttributeKey[java.lang.Long] = AttributeKey.longKey("instance.id")
   val PlayerId: AttributeKey[String] = AttributeKey.stringKey("player.id")
   val Map: AttributeKey[String] = AttributeKey.stringKey("map")
+  val Cache: AttributeKey[String] = AttributeKey.stringKey("cache")
 
   // ---------- Pre-built attribute sets ----------
 
@@ -74,6 +75,7 @@ object Attrs {
   val ReasonTooShort: Attributes = reason("too_short")
   val ReasonUuidMismatch: Attributes = reason("uuid_mismatch")
   val ReasonTcpOnlyOverUdp: Attributes = reason("tcp_only_over_udp")
+  val ReasonInputQueueFull: Attributes = reason("input_queue_full")
 
   // ---------- Rate-limit kinds ----------
   private def kind(label: String): Attributes = Attributes.of(Kind, label)
@@ -103,6 +105,14 @@ object Attrs {
   val AuthSignupSuccess: Attributes = Attributes.of(Action, "signup", Outcome, "success")
   val AuthSignupFail: Attributes = Attributes.of(Action, "signup", Outcome, "fail")
   val AuthSignupRateLimited: Attributes = Attributes.of(Action, "signup", Outcome, "rate_limited")
+  val AuthLoginBusy: Attributes = Attributes.of(Action, "login", Outcome, "busy")
+  val AuthSignupBusy: Attributes = Attributes.of(Action, "signup", Outcome, "busy")
+
+  // ---------- Cache lookups ----------
+  val CacheAccountHit: Attributes = Attributes.of(Cache, "account", Outcome, "hit")
+  val CacheAccountMiss: Attributes = Attributes.of(Cache, "account", Outcome, "miss")
+  val CacheHistoryHit: Attributes = Attributes.of(Cache, "history", Outcome, "hit")
+  val CacheHistoryMiss: Attributes = Attributes.of(Cache, "history", Outcome, "miss")
 
   // ---------- Connection events ----------
   val ConnTcpOpen: Attributes = Attributes.of(Transport, "tcp", Action, "open")
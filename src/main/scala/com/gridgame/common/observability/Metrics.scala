@@ -117,6 +117,12 @@ object Metrics {
     .setUnit("ms")
     .build()
 
+  val authQueueWait: DoubleHistogram = meter
+    .histogramBuilder("gridgame.auth.queue.wait")
+    .setDescription("Time an auth request waited for an auth worker")
+    .setUnit("ms")
+    .build()
+
   // ===== Lobbies =====
 
   val lobbiesCreated: LongCounter = meter
@@ -251,6 +257,18 @@ object Metrics {
     .setUnit("ms")
     .build()
 
+  val tickOverruns: LongCounter = meter
+    .counterBuilder("gridgame.tick.overruns")
+    .setDescription("Ticks that took longer than their fixed-timestep budget")
+    .setUnit("{tick}")
+    .build()
+
+  val botCpuTime: LongCounter = meter
+    .counterBuilder("gridgame.bots.cpu_time")
+    .setDescription("Thread CPU time spent ticking bots, per instance")
+    .setUnit("us")
+    .build()
+
   val broadcastFanout: LongHistogram = meter
     .histogramBuilder("gridgame.broadcast.fanout")
     .ofLongs()
@@ -292,6 +310,25 @@ object Metrics {
     .setUnit("{err}")
     .build()
 
+  val dbWriteBehindBatch: LongHistogram = meter
+    .histogramBuilder("gridgame.db.write_behind.batch")
+    .ofLongs()
+    .setDescription("Matches committed per write-behind group commit")
+    .setUnit("{match}")
+    .build()
+
+  val dbWriteBehindFull: LongCounter = meter
+    .counterBuilder("gridgame.db.write_behind.full")
+    .setDescription("Match submits that found the write-behind queue full and waited for the writer")
+    .setUnit("{match}")
+    .build()
+
+  val cacheLookups: LongCounter = meter
+    .counterBuilder("gridgame.cache.lookups")
+    .setDescription("In-memory cache lookups, by cache and hit/miss")
+    .setUnit("{lookup}")
+    .build()
+
   // ===== Client (only used when client telemetry is enabled) =====
 
   val clientFrameDuration: DoubleHistogram = meter
@@ -10,21 +10,33 @@ object AuthAction {
   val SIGNUP: Byte = 1
 }
 
+/** Client capability bits advertised in AUTH_REQUEST byte [62]. */
+object AuthCapability {
+  val UDP_BUNDLES: Byte = 0x01 // client accepts multi-payload UDP datagrams (PacketSigner.signBundle)
+}
+
 class AuthRequestPacket(
     sequenceNumber: Int,
     timestamp: Int,
     val action: Byte,
     val username: String,
-    val password: String
+    val password: String,
+    val capabilities: Byte = 0
 ) extends Packet(PacketType.AUTH_REQUEST, sequenceNumber, new UUID(0L, 0L), timestamp) {
 
   def this(sequenceNumber: Int, action: Byte, username: String, password: String) = {
     this(sequenceNumber, Packet.getCurrentTimestamp, action, username, password)
   }
 
+  def this(sequenceNumber: Int, action: Byte, username: String, password: String, capabilities: Byte) = {
+    this(sequenceNumber, Packet.getCurrentTimestamp, action, username, password, capabilities)
+  }
+
   def getAction: Byte = action
   def getUsername: String = username
   def getPassword: String = password
+  def getCapabilities: Byte = capabilities
+  def supportsUdpBundles: Boolean = (capabilities & AuthCapability.UDP_BUNDLES) != 0
 
   override def serialize(): Array[Byte] = {
     val buffer = SerializeUtil.acquireBuffer()
@@ -54,8 +66,11 @@ class AuthRequestPacket(
     buffer.put(passwordBytes, 0, passwordLen)
     buffer.put(new Array[Byte](20 - passwordLen))
 
-    // [62-63] Reserved
-    buffer.put(new Array[Byte](2))
+    // [62] Capability flags (AuthCapability)
+    buffer.put(capabilities)
+
+    // [63] Reserved
+    buffer.put(0.toByte)
 
     buffer.array().clone()
   }
@@ -0,0 +1,71 @@
+package com.gridgame.common.protocol
+
+import java.util.UUID
+
+/**
+ * Instance-scoped 16-bit handles for players and bots. The server assigns one per entity when it
+ * enters an instance and announces it once over TCP (GameEvent.HANDLE_ASSIGN); in-match packets
+ * then carry the 2-byte handle instead of a 16-byte UUID. Handles are never reused within an
+ * instance, so a late or reordered packet can't resolve to the wrong player.
+ */
+class EntityHandles {
+  private var ids = new Array[UUID](64)
+  private val byId = new java.util.HashMap[UUID, Integer]()
+  private var highest = EntityHandles.NONE
+
+  /** Server: the entity's handle, assigning the next free one on first sight. NONE once exhausted. */
+  def assign(id: UUID): Int = synchronized {
+    val existing = byId.get(id)
+    if (existing != null) return existing.intValue()
+    if (highest >= EntityHandles.MAX) return EntityHandles.NONE
+    highest += 1
+    store(highest, id)
+    highest
+  }
+
+  /** Client: record a handle announced by the server. */
+  def bind(handle: Int, id: UUID): Unit = synchronized {
+    if (handle <= EntityHandles.NONE || handle > EntityHandles.MAX || id == null) return
+    store(handle, id)
+    if (handle > highest) highest = handle
+  }
+
+  def handleOf(id: UUID): Int = synchronized {
+    if (id == null) return EntityHandles.NONE
+    val h = byId.get(id)
+    if (h != null) h.intValue() else EntityHandles.NONE
+  }
+
+  /** The bound entity, or null if the handle hasn't been announced (yet). */
+  def resolve(handle: Int): UUID = synchronized {
+    if (handle <= EntityHandles.NONE || handle >= ids.length) null else ids(handle)
+  }
+
+  /** Highest handle assigned or bound so far; handles run 1..highest. */
+  def highestHandle: Int = synchronized { highest }
+
+  def clear(): Unit = synchronized {
+    java.util.Arrays.fill(ids.asInstanceOf[Array[AnyRef]], null)
+    byId.clear()
+    highest = EntityHandles.NONE
+  }
+
+  private def store(handle: Int, id: UUID): Unit = {
+    if (handle >= ids.length) {
+      var size = ids.length
+      while (size <= handle) size *= 2
+      ids = java.util.Arrays.copyOf(ids, size)
+    }
+    val previous = ids(handle)
+    if (previous != null) byId.remove(previous)
+    ids(handle) = id
+    byId.put(id, Integer.valueOf(handle))
+  }
+}
+
+object EntityHandles {
+  val NONE: Int = 0
+  val MAX: Int = 0xFFFF
+  // Placeholder Packet.playerId for handle-addressed packets, resolved by the receiver
+  val UNRESOLVED: UUID = new UUID(0L, 0L)
+}
@@ -11,6 +11,7 @@ object GameEvent {
   val SCORE_ENTRY: Byte = 3
   val SCORE_END: Byte = 4
   val RESPAWN: Byte = 5
+  val HANDLE_ASSIGN: Byte = 6 // playerUUID is now known in this instance as handle
 }
 
 /**
@@ -19,8 +20,8 @@ object GameEvent {
  * [0] type=0x0A, [1-4] seq, [5-20] playerUUID (killer/subject),
  * [21] eventType, [22-23] gameId (short), [24-27] remainingSeconds (int),
  * [28-29] kills (short), [30-31] deaths (short),
- * [32-47] targetUUID (victim), [48-52] reserved, [53] rank, [54-55] spawnX (short),
- * [56-57] spawnY (short), [58-63] reserved
+ * [32-47] targetUUID (victim), [48-49] entity handle (short), [50-52] reserved, [53] rank,
+ * [54-55] spawnX (short), [56-57] spawnY (short), [58] teamId, [59-63] reserved
  */
 class GameEventPacket(
     sequenceNumber: Int,
@@ -35,7 +36,8 @@ class GameEventPacket(
     val rank: Byte = 0,
     val spawnX: Short = 0,
     val spawnY: Short = 0,
-    val teamId: Byte = 0
+    val teamId: Byte = 0,
+    val handle: Short = 0
 ) extends Packet(PacketType.GAME_EVENT, sequenceNumber, playerId, timestamp) {
 
 
@@ -63,6 +65,7 @@ class GameEventPacket(
   def getSpawnX: Short = spawnX
   def getSpawnY: Short = spawnY
   def getTeamId: Byte = teamId
+  def getHandle: Int = handle & 0xFFFF
 
   override def serialize(): Array[Byte] = {
     val buffer = SerializeUtil.acquireBuffer()
@@ -101,8 +104,11 @@ class GameEventPacket(
       buffer.putLong(0L)
     }
 
-    // [48-52] Reserved (5 bytes)
-    buffer.put(new Array[Byte](5))
+    // [48-49] Entity handle
+    buffer.putShort(handle)
+
+    // [50-52] Reserved (3 bytes)
+    buffer.put(new Array[Byte](3))
 
     // [53] Rank
     buffer.put(rank)
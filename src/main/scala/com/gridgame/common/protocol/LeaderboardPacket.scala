@@ -24,7 +24,9 @@ object LeaderboardAction {
  * [29-32] matchesPlayed (int), [33-52] username (20 bytes),
  * [53-63] reserved
  *
- * END (server->client): no additional data
+ * END (server->client):
+ * [22-25] playerRank (int) - the requester's own 1-based position, 0 if unranked,
+ * [26-63] reserved
  */
 class LeaderboardPacket(
     sequenceNumber: Int,
@@ -35,7 +37,8 @@ class LeaderboardPacket(
     val elo: Short = 1000,
     val wins: Int = 0,
     val matchesPlayed: Int = 0,
-    val username: String = ""
+    val username: String = "",
+    val playerRank: Int = 0
 ) extends Packet(PacketType.LEADERBOARD, sequenceNumber, playerId, timestamp) {
 
   def this(sequenceNumber: Int, playerId: UUID, action: Byte) = {
@@ -48,6 +51,7 @@ class LeaderboardPacket(
   def getWins: Int = wins
   def getMatchesPlayed: Int = matchesPlayed
   def getUsername: String = username
+  def getPlayerRank: Int = playerRank
 
   override def serialize(): Array[Byte] = {
     val buffer = SerializeUtil.acquireBuffer()
@@ -78,7 +82,11 @@ class LeaderboardPacket(
         buffer.put(namePadded)
         buffer.put(new Array[Byte](11)) // [53-63] reserved
 
-      case _ => // QUERY or END
+      case LeaderboardAction.END =>
+        buffer.putInt(playerRank)       // [22-25]
+        buffer.put(new Array[Byte](38)) // [26-63] reserved
+
+      case _ => // QUERY
         buffer.put(new Array[Byte](42)) // [22-63] reserved
     }
 
@@ -18,7 +18,21 @@ object PacketSerializer {
       )
     }
 
-    val buffer = ByteBuffer.wrap(data)
+    deserialize(ByteBuffer.wrap(data))
+  }
+
+  /**
+   * Deserialize the 64-byte payload in source's remaining bytes without copying it out, e.g. a
+   * nioBuffer view of a received ByteBuf. source's position is left unchanged.
+   */
+  def deserialize(source: ByteBuffer): Packet = {
+    if (source.remaining() != Constants.PACKET_PAYLOAD_SIZE) {
+      throw new IllegalArgumentException(
+        s"Invalid packet size: expected ${Constants.PACKET_PAYLOAD_SIZE} bytes, got ${source.remaining()}"
+      )
+    }
+
+    val buffer = source.slice()
     buffer.order(ByteOrder.BIG_ENDIAN)
 
     // [0] Packet Type
@@ -28,6 +42,11 @@ object PacketSerializer {
     // [1-4] Sequence Number
     val sequenceNumber = buffer.getInt()
 
+    // Handle-addressed projectile updates carry 16-bit entity handles in place of the UUID
+    if (packetType == PacketType.PROJECTILE_UPDATE && (buffer.get(45) & ProjectileAction.HANDLE_ADDRESSED) != 0) {
+      return deserializeProjectileByHandle(buffer, sequenceNumber)
+    }
+
     // [5-20] Player ID (UUID)
     val mostSigBits = buffer.getLong()
     val leastSigBits = buffer.getLong()
@@ -48,7 +67,9 @@ object PacketSerializer {
         val passwordBytes = new Array[Byte](20)
         buffer.get(passwordBytes)
         val password = extractString(passwordBytes)
-        new AuthRequestPacket(sequenceNumber, Packet.getCurrentTimestamp, action, username, password)
+        // [62] Capability flags (0 from older clients)
+        val capabilities = buffer.get()
+        new AuthRequestPacket(sequenceNumber, Packet.getCurrentTimestamp, action, username, password, capabilities)
 
       case PacketType.AUTH_RESPONSE =>
         // Buffer is at byte 21 (after standard header: type + seq + UUID)
@@ -110,7 +131,11 @@ object PacketSerializer {
             new LeaderboardPacket(sequenceNumber, playerId, Packet.getCurrentTimestamp, action,
               rank, elo, wins, matchesPlayed, username)
 
-          case _ => // QUERY or END
+          case LeaderboardAction.END =>
+            new LeaderboardPacket(sequenceNumber, playerId, Packet.getCurrentTimestamp, action,
+              playerRank = buffer.getInt())
+
+          case _ => // QUERY
             new LeaderboardPacket(sequenceNumber, playerId, action)
         }
 
@@ -171,13 +196,14 @@ object PacketSerializer {
         } else {
           null
         }
-        buffer.get(new Array[Byte](5)) // reserved
+        val handle = buffer.getShort()
+        buffer.get(new Array[Byte](3)) // reserved
         val rank = buffer.get()
         val spawnX = buffer.getShort()
         val spawnY = buffer.getShort()
         val teamId = buffer.get()
         new GameEventPacket(sequenceNumber, playerId, Packet.getCurrentTimestamp, eventType, gameId,
-          remainingSeconds, kills, deaths, targetId, rank, spawnX, spawnY, teamId)
+          remainingSeconds, kills, deaths, targetId, rank, spawnX, spawnY, teamId, handle)
 
       case PacketType.CHAT_MESSAGE =>
         val scope = buffer.get()
@@ -186,6 +212,17 @@ object PacketSerializer {
         val message = extractString(msgBytes)
         new ChatMessagePacket(sequenceNumber, playerId, Packet.getCurrentTimestamp, scope, message)
 
+      case PacketType.PLAYER_SNAPSHOT =>
+        val snapshotSeq = buffer.getShort() & 0xFFFF
+        val baselineSeq = buffer.getShort() & 0xFFFF
+        val part = buffer.get() & 0xFF
+        val partCount = buffer.get() & 0xFF
+        val entryCount = buffer.get() & 0xFF
+        val entryData = new Array[Byte](PlayerSnapshotPacket.ENTRY_BYTES)
+        buffer.get(entryData)
+        new PlayerSnapshotPacket(sequenceNumber, playerId, Packet.getCurrentTimestamp,
+          snapshotSeq, baselineSeq, part, partCount, entryCount, entryData)
+
       case PacketType.PROJECTILE_UPDATE =>
         // [21-24] X Position (as float)
         val x = buffer.getFloat()
@@ -206,21 +243,36 @@ object PacketSerializer {
         val dx = dxShort / 32767.0f
         val dy = dyShort / 32767.0f
         val action = payloadBuffer.get()
-        val targetMostSig = payloadBuffer.getLong
-        val targetLeastSig = payloadBuffer.getLong
-        val targetId = if (targetMostSig != 0L || targetLeastSig != 0L) {
-          new UUID(targetMostSig, targetLeastSig)
+        if (action == ProjectileAction.MOVE) {
+          // MOVE reuses the target slot for simulation state: [9-12] distance, [13] returning, [14] bounces
+          val distance = payloadBuffer.getFloat
+          val returning = payloadBuffer.get() != 0
+          val bounces = payloadBuffer.get() & 0xFF
+          payloadBuffer.position(25)
+          val chargeLevel = payloadBuffer.get()
+          val projectileType = payloadBuffer.get()
+          new ProjectilePacket(
+            sequenceNumber, playerId, timestamp, x, y, colorRGB,
+            projectileId, dx, dy, action, null, chargeLevel, projectileType,
+            distance, returning, bounces
+          )
         } else {
-          null
+          val targetMostSig = payloadBuffer.getLong
+          val targetLeastSig = payloadBuffer.getLong
+          val targetId = if (targetMostSig != 0L || targetLeastSig != 0L) {
+            new UUID(targetMostSig, targetLeastSig)
+          } else {
+            null
+          }
+          // [25] charge level (absolute byte [62])
+          val chargeLevel = payloadBuffer.get()
+          // [26] projectile type (absolute byte [63])
+          val projectileType = payloadBuffer.get()
+          new ProjectilePacket(
+            sequenceNumber, playerId, timestamp, x, y, colorRGB,
+            projectileId, dx, dy, action, targetId, chargeLevel, projectileType
+          )
         }
-        // [25] charge level (absolute byte [62])
-        val chargeLevel = payloadBuffer.get()
-        // [26] projectile type (absolute byte [63])
-        val projectileType = payloadBuffer.get()
-        new ProjectilePacket(
-          sequenceNumber, playerId, timestamp, x, y, colorRGB,
-          projectileId, dx, dy, action, targetId, chargeLevel, projectileType
-        )
 
       case _ =>
         // [21-24] X Position (as int)
@@ -294,6 +346,33 @@ object PacketSerializer {
     }
   }
 
+  private def deserializeProjectileByHandle(buffer: ByteBuffer, sequenceNumber: Int): Packet = {
+    // [5-6] Owner handle, [7-8] target handle, [9-20] reserved
+    val ownerHandle = buffer.getShort() & 0xFFFF
+    val targetHandle = buffer.getShort() & 0xFFFF
+    buffer.position(21)
+    val x = buffer.getFloat()
+    val y = buffer.getFloat()
+    val colorRGB = buffer.getInt()
+    val timestamp = buffer.getInt()
+    val projectileId = buffer.getInt()
+    val dx = buffer.getShort() / 32767.0f
+    val dy = buffer.getShort() / 32767.0f
+    val action = (buffer.get() & ~ProjectileAction.HANDLE_ADDRESSED).toByte
+    // [46-49] distance, [50] returning, [51] bounces (MOVE only)
+    val distance = buffer.getFloat()
+    val returning = buffer.get() != 0
+    val bounces = buffer.get() & 0xFF
+    buffer.position(62)
+    val chargeLevel = buffer.get()
+    val projectileType = buffer.get()
+    new ProjectilePacket(
+      sequenceNumber, EntityHandles.UNRESOLVED, timestamp, x, y, colorRGB,
+      projectileId, dx, dy, action, null, chargeLevel, projectileType,
+      distance, returning, bounces, ownerHandle, targetHandle
+    )
+  }
+
   private def extractString(bytes: Array[Byte]): String = {
     var length = 0
     var i = 0
@@ -2,6 +2,7 @@ package com.gridgame.common.protocol
 
 import com.gridgame.common.Constants
 
+import java.nio.ByteBuffer
 import java.security.MessageDigest
 import java.util.Arrays
 import javax.crypto.Mac
@@ -13,6 +14,8 @@ object PacketSigner {
   // ThreadLocal cached Mac instances to avoid Mac.getInstance() + new SecretKeySpec per packet
   private val threadLocalMac: ThreadLocal[Mac] = ThreadLocal.withInitial(() => Mac.getInstance(ALGORITHM))
   private val threadLocalKey: ThreadLocal[Array[Byte]] = ThreadLocal.withInitial(() => null)
+  // Full-length HMAC scratch so doFinal doesn't allocate its result array
+  private val threadLocalHmac: ThreadLocal[Array[Byte]] = ThreadLocal.withInitial(() => new Array[Byte](32))
 
   /** Sign a 64-byte payload, returning an 80-byte packet with 16-byte truncated HMAC appended. */
   def sign(payload: Array[Byte], sessionToken: Array[Byte]): Array[Byte] = {
@@ -22,6 +25,44 @@ object PacketSigner {
     result
   }
 
+  /**
+   * Sign a 64-byte payload straight into dest (e.g. a pooled direct ByteBuf's nioBuffer):
+   * writes the payload and the 16-byte truncated HMAC at dest's position, advancing it by 80.
+   */
+  def signInto(payload: Array[Byte], sessionToken: Array[Byte], dest: ByteBuffer): Unit = {
+    val mac = macFor(sessionToken)
+    mac.update(payload, 0, Constants.PACKET_PAYLOAD_SIZE)
+    val hmac = threadLocalHmac.get()
+    mac.doFinal(hmac, 0)
+    dest.put(payload, 0, Constants.PACKET_PAYLOAD_SIZE)
+    dest.put(hmac, 0, Constants.HMAC_SIZE)
+  }
+
+  /**
+   * Verify an 80-byte signed packet in place: packet's remaining bytes are the payload followed
+   * by the HMAC. Nothing is copied and packet's position and limit are left unchanged.
+   */
+  def verify(packet: ByteBuffer, sessionToken: Array[Byte]): Boolean = {
+    if (packet.remaining() != Constants.PACKET_SIZE) return false
+    val start = packet.position()
+    val limit = packet.limit()
+    val mac = macFor(sessionToken)
+    packet.limit(start + Constants.PACKET_PAYLOAD_SIZE)
+    mac.update(packet)
+    packet.limit(limit)
+    packet.position(start)
+    val hmac = threadLocalHmac.get()
+    mac.doFinal(hmac, 0)
+    val hmacStart = start + Constants.PACKET_PAYLOAD_SIZE
+    var diff = 0
+    var i = 0
+    while (i < Constants.HMAC_SIZE) {
+      diff |= hmac(i) ^ packet.get(hmacStart + i)
+      i += 1
+    }
+    diff == 0
+  }
+
   /** Verify an 80-byte signed packet. Returns the 64-byte payload if valid, null otherwise. */
   def verify(signedPacket: Array[Byte], sessionToken: Array[Byte]): Array[Byte] = {
     if (signedPacket == null || signedPacket.length != Constants.PACKET_SIZE) return null
@@ -37,16 +78,70 @@ object PacketSigner {
     if (MessageDigest.isEqual(receivedHmac, expectedHmac)) payload else null
   }
 
-  /** Compute truncated HMAC directly into a destination array, avoiding intermediate allocations. */
-  private def computeHmacInto(data: Array[Byte], key: Array[Byte], dest: Array[Byte], destOffset: Int): Unit = {
+  /**
+   * Sign `count` consecutive 64-byte payloads as one bundle: the payloads followed by a single
+   * 16-byte HMAC over all of them. A bundle of one is byte-identical to sign().
+   */
+  def signBundle(payloads: Array[Byte], count: Int, sessionToken: Array[Byte]): Array[Byte] = {
+    val len = count * Constants.PACKET_PAYLOAD_SIZE
+    val result = new Array[Byte](len + Constants.HMAC_SIZE)
+    signBundleInto(payloads, count, sessionToken, ByteBuffer.wrap(result))
+    result
+  }
+
+  /** signBundle into dest at its position, advancing it by count * 64 + 16 bytes. */
+  def signBundleInto(payloads: Array[Byte], count: Int, sessionToken: Array[Byte], dest: ByteBuffer): Unit = {
+    val len = count * Constants.PACKET_PAYLOAD_SIZE
+    val mac = macFor(sessionToken)
+    mac.update(payloads, 0, len)
+    val hmac = threadLocalHmac.get()
+    mac.doFinal(hmac, 0)
+    dest.put(payloads, 0, len)
+    dest.put(hmac, 0, Constants.HMAC_SIZE)
+  }
+
+  /**
+   * Verify a bundle of `length` bytes (N * 64 payload bytes + 16-byte HMAC).
+   * Returns the N * 64 payload bytes if valid, null otherwise.
+   */
+  def verifyBundle(data: Array[Byte], length: Int, sessionToken: Array[Byte]): Array[Byte] = {
+    val payloadLen = length - Constants.HMAC_SIZE
+    if (data == null || length > data.length || payloadLen <= 0 ||
+        payloadLen % Constants.PACKET_PAYLOAD_SIZE != 0) return null
+
+    val mac = macFor(sessionToken)
+    mac.update(data, 0, payloadLen)
+    val fullHmac = mac.doFinal()
+    var diff = 0
+    var i = 0
+    while (i < Constants.HMAC_SIZE) {
+      diff |= fullHmac(i) ^ data(payloadLen + i)
+      i += 1
+    }
+    if (diff != 0) return null
+
+    val payloads = new Array[Byte](payloadLen)
+    System.arraycopy(data, 0, payloads, 0, payloadLen)
+    payloads
+  }
+
+  private def macFor(key: Array[Byte]): Mac = {
     val mac = threadLocalMac.get()
     val cachedKey = threadLocalKey.get()
     if (cachedKey == null || !Arrays.equals(cachedKey, key)) {
       mac.init(new SecretKeySpec(key, ALGORITHM))
       threadLocalKey.set(key.clone())
     }
-    val fullHmac = mac.doFinal(data)
-    System.arraycopy(fullHmac, 0, dest, destOffset, Constants.HMAC_SIZE)
+    mac
+  }
+
+  /** Compute truncated HMAC directly into a destination array, avoiding intermediate allocations. */
+  private def computeHmacInto(data: Array[Byte], key: Array[Byte], dest: Array[Byte], destOffset: Int): Unit = {
+    val mac = macFor(key)
+    mac.update(data, 0, Constants.PACKET_PAYLOAD_SIZE)
+    val hmac = threadLocalHmac.get()
+    mac.doFinal(hmac, 0)
+    System.arraycopy(hmac, 0, dest, destOffset, Constants.HMAC_SIZE)
   }
 
   private def computeHmac(data: Array[Byte], key: Array[Byte]): Array[Byte] = {
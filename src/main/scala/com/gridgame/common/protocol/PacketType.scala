@@ -20,11 +20,12 @@ object PacketType {
   case object LEADERBOARD extends PacketType(0x0F.toByte, true)
   case object SESSION_TOKEN extends PacketType(0x10.toByte, true)
   case object CHAT_MESSAGE extends PacketType(0x11.toByte, true)
+  case object PLAYER_SNAPSHOT extends PacketType(0x12.toByte, false)
 
-  // O(1) lookup array indexed by packet type ID (IDs range 0x01-0x11)
+  // O(1) lookup array indexed by packet type ID (IDs range 0x01-0x12)
   private val lookupTable: Array[PacketType] = {
-    val table = new Array[PacketType](0x12) // 18 entries, index 0 unused
-    val all = Array(PLAYER_JOIN, PLAYER_UPDATE, PLAYER_LEAVE, WORLD_INFO, HEARTBEAT, PROJECTILE_UPDATE, ITEM_UPDATE, TILE_UPDATE, LOBBY_ACTION, GAME_EVENT, AUTH_REQUEST, AUTH_RESPONSE, MATCH_HISTORY, RANKED_QUEUE, LEADERBOARD, SESSION_TOKEN, CHAT_MESSAGE)
+    val table = new Array[PacketType](0x13) // 19 entries, index 0 unused
+    val all = Array(PLAYER_JOIN, PLAYER_UPDATE, PLAYER_LEAVE, WORLD_INFO, HEARTBEAT, PROJECTILE_UPDATE, ITEM_UPDATE, TILE_UPDATE, LOBBY_ACTION, GAME_EVENT, AUTH_REQUEST, AUTH_RESPONSE, MATCH_HISTORY, RANKED_QUEUE, LEADERBOARD, SESSION_TOKEN, CHAT_MESSAGE, PLAYER_SNAPSHOT)
     all.foreach(pt => table(pt.id & 0xFF) = pt)
     table
   }
@@ -0,0 +1,93 @@
+package com.gridgame.common.protocol
+
+import java.util.UUID
+
+/** Field bits for a snapshot entry's change mask. Fields are encoded in this order. */
+object SnapshotField {
+  val POS_DELTA: Int = 0x01 // dx, dy as signed bytes relative to the baseline
+  val POS_ABS: Int = 0x02   // x, y as unsigned shorts
+  val HEALTH: Int = 0x04    // short
+  val FLAGS: Int = 0x08     // effect flag byte (same bits as PlayerUpdatePacket)
+  val CHARGE: Int = 0x10    // byte 0-100
+  val COLOR: Int = 0x20     // ARGB int
+  val IDENTITY: Int = 0x40  // entity handle, characterId, teamId — binds the slot to a player
+
+  val ALL: Int = POS_ABS | HEALTH | FLAGS | CHARGE | COLOR | IDENTITY
+}
+
+/**
+ * 64-byte delta-compressed player snapshot (UDP).
+ * Server->client: one part of snapshot snapshotSeq, encoded against baselineSeq (the newest
+ * snapshot the client acked, or NO_BASELINE for a full state). Client->server: an ack for
+ * snapshotSeq, sent with partCount = 0 and no entries.
+ * Layout:
+ * [0] type=0x12, [1-4] seq, [5-20] playerUUID (recipient / acking player),
+ * [21-22] snapshotSeq (u16), [23-24] baselineSeq (u16), [25] part, [26] partCount,
+ * [27] entryCount, [28-63] entries (see SnapshotFrame)
+ */
+class PlayerSnapshotPacket(
+    sequenceNumber: Int,
+    playerId: UUID,
+    timestamp: Int,
+    val snapshotSeq: Int,
+    val baselineSeq: Int,
+    val part: Int,
+    val partCount: Int,
+    val entryCount: Int,
+    val entryData: Array[Byte]
+) extends Packet(PacketType.PLAYER_SNAPSHOT, sequenceNumber, playerId, timestamp) {
+
+  def getSnapshotSeq: Int = snapshotSeq
+  def getBaselineSeq: Int = baselineSeq
+  def getPart: Int = part
+  def getPartCount: Int = partCount
+  def getEntryCount: Int = entryCount
+  def getEntryData: Array[Byte] = entryData
+
+  def isAck: Boolean = partCount == 0
+
+  override def serialize(): Array[Byte] = {
+    val buffer = SerializeUtil.acquireBuffer()
+
+    // [0] Packet Type
+    buffer.put(packetType.id)
+
+    // [1-4] Sequence Number
+    buffer.putInt(sequenceNumber)
+
+    // [5-20] Player ID (UUID)
+    buffer.putLong(playerId.getMostSignificantBits)
+    buffer.putLong(playerId.getLeastSignificantBits)
+
+    // [21-22] Snapshot sequence
+    buffer.putShort(snapshotSeq.toShort)
+
+    // [23-24] Baseline sequence
+    buffer.putShort(baselineSeq.toShort)
+
+    // [25] Part index, [26] part count, [27] entry count
+    buffer.put(part.toByte)
+    buffer.put(partCount.toByte)
+    buffer.put(entryCount.toByte)
+
+    // [28-63] Entries (zero padded)
+    val len = if (entryData != null) Math.min(entryData.length, PlayerSnapshotPacket.ENTRY_BYTES) else 0
+    if (len > 0) buffer.put(entryData, 0, len)
+    while (buffer.position() < buffer.capacity()) buffer.put(0.toByte)
+
+    buffer.array().clone()
+  }
+
+  override def toString: String = {
+    s"PlayerSnapshotPacket{seq=$sequenceNumber, snapshot=$snapshotSeq, baseline=$baselineSeq, part=$part/$partCount, entries=$entryCount}"
+  }
+}
+
+object PlayerSnapshotPacket {
+  val NO_BASELINE: Int = 0xFFFF
+  val ENTRY_BYTES: Int = 36 // bytes [28-63]
+
+  def ack(sequenceNumber: Int, playerId: UUID, snapshotSeq: Int): PlayerSnapshotPacket =
+    new PlayerSnapshotPacket(sequenceNumber, playerId, Packet.getCurrentTimestamp,
+      snapshotSeq, NO_BASELINE, 0, 0, 0, null)
+}
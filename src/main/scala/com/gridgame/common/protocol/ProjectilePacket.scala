@@ -9,6 +9,9 @@ object ProjectileAction {
   val MOVE: Byte = 1
   val HIT: Byte = 2
   val DESPAWN: Byte = 3
+
+  // Set on the wire when owner/target are EntityHandles instead of UUIDs (server->client only)
+  val HANDLE_ADDRESSED: Byte = 0x40
 }
 
 class ProjectilePacket(
@@ -24,7 +27,12 @@ class ProjectilePacket(
     val action: Byte,
     val targetId: UUID = null,
     val chargeLevel: Byte = 0,
-    val projectileType: Byte = 0
+    val projectileType: Byte = 0,
+    val distanceTraveled: Float = 0f,
+    val returning: Boolean = false,
+    val remainingBounces: Int = 0,
+    val ownerHandle: Int = EntityHandles.NONE,
+    val targetHandle: Int = EntityHandles.NONE
 ) extends Packet(PacketType.PROJECTILE_UPDATE, sequenceNumber, ownerId, timestamp) {
 
   def this(sequenceNumber: Int, ownerId: UUID, x: Float, y: Float, colorRGB: Int,
@@ -71,7 +79,80 @@ class ProjectilePacket(
 
   def getProjectileType: Byte = projectileType
 
+  def getDistanceTraveled: Float = distanceTraveled
+
+  def isReturning: Boolean = returning
+
+  def getRemainingBounces: Int = remainingBounces
+
+  def getOwnerHandle: Int = ownerHandle
+
+  def getTargetHandle: Int = targetHandle
+
+  /** True if decoded from the handle layout; owner and target must be resolved through EntityHandles. */
+  def isHandleAddressed: Boolean = ownerHandle != EntityHandles.NONE
+
   override def serialize(): Array[Byte] = {
+    if (isHandleAddressed) serializeWithHandles(ownerHandle, targetHandle)
+    else serializeWithIds()
+  }
+
+  /**
+   * Handle layout, used by the server for in-match broadcasts:
+   * [5-6] owner handle, [7-8] target handle, [9-20] reserved; [21-63] as the UUID layout,
+   * with HANDLE_ADDRESSED set in the action byte and [46-61] unused outside MOVE.
+   */
+  def serializeWithHandles(owner: Int, target: Int): Array[Byte] = {
+    val buffer = SerializeUtil.acquireBuffer()
+
+    // [0] Packet Type
+    buffer.put(packetType.id)
+
+    // [1-4] Sequence Number
+    buffer.putInt(sequenceNumber)
+
+    // [5-6] Owner handle, [7-8] target handle
+    buffer.putShort(owner.toShort)
+    buffer.putShort(target.toShort)
+
+    // [9-20] Reserved
+    buffer.putInt(0)
+    buffer.putLong(0L)
+
+    // [21-24] X, [25-28] Y, [29-32] Color, [33-36] Timestamp
+    buffer.putFloat(x)
+    buffer.putFloat(y)
+    buffer.putInt(colorRGB)
+    buffer.putInt(timestamp)
+
+    // [37-40] Projectile ID, [41-44] DX/DY
+    buffer.putInt(projectileId)
+    buffer.putShort((dx * 32767).toShort)
+    buffer.putShort((dy * 32767).toShort)
+
+    // [45] Action
+    buffer.put((action | ProjectileAction.HANDLE_ADDRESSED).toByte)
+
+    // [46-61] MOVE simulation state, otherwise unused
+    if (action == ProjectileAction.MOVE) {
+      buffer.putFloat(distanceTraveled)
+      buffer.put(if (returning) 1.toByte else 0.toByte)
+      buffer.put(remainingBounces.min(255).toByte)
+      buffer.putLong(0L)
+      buffer.putShort(0.toShort)
+    } else {
+      buffer.putLong(0L)
+      buffer.putLong(0L)
+    }
+
+    // [62] Charge level, [63] Projectile type
+    buffer.put(chargeLevel)
+    buffer.put(projectileType)
+
+    buffer.array().clone()
+  }
+
+  private def serializeWithIds(): Array[Byte] = {
     val buffer = SerializeUtil.acquireBuffer()
 
     // [0] Packet Type
@@ -110,7 +191,14 @@ class ProjectilePacket(
     buffer.put(action)
 
     // [46-61] Target UUID (for hit action)
-    if (targetId != null) {
+    if (action == ProjectileAction.MOVE) {
+      // MOVE corrections carry simulation state instead: [46-49] distance, [50] returning, [51] bounces
+      buffer.putFloat(distanceTraveled)
+      buffer.put(if (returning) 1.toByte else 0.toByte)
+      buffer.put(remainingBounces.min(255).toByte)
+      buffer.putLong(0L)
+      buffer.putShort(0.toShort)
+    } else if (targetId != null) {
       buffer.putLong(targetId.getMostSignificantBits)
       buffer.putLong(targetId.getLeastSignificantBits)
     } else {
@@ -135,6 +223,6 @@ class ProjectilePacket(
       case ProjectileAction.DESPAWN => "DESPAWN"
       case _ => "UNKNOWN"
     }
-    s"ProjectilePacket{seq=$sequenceNumber, owner=${playerId.toString.substring(0, 8)}, pos=($x, $y), projId=$projectileId, vel=($dx, $dy), action=$actionStr}"
+    s"ProjectilePacket{seq=$sequenceNumber, owner=${if (isHandleAddressed) s"#$ownerHandle" else playerId.toString.substring(0, 8)}, pos=($x, $y), projId=$projectileId, vel=($dx, $dy), action=$actionStr}"
   }
 }
@@ -0,0 +1,158 @@
+package com.gridgame.common.protocol
+
+import java.nio.ByteBuffer
+
+/**
+ * Player state for one snapshot, indexed by instance-local slot. Used on both ends: the server
+ * keeps one per unacked snapshot per viewer to diff against, the client rebuilds one per
+ * received snapshot from its baseline.
+ *
+ * Entry encoding: [slot u8][mask u8] then the SnapshotField values present in mask, in order
+ * IDENTITY (2+1+1), POS_DELTA (1+1) or POS_ABS (2+2), HEALTH (2), FLAGS (1), CHARGE (1), COLOR (4).
+ */
+class SnapshotFrame(val capacity: Int) {
+  var seq: Int = -1
+  val present = new Array[Boolean](capacity)
+  val handles = new Array[Int](capacity) // EntityHandles handle bound to the slot
+  val x = new Array[Int](capacity)
+  val y = new Array[Int](capacity)
+  val health = new Array[Int](capacity)
+  val flags = new Array[Int](capacity)
+  val charge = new Array[Int](capacity)
+  val color = new Array[Int](capacity)
+  val characterId = new Array[Byte](capacity)
+  val teamId = new Array[Byte](capacity)
+
+  def clear(): Unit = {
+    seq = -1
+    java.util.Arrays.fill(present, false)
+  }
+
+  def copyFrom(other: SnapshotFrame): Unit = {
+    seq = other.seq
+    System.arraycopy(other.present, 0, present, 0, capacity)
+    System.arraycopy(other.handles, 0, handles, 0, capacity)
+    System.arraycopy(other.x, 0, x, 0, capacity)
+    System.arraycopy(other.y, 0, y, 0, capacity)
+    System.arraycopy(other.health, 0, health, 0, capacity)
+    System.arraycopy(other.flags, 0, flags, 0, capacity)
+    System.arraycopy(other.charge, 0, charge, 0, capacity)
+    System.arraycopy(other.color, 0, color, 0, capacity)
+    System.arraycopy(other.characterId, 0, characterId, 0, capacity)
+    System.arraycopy(other.teamId, 0, teamId, 0, capacity)
+  }
+
+  def copySlot(other: SnapshotFrame, slot: Int): Unit = {
+    present(slot) = other.present(slot)
+    handles(slot) = other.handles(slot)
+    x(slot) = other.x(slot)
+    y(slot) = other.y(slot)
+    health(slot) = other.health(slot)
+    flags(slot) = other.flags(slot)
+    charge(slot) = other.charge(slot)
+    color(slot) = other.color(slot)
+    characterId(slot) = other.characterId(slot)
+    teamId(slot) = other.teamId(slot)
+  }
+
+  def set(slot: Int, handle: Int, px: Int, py: Int, hp: Int, effectFlags: Int, chargeLevel: Int,
+          colorRGB: Int, charId: Byte, team: Byte): Unit = {
+    present(slot) = true
+    handles(slot) = handle
+    x(slot) = px
+    y(slot) = py
+    health(slot) = hp
+    flags(slot) = effectFlags
+    charge(slot) = chargeLevel
+    color(slot) = colorRGB
+    characterId(slot) = charId
+    teamId(slot) = team
+  }
+
+  /** Fields of slot that differ from base (null = no baseline). A slot new to base gets every field. */
+  def diffMask(slot: Int, base: SnapshotFrame): Int = {
+    if (!present(slot)) return 0
+    if (base == null || !base.present(slot) || handles(slot) != base.handles(slot)) return SnapshotField.ALL
+    var mask = 0
+    val dx = x(slot) - base.x(slot)
+    val dy = y(slot) - base.y(slot)
+    if (dx != 0 || dy != 0) {
+      mask |= (if (dx >= Byte.MinValue && dx <= Byte.MaxValue && dy >= Byte.MinValue && dy <= Byte.MaxValue)
+        SnapshotField.POS_DELTA else SnapshotField.POS_ABS)
+    }
+    if (health(slot) != base.health(slot)) mask |= SnapshotField.HEALTH
+    if (flags(slot) != base.flags(slot)) mask |= SnapshotField.FLAGS
+    if (charge(slot) != base.charge(slot)) mask |= SnapshotField.CHARGE
+    if (color(slot) != base.color(slot)) mask |= SnapshotField.COLOR
+    if (characterId(slot) != base.characterId(slot) || teamId(slot) != base.teamId(slot)) mask |= SnapshotField.IDENTITY
+    mask
+  }
+
+  /** Write slot's entry for mask. POS_DELTA is relative to base, which must be non-null for it. */
+  def encodeEntry(buf: ByteBuffer, slot: Int, mask: Int, base: SnapshotFrame): Unit = {
+    buf.put(slot.toByte)
+    buf.put(mask.toByte)
+    if ((mask & SnapshotField.IDENTITY) != 0) {
+      buf.putShort(handles(slot).toShort)
+      buf.put(characterId(slot))
+      buf.put(teamId(slot))
+    }
+    if ((mask & SnapshotField.POS_DELTA) != 0) {
+      buf.put((x(slot) - base.x(slot)).toByte)
+      buf.put((y(slot) - base.y(slot)).toByte)
+    } else if ((mask & SnapshotField.POS_ABS) != 0) {
+      buf.putShort(x(slot).toShort)
+      buf.putShort(y(slot).toShort)
+    }
+    if ((mask & SnapshotField.HEALTH) != 0) buf.putShort(health(slot).toShort)
+    if ((mask & SnapshotField.FLAGS) != 0) buf.put(flags(slot).toByte)
+    if ((mask & SnapshotField.CHARGE) != 0) buf.put(charge(slot).toByte)
+    if ((mask & SnapshotField.COLOR) != 0) buf.putInt(color(slot))
+  }
+}
+
+object SnapshotFrame {
+  /** Encoded size in bytes of an entry with the given mask, including slot and mask bytes. */
+  def entrySize(mask: Int): Int = {
+    var size = 2
+    if ((mask & SnapshotField.IDENTITY) != 0) size += 4
+    if ((mask & SnapshotField.POS_DELTA) != 0) size += 2
+    else if ((mask & SnapshotField.POS_ABS) != 0) size += 4
+    if ((mask & SnapshotField.HEALTH) != 0) size += 2
+    if ((mask & SnapshotField.FLAGS) != 0) size += 1
+    if ((mask & SnapshotField.CHARGE) != 0) size += 1
+    if ((mask & SnapshotField.COLOR) != 0) size += 4
+    size
+  }
+
+  /**
+   * Apply one entry onto out, which must already hold the baseline values (deltas are added in place).
+   * Returns the slot, or -1 if the entry is malformed or out of range.
+   */
+  def decodeEntry(buf: ByteBuffer, out: SnapshotFrame): Int = {
+    if (buf.remaining() < 2) return -1
+    val slot = buf.get() & 0xFF
+    val mask = buf.get() & 0xFF
+    if (slot >= out.capacity || buf.remaining() < entrySize(mask) - 2) return -1
+    if ((mask & SnapshotField.IDENTITY) != 0) {
+      out.handles(slot) = buf.getShort() & 0xFFFF
+      out.characterId(slot) = buf.get()
+      out.teamId(slot) = buf.get()
+      out.present(slot) = true
+    } else if (!out.present(slot)) {
+      return -1 // Delta against a slot the baseline never bound
+    }
+    if ((mask & SnapshotField.POS_DELTA) != 0) {
+      out.x(slot) += buf.get()
+      out.y(slot) += buf.get()
+    } else if ((mask & SnapshotField.POS_ABS) != 0) {
+      out.x(slot) = buf.getShort() & 0xFFFF
+      out.y(slot) = buf.getShort() & 0xFFFF
+    }
+    if ((mask & SnapshotField.HEALTH) != 0) out.health(slot) = buf.getShort()
+    if ((mask & SnapshotField.FLAGS) != 0) out.flags(slot) = buf.get() & 0xFF
+    if ((mask & SnapshotField.CHARGE) != 0) out.charge(slot) = buf.get() & 0xFF
+    if ((mask & SnapshotField.COLOR) != 0) out.color(slot) = buf.getInt()
+    slot
+  }
+}
@@ -0,0 +1,158 @@
+package com.gridgame.common.world
+
+import com.gridgame.common.Constants
+import com.gridgame.common.model.{Position, Tile, WorldData}
+
+import java.io.DataOutputStream
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.util.zip.CRC32
+
+/**
+ * Compiled map format (.gridmap), built from the JSON maps at build time by WorldCompiler.
+ * Big-endian:
+ *
+ *   magic "GMAP", version u16, width i32, height i32,
+ *   source length i32, source CRC32 i32 (of the JSON it was compiled from),
+ *   name, background (u16 length + UTF-8 each),
+ *   spawn count i32, then (x, y) i32 pairs,
+ *   run count i32, then (tile id u8, length i32) runs over the row-major tile ids.
+ *
+ * Only tile ids are stored; WorldData derives its walkability layers from the Tile table on load,
+ * so a compiled map never carries stale walkability.
+ */
+object GridMap {
+  val MAGIC: Int = 0x474D4150 // "GMAP"
+  val VERSION: Int = 2
+  val EXTENSION: String = ".gridmap"
+
+  private val HEADER_BYTES = 22
+
+  def write(world: WorldData, sourceLength: Int, sourceCrc: Int, out: DataOutputStream): Unit = {
+    val width = world.width
+    val height = world.height
+    out.writeInt(MAGIC)
+    out.writeShort(VERSION)
+    out.writeInt(width)
+    out.writeInt(height)
+    out.writeInt(sourceLength)
+    out.writeInt(sourceCrc)
+    writeString(out, world.name)
+    writeString(out, world.background)
+
+    out.writeInt(world.spawnPoints.size)
+    world.spawnPoints.foreach { p =>
+      out.writeInt(p.getX)
+      out.writeInt(p.getY)
+    }
+
+    // Runs are counted first so the reader knows how many follow
+    val cells = width * height
+    var runs = 0
+    var i = 0
+    while (i < cells) {
+      if (i == 0 || tileAt(world, i) != tileAt(world, i - 1)) runs += 1
+      i += 1
+    }
+    out.writeInt(runs)
+    i = 0
+    while (i < cells) {
+      val id = tileAt(world, i)
+      var end = i + 1
+      while (end < cells && tileAt(world, end) == id) end += 1
+      out.writeByte(id)
+      out.writeInt(end - i)
+      i = end
+    }
+  }
+
+  /** Whether a compiled map was built from a source of this length and CRC32. */
+  def matchesSource(buf: ByteBuffer, sourceLength: Int, sourceCrc: Int): Boolean = {
+    matchesSourceLength(buf, sourceLength) && buf.getInt(18) == sourceCrc
+  }
+
+  /** Whether a compiled map was built from a source of this length; a stat-only first check. */
+  def matchesSourceLength(buf: ByteBuffer, sourceLength: Int): Boolean = {
+    buf.limit() >= HEADER_BYTES && buf.getInt(0) == MAGIC && buf.getInt(14) == sourceLength
+  }
+
+  /** CRC32 of the buffer's remaining bytes, as stored in the header. */
+  def crcOf(buf: ByteBuffer): Int = {
+    val crc = new CRC32()
+    crc.update(buf.duplicate())
+    crc.getValue.toInt
+  }
+
+  /**
+   * Decode a compiled map straight from buf (typically memory-mapped), or null if it is not a
+   * current, well-formed .gridmap: wrong magic or version, out-of-range dimensions or spawns, an
+   * unknown tile id, runs that don't cover the map exactly, or truncated data.
+   */
+  def read(buf: ByteBuffer): WorldData = {
+    try {
+      decode(buf)
+    } catch {
+      case _: BufferUnderflowException => null
+    }
+  }
+
+  private def decode(buf: ByteBuffer): WorldData = {
+    if (buf.limit() < HEADER_BYTES || buf.getInt(0) != MAGIC || buf.getShort(4) != VERSION) return null
+    buf.position(6)
+    val width = buf.getInt()
+    val height = buf.getInt()
+    if (width <= 0 || width > Constants.GRID_SIZE || height <= 0 || height > Constants.GRID_SIZE) return null
+    buf.position(HEADER_BYTES)
+    val name = readString(buf)
+    val background = readString(buf)
+
+    val spawnCount = buf.getInt()
+    if (spawnCount < 0 || spawnCount > buf.remaining() / 8) return null
+    val spawnPoints = new Array[Position](spawnCount)
+    var s = 0
+    while (s < spawnCount) {
+      val x = buf.getInt()
+      val y = buf.getInt()
+      if (x < 0 || x >= Constants.GRID_SIZE || y < 0 || y >= Constants.GRID_SIZE) return null
+      spawnPoints(s) = new Position(x, y)
+      s += 1
+    }
+
+    val cells = width * height
+    val tiles: Array[Array[Tile]] = Array.ofDim[Tile](height, width)
+    val runs = buf.getInt()
+    var cell = 0
+    var r = 0
+    while (r < runs) {
+      val id = buf.get() & 0xFF
+      val length = buf.getInt()
+      val tile = Tile.fromId(id)
+      if (tile.id != id || length <= 0 || length > cells - cell) return null
+      var i = cell
+      while (i < cell + length) {
+        tiles(i / width)(i % width) = tile
+        i += 1
+      }
+      cell += length
+      r += 1
+    }
+    if (cell != cells) return null
+
+    new WorldData(name, width, height, tiles, spawnPoints.toSeq, background)
+  }
+
+  private def tileAt(world: WorldData, cell: Int): Int = world.tileId(cell % world.width, cell / world.width)
+
+  private def writeString(out: DataOutputStream, s: String): Unit = {
+    val bytes = s.getBytes(StandardCharsets.UTF_8)
+    out.writeShort(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(buf: ByteBuffer): String = {
+    val bytes = new Array[Byte](buf.getShort() & 0xFFFF)
+    buf.get(bytes)
+    new String(bytes, StandardCharsets.UTF_8)
+  }
+}
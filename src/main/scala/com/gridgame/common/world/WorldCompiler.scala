@@ -0,0 +1,31 @@
+package com.gridgame.common.world
+
+import java.io.{BufferedOutputStream, DataOutputStream, File, FileOutputStream}
+import java.nio.ByteBuffer
+import java.nio.file.Files
+
+/** Build-time compiler from JSON maps to .gridmap (see GridMap). Usage: WorldCompiler <outDir> <map.json>... */
+object WorldCompiler {
+  def main(args: Array[String]): Unit = {
+    if (args.length < 2) {
+      System.err.println("Usage: WorldCompiler <outDir> <map.json>...")
+      sys.exit(2)
+    }
+    val outDir = new File(args(0))
+    outDir.mkdirs()
+
+    args.drop(1).foreach { path =>
+      val source = new File(path)
+      val bytes = Files.readAllBytes(source.toPath)
+      val world = WorldLoader.loadFromFile(source.getAbsolutePath)
+      val target = new File(outDir, source.getName.stripSuffix(".json") + GridMap.EXTENSION)
+      val out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target)))
+      try {
+        GridMap.write(world, bytes.length, GridMap.crcOf(ByteBuffer.wrap(bytes)), out)
+      } finally {
+        out.close()
+      }
+      println(s"WorldCompiler: ${source.getName} -> ${target.getName} (${bytes.length} -> ${target.length()} bytes)")
+    }
+  }
+}
@@ -6,24 +6,86 @@ import com.google.gson.JsonArray
 import com.gridgame.common.model.{Position, Tile, WorldData}
 
 import java.io.{File, FileReader, BufferedReader, InputStreamReader}
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
 import scala.collection.mutable.ArrayBuffer
 
 object WorldLoader {
 
   def load(path: String): WorldData = {
-    // Try filesystem first
+    val file = locate(path)
+
+    // Prefer the compiled map when one matches the JSON
+    val compiled = loadCompiled(path, file)
+    if (compiled != null) return compiled
+
+    if (file != null) loadFromFile(file.getAbsolutePath)
+    else loadFromResource(path) // Try classpath (bundled in JAR)
+  }
+
+  /** The map file on disk: path itself, then relative to BUILD_WORKING_DIRECTORY (set by Bazel). Null if neither exists. */
+  private def locate(path: String): File = {
     val file = new File(path)
-    if (file.exists()) return loadFromFile(file.getAbsolutePath)
+    if (file.exists()) return file
 
-    // Try relative to BUILD_WORKING_DIRECTORY (set by Bazel)
     val buildWorkDir = System.getenv("BUILD_WORKING_DIRECTORY")
     if (buildWorkDir != null) {
       val fromWorkDir = new File(buildWorkDir, path)
-      if (fromWorkDir.exists()) return loadFromFile(fromWorkDir.getAbsolutePath)
+      if (fromWorkDir.exists()) return fromWorkDir
+    }
+    null
+  }
+
+  /**
+   * The compiled .gridmap for a JSON map, or null to parse the JSON instead. A .gridmap next to
+   * the JSON, or the build's copy in the binary's runfiles (worlds/), is memory-mapped. The copy
+   * bundled as a classpath resource can't be mapped, so it is only read as a last resort (e.g. a
+   * bare deploy jar). When the JSON is on disk the compiled map must carry its length, and either
+   * be newer than it or carry its CRC, so edits that haven't been recompiled are never shadowed.
+   */
+  private def loadCompiled(path: String, json: File): WorldData = {
+    if (!path.endsWith(".json")) return null
+    val compiledName = new File(path).getName.stripSuffix(".json") + GridMap.EXTENSION
+    try {
+      var compiled = if (json != null) new File(json.getParentFile, compiledName) else null
+      if (compiled == null || !compiled.exists()) compiled = fromRunfiles(compiledName)
+      val buf =
+        if (compiled != null) mapFile(compiled)
+        else {
+          val stream = getClass.getClassLoader.getResourceAsStream("worlds/" + compiledName)
+          if (stream == null) return null
+          try ByteBuffer.wrap(stream.readAllBytes()) finally stream.close()
+        }
+      if (json != null && !matchesJson(buf, if (compiled != null) compiled.lastModified() else 0L, json)) return null
+      GridMap.read(buf)
+    } catch {
+      case e: Exception =>
+        System.err.println(s"WorldLoader: Ignoring compiled map for $path: ${e.getMessage}")
+        null
     }
+  }
+
+  /** worlds/<name> in the runfiles of the running Bazel binary, or null outside Bazel. */
+  private def fromRunfiles(name: String): File = {
+    val dir = Option(System.getenv("JAVA_RUNFILES")).orElse(Option(System.getenv("RUNFILES_DIR"))).orNull
+    if (dir == null) return null
+    val file = new File(dir, "_main/worlds/" + name)
+    if (file.exists()) file else null
+  }
+
+  /** Length from a stat, then mtime; the JSON is only read for its CRC when the compiled map is older. */
+  private def matchesJson(buf: ByteBuffer, compiledModified: Long, json: File): Boolean = {
+    if (json.length() > Int.MaxValue) return false
+    val length = json.length().toInt
+    if (!GridMap.matchesSourceLength(buf, length)) return false
+    compiledModified >= json.lastModified() || GridMap.matchesSource(buf, length, GridMap.crcOf(mapFile(json)))
+  }
 
-    // Try classpath (bundled in JAR)
-    loadFromResource(path)
+  private def mapFile(file: File): ByteBuffer = {
+    val channel = FileChannel.open(file.toPath, StandardOpenOption.READ)
+    try channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+    finally channel.close()
   }
 
   def loadFromFile(filePath: String): WorldData = {
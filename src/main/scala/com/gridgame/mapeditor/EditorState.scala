@@ -55,8 +55,7 @@ class EditorState {
   def mapHeight: Int = world.height
 
   def setTile(x: Int, y: Int, tile: Tile): Boolean = {
-    if (x >= 0 && x < world.width && y >= 0 && y < world.height) {
-      world.tiles(y)(x) = tile
+    if (world.setTile(x, y, tile)) {
       dirty = true
       true
     } else false
@@ -45,7 +45,7 @@ class UndoManager(maxStates: Int = 50) {
 
   private def applySnapshot(state: EditorState, snapshot: Array[Array[Int]]): Unit = {
     for (y <- snapshot.indices; x <- snapshot(y).indices) {
-      state.world.tiles(y)(x) = Tile.fromId(snapshot(y)(x))
+      state.world.setTile(x, y, Tile.fromId(snapshot(y)(x)))
     }
   }
 
@@ -0,0 +1,71 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+import com.gridgame.common.observability.Attrs
+import com.gridgame.common.observability.Metrics
+
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+
+/** Cached account row plus aggregate match stats. Mutable fields are guarded by the record's monitor. */
+final class AccountRecord(val uuid: UUID, val username: String, var elo: Int,
+                          var totalKills: Int, var totalDeaths: Int, var matchesPlayed: Int, var wins: Int) {
+  /** (totalKills, totalDeaths, matchesPlayed, wins, elo), read consistently. */
+  def stats: (Int, Int, Int, Int, Int) = synchronized { (totalKills, totalDeaths, matchesPlayed, wins, elo) }
+}
+
+/**
+ * Account records for connected players, keyed by UUID (and username for ELO write-through).
+ * Loaded on login and evicted on disconnect; AuthDatabase writes ELO and match results through
+ * as they commit, so in-session lookups never touch SQLite. Bounded by ACCOUNT_CACHE_CAPACITY:
+ * past that, logins are simply served from the DB.
+ */
+class AccountCache(capacity: Int = Constants.ACCOUNT_CACHE_CAPACITY) {
+  private val byUuid = new ConcurrentHashMap[UUID, AccountRecord]()
+  private val byUsername = new ConcurrentHashMap[String, AccountRecord]()
+
+  /** Cache a freshly loaded record. Caller serializes this with write-through (AuthDatabase writer). */
+  def put(record: AccountRecord): Unit = {
+    if (byUuid.size() >= capacity && !byUuid.containsKey(record.uuid)) return
+    byUuid.put(record.uuid, record)
+    byUsername.put(record.username.toLowerCase, record)
+  }
+
+  def evict(uuid: UUID): Unit = {
+    val record = byUuid.remove(uuid)
+    if (record != null) byUsername.remove(record.username.toLowerCase, record)
+  }
+
+  /** The cached record, or null (counted as a miss). */
+  def get(uuid: UUID): AccountRecord = {
+    val record = byUuid.get(uuid)
+    Metrics.cacheLookups.add(1L, if (record != null) Attrs.CacheAccountHit else Attrs.CacheAccountMiss)
+    record
+  }
+
+  /** The cached record by username, or null (counted as a miss). */
+  def getByUsername(username: String): AccountRecord = {
+    val record = byUsername.get(username.toLowerCase)
+    Metrics.cacheLookups.add(1L, if (record != null) Attrs.CacheAccountHit else Attrs.CacheAccountMiss)
+    record
+  }
+
+  /** Write-through for a committed ELO change. */
+  def applyElo(username: String, elo: Int): Unit = {
+    val record = byUsername.get(username.toLowerCase)
+    if (record != null) record.synchronized { record.elo = elo }
+  }
+
+  /** Write-through for a committed match result. */
+  def applyResult(uuid: UUID, kills: Int, deaths: Int, rank: Int): Unit = {
+    val record = byUuid.get(uuid)
+    if (record != null) record.synchronized {
+      record.totalKills += kills
+      record.totalDeaths += deaths
+      record.matchesPlayed += 1
+      if (rank == 1) record.wins += 1
+    }
+  }
+
+  def size: Int = byUuid.size()
+}
@@ -1,5 +1,6 @@
 package com.gridgame.server
 
+import com.gridgame.common.Constants
 import com.gridgame.common.observability.Attrs
 import com.gridgame.common.observability.Metrics
 
@@ -7,21 +8,19 @@ import java.io.File
 import java.nio.charset.StandardCharsets
 import java.security.MessageDigest
 import java.security.SecureRandom
-import java.sql.Connection
-import java.sql.DriverManager
 import java.util.UUID
 
 import org.mindrot.jbcrypt.BCrypt
 
 class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
-  private val connection: Connection = {
-    Class.forName("org.sqlite.JDBC")
-    val conn = DriverManager.getConnection(s"jdbc:sqlite:$dbPath")
-    conn.setAutoCommit(true)
-    conn
-  }
-  // All SQLite operations must be synchronized — single connection shared across Netty threads
-  private val dbLock = new Object()
+  // WAL: one writer connection, DB_READER_CONNECTIONS readers, prepared statements cached per connection
+  private val pool = new SqlitePool(dbPath, Constants.DB_READER_CONNECTIONS)
+  // Every account ranked by ELO; loaded in init(), then updated alongside each committed write
+  private val leaderboard = new LeaderboardIndex()
+  // Connected players' account records (loadAccount on login, evicted on disconnect), written through like leaderboard
+  private val accounts = new AccountCache()
+  // Recent match history per player, filled on first query and prepended to as results commit
+  private val matchHistory = new MatchHistoryCache()
 
   init()
 
@@ -41,7 +40,8 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
     }
   }
 
-  private def init(): Unit = {
+  private def init(): Unit = pool.write { db =>
+    val connection = db.connection
     val stmt = connection.createStatement()
     stmt.executeUpdate(
       """CREATE TABLE IF NOT EXISTS accounts(
@@ -120,6 +120,13 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
     } catch {
       case _: Exception => // Column already exists
     }
+    // Write-behind id (safe migration): makes journal replays idempotent
+    try {
+      stmt.executeUpdate("ALTER TABLE matches ADD COLUMN write_id TEXT")
+    } catch {
+      case _: Exception => // Column already exists
+    }
+    stmt.executeUpdate("CREATE UNIQUE INDEX IF NOT EXISTS idx_matches_write_id ON matches(write_id)")
     stmt.executeUpdate(
       """CREATE TABLE IF NOT EXISTS match_results(
         |  id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -132,7 +139,22 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
         |)""".stripMargin
     )
     stmt.close()
-    println(s"AuthDatabase: Initialized ($dbPath)")
+
+    val boardRs = connection.prepareStatement(
+      """SELECT a.username, a.uuid, a.elo,
+        |       COALESCE(SUM(CASE WHEN mr.rank = 1 THEN 1 ELSE 0 END), 0) AS wins,
+        |       COUNT(mr.id) AS matches_played
+        |FROM accounts a
+        |LEFT JOIN match_results mr ON mr.player_uuid = a.uuid
+        |GROUP BY a.username""".stripMargin
+    ).executeQuery()
+    while (boardRs.next()) {
+      val uuidStr = boardRs.getString("uuid")
+      leaderboard.put(boardRs.getString("username"), if (uuidStr != null) UUID.fromString(uuidStr) else null,
+        boardRs.getInt("elo"), boardRs.getInt("wins"), boardRs.getInt("matches_played"))
+    }
+    boardRs.close()
+    println(s"AuthDatabase: Initialized ($dbPath), ${leaderboard.size} accounts on the leaderboard")
   }
 
   private val VALID_USERNAME_PATTERN = "^[a-zA-Z0-9_-]{1,20}$".r
@@ -149,28 +171,29 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
     val hash = BCrypt.hashpw(password, BCrypt.gensalt(12))
     val uuid = deriveUUID(username.toLowerCase)
 
-    dbLock.synchronized {
+    pool.write { db =>
       // Check if username already exists
-      val checkStmt = connection.prepareStatement("SELECT 1 FROM accounts WHERE username = ?")
+      val checkStmt = db.prepare("SELECT 1 FROM accounts WHERE username = ?")
       checkStmt.setString(1, username.toLowerCase)
       val rs = checkStmt.executeQuery()
       val exists = rs.next()
       rs.close()
-      checkStmt.close()
-
-      if (exists) return false
 
-      val insertStmt = connection.prepareStatement(
-        "INSERT INTO accounts(username, password_hash, salt, created_at, uuid) VALUES(?, ?, ?, ?, ?)"
-      )
-      insertStmt.setString(1, username.toLowerCase)
-      insertStmt.setString(2, hash)
-      insertStmt.setString(3, "") // salt is embedded in bcrypt hash
-      insertStmt.setLong(4, System.currentTimeMillis())
-      insertStmt.setString(5, uuid.toString)
-      val inserted = insertStmt.executeUpdate() > 0
-      insertStmt.close()
-      inserted
+      if (exists) {
+        false
+      } else {
+        val insertStmt = db.prepare(
+          "INSERT INTO accounts(username, password_hash, salt, created_at, uuid) VALUES(?, ?, ?, ?, ?)"
+        )
+        insertStmt.setString(1, username.toLowerCase)
+        insertStmt.setString(2, hash)
+        insertStmt.setString(3, "") // salt is embedded in bcrypt hash
+        insertStmt.setLong(4, System.currentTimeMillis())
+        insertStmt.setString(5, uuid.toString)
+        val inserted = insertStmt.executeUpdate() > 0
+        if (inserted) leaderboard.put(username, uuid, 1000, 0, 0)
+        inserted
+      }
     }
   }
 
@@ -179,9 +202,9 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
       return false
     }
 
-    // Fetch hash from DB inside lock, then verify outside lock (bcrypt is slow)
-    val (storedHash, salt) = dbLock.synchronized {
-      val stmt = connection.prepareStatement("SELECT password_hash, salt FROM accounts WHERE username = ?")
+    // Fetch hash on a reader, then verify without holding a connection (bcrypt is slow)
+    val (storedHash, salt) = pool.read { db =>
+      val stmt = db.prepare("SELECT password_hash, salt FROM accounts WHERE username = ?")
       stmt.setString(1, username.toLowerCase)
       val rs = stmt.executeQuery()
       val result = if (rs.next()) {
@@ -190,7 +213,6 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
         (null, null)
       }
       rs.close()
-      stmt.close()
       result
     }
 
@@ -210,14 +232,13 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
       if (matches) {
         // Upgrade to bcrypt on successful login
         val bcryptHash = BCrypt.hashpw(password, BCrypt.gensalt(12))
-        dbLock.synchronized {
-          val upgradeStmt = connection.prepareStatement(
+        pool.write { db =>
+          val upgradeStmt = db.prepare(
             "UPDATE accounts SET password_hash = ?, salt = '' WHERE username = ?"
           )
           upgradeStmt.setString(1, bcryptHash)
           upgradeStmt.setString(2, username.toLowerCase)
           upgradeStmt.executeUpdate()
-          upgradeStmt.close()
         }
         println(s"AuthDatabase: Upgraded password hash for '$username' from SHA-256 to bcrypt")
       }
@@ -237,57 +258,116 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
     new UUID(msb, lsb)
   }
 
-  def saveMatch(mapIndex: Int, durationMinutes: Int, results: Seq[(UUID, Int, Int, Byte)], matchType: Byte = 0): Unit = timed("save_match") { dbLock.synchronized {
+  /**
+   * Group commit for MatchWriteBehind: every match, its results and its ELO updates in one
+   * transaction. Matches whose writeId is already stored (a journal replay) are skipped; ELO
+   * updates are absolute, so re-applying them is harmless. Throws after rolling back on failure.
+   */
+  def commitMatchBatch(writes: java.util.List[MatchWrite]): Unit = timed("match_batch") { pool.write { db =>
+    val connection = db.connection
     try {
       connection.setAutoCommit(false)
-
-      val matchStmt = connection.prepareStatement(
-        "INSERT INTO matches(map_index, duration_minutes, played_at, player_count, match_type) VALUES(?, ?, ?, ?, ?)"
-      )
-      matchStmt.setInt(1, mapIndex)
-      matchStmt.setInt(2, durationMinutes)
-      matchStmt.setLong(3, System.currentTimeMillis())
-      matchStmt.setInt(4, results.size)
-      matchStmt.setInt(5, matchType & 0xFF)
-      matchStmt.executeUpdate()
-      matchStmt.close()
-
-      val idStmt = connection.createStatement()
-      val idRs = idStmt.executeQuery("SELECT last_insert_rowid()")
-      val matchId = if (idRs.next()) idRs.getLong(1) else -1L
-      idRs.close()
-      idStmt.close()
-
-      if (matchId > 0) {
-        val resultStmt = connection.prepareStatement(
-          "INSERT INTO match_results(match_id, player_uuid, kills, deaths, rank) VALUES(?, ?, ?, ?, ?)"
-        )
-        results.foreach { case (uuid, kills, deaths, rank) =>
-          resultStmt.setLong(1, matchId)
-          resultStmt.setString(2, uuid.toString)
-          resultStmt.setInt(3, kills)
-          resultStmt.setInt(4, deaths)
-          resultStmt.setInt(5, rank & 0xFF)
-          resultStmt.addBatch()
+      val eloStmt = db.prepare("UPDATE accounts SET elo = ? WHERE username = ?")
+      val matchIds = new Array[Long](writes.size())
+      var i = 0
+      while (i < writes.size()) {
+        val w = writes.get(i)
+        matchIds(i) = insertMatch(db, w.writeId, w.mapIndex, w.durationMinutes, w.playedAt, w.results, w.matchType)
+        w.eloUpdates.foreach { case (username, newElo) =>
+          eloStmt.setInt(1, newElo)
+          eloStmt.setString(2, username.toLowerCase)
+          eloStmt.addBatch()
         }
-        resultStmt.executeBatch()
-        resultStmt.close()
+        i += 1
       }
-
+      eloStmt.executeBatch()
       connection.commit()
-      println(s"AuthDatabase: Saved match $matchId with ${results.size} players")
+
+      i = 0
+      while (i < writes.size()) {
+        val w = writes.get(i)
+        if (matchIds(i) > 0) applyResults(matchIds(i), w.mapIndex, w.durationMinutes, w.playedAt, w.results, w.matchType)
+        w.eloUpdates.foreach { case (username, newElo) =>
+          leaderboard.updateElo(username, newElo)
+          accounts.applyElo(username, newElo)
+        }
+        i += 1
+      }
     } catch {
       case e: Exception =>
         try { connection.rollback() } catch { case _: Exception => }
-        System.err.println(s"AuthDatabase: Failed to save match: ${e.getMessage}")
+        throw e
     } finally {
       connection.setAutoCommit(true)
     }
   } }
 
+  /** Write a committed match's results through to the in-memory leaderboard and caches. Call on the writer. */
+  private def applyResults(matchId: Long, mapIndex: Int, durationMinutes: Int, playedAt: Long,
+                           results: Seq[(UUID, Int, Int, Byte)], matchType: Byte): Unit = {
+    results.foreach { case (uuid, kills, deaths, rank) =>
+      leaderboard.recordResult(uuid, rank & 0xFF)
+      accounts.applyResult(uuid, kills, deaths, rank & 0xFF)
+      matchHistory.prepend(uuid,
+        (matchId, mapIndex, durationMinutes, playedAt, kills, deaths, rank & 0xFF, results.size, matchType & 0xFF))
+    }
+  }
+
+  /** Drop a disconnected player's cached account and history. */
+  def evictPlayer(playerUUID: UUID): Unit = {
+    accounts.evict(playerUUID)
+    matchHistory.evict(playerUUID)
+  }
+
+  /** Insert a match row and its results on the writer (caller owns the transaction). Returns the match id, -1 if skipped. */
+  private def insertMatch(db: SqlitePool#PooledConnection, writeId: String, mapIndex: Int, durationMinutes: Int,
+                          playedAt: Long, results: Seq[(UUID, Int, Int, Byte)], matchType: Byte): Long = {
+    val matchStmt = db.prepare(
+      "INSERT OR IGNORE INTO matches(map_index, duration_minutes, played_at, player_count, match_type, write_id) VALUES(?, ?, ?, ?, ?, ?)"
+    )
+    matchStmt.setInt(1, mapIndex)
+    matchStmt.setInt(2, durationMinutes)
+    matchStmt.setLong(3, playedAt)
+    matchStmt.setInt(4, results.size)
+    matchStmt.setInt(5, matchType & 0xFF)
+    matchStmt.setString(6, writeId)
+    if (matchStmt.executeUpdate() == 0) return -1L // writeId already committed
+
+    val idRs = db.prepare("SELECT last_insert_rowid()").executeQuery()
+    val matchId = if (idRs.next()) idRs.getLong(1) else -1L
+    idRs.close()
+
+    if (matchId > 0) {
+      val resultStmt = db.prepare(
+        "INSERT INTO match_results(match_id, player_uuid, kills, deaths, rank) VALUES(?, ?, ?, ?, ?)"
+      )
+      results.foreach { case (uuid, kills, deaths, rank) =>
+        resultStmt.setLong(1, matchId)
+        resultStmt.setString(2, uuid.toString)
+        resultStmt.setInt(3, kills)
+        resultStmt.setInt(4, deaths)
+        resultStmt.setInt(5, rank & 0xFF)
+        resultStmt.addBatch()
+      }
+      resultStmt.executeBatch()
+    }
+    matchId
+  }
+
   /** Returns (matchId, mapIndex, durationMinutes, playedAt, kills, deaths, rank, playerCount, matchType) */
-  def getMatchHistory(playerUUID: UUID, limit: Int = 20): Seq[(Long, Int, Int, Long, Int, Int, Int, Int, Int)] = timed("history") { dbLock.synchronized {
-    val stmt = connection.prepareStatement(
+  def getMatchHistory(playerUUID: UUID, limit: Int = 20): Seq[(Long, Int, Int, Long, Int, Int, Int, Int, Int)] = {
+    if (limit <= matchHistory.depth) {
+      val cached = matchHistory.get(playerUUID)
+      if (cached != null) return cached.take(limit)
+    }
+    val stamp = matchHistory.stamp
+    val history = queryMatchHistory(playerUUID, limit.max(matchHistory.depth))
+    matchHistory.fill(playerUUID, stamp, history)
+    history.take(limit)
+  }
+
+  private def queryMatchHistory(playerUUID: UUID, limit: Int): Seq[(Long, Int, Int, Long, Int, Int, Int, Int, Int)] = timed("history") { pool.read { db =>
+    val stmt = db.prepare(
       """SELECT m.match_id, m.map_index, m.duration_minutes, m.played_at,
         |       mr.kills, mr.deaths, mr.rank, m.player_count, m.match_type
         |FROM match_results mr
@@ -315,95 +395,119 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
       ))
     }
     rs.close()
-    stmt.close()
     results.toSeq
   } }
 
-  /** Returns (totalKills, totalDeaths, matchesPlayed, wins, elo) */
-  def getPlayerStats(playerUUID: UUID): (Int, Int, Int, Int, Int) = timed("stats") { dbLock.synchronized {
-    val stmt = connection.prepareStatement(
-      """SELECT COALESCE(SUM(kills), 0) AS total_kills,
-        |       COALESCE(SUM(deaths), 0) AS total_deaths,
-        |       COUNT(*) AS matches_played,
-        |       COALESCE(SUM(CASE WHEN rank = 1 THEN 1 ELSE 0 END), 0) AS wins
-        |FROM match_results
-        |WHERE player_uuid = ?""".stripMargin
+  /**
+   * Load a logged-in player's account into the cache. Runs on the writer so no ELO/match
+   * write-through can land between the read and the insert.
+   */
+  def loadAccount(playerUUID: UUID): Unit = timed("account_load") { pool.write { db =>
+    val stmt = db.prepare(
+      """SELECT a.username, a.elo,
+        |       COALESCE(SUM(mr.kills), 0) AS total_kills,
+        |       COALESCE(SUM(mr.deaths), 0) AS total_deaths,
+        |       COUNT(mr.id) AS matches_played,
+        |       COALESCE(SUM(CASE WHEN mr.rank = 1 THEN 1 ELSE 0 END), 0) AS wins
+        |FROM accounts a
+        |LEFT JOIN match_results mr ON mr.player_uuid = a.uuid
+        |WHERE a.uuid = ?
+        |GROUP BY a.username""".stripMargin
     )
     stmt.setString(1, playerUUID.toString)
     val rs = stmt.executeQuery()
-
-    val result = if (rs.next()) {
-      (rs.getInt("total_kills"), rs.getInt("total_deaths"),
-       rs.getInt("matches_played"), rs.getInt("wins"))
-    } else {
-      (0, 0, 0, 0)
+    if (rs.next()) {
+      accounts.put(new AccountRecord(playerUUID, rs.getString("username"), rs.getInt("elo"),
+        rs.getInt("total_kills"), rs.getInt("total_deaths"), rs.getInt("matches_played"), rs.getInt("wins")))
     }
     rs.close()
-    stmt.close()
-
-    val elo = getEloByUUID(playerUUID)
-    (result._1, result._2, result._3, result._4, elo)
   } }
 
-  /** Returns (username, elo, wins, matchesPlayed) sorted by ELO descending */
-  def getLeaderboard(limit: Int = 50): Seq[(String, Int, Int, Int)] = timed("leaderboard") { dbLock.synchronized {
-    val stmt = connection.prepareStatement(
-      """SELECT a.username, a.elo,
-        |       COALESCE(SUM(CASE WHEN mr.rank = 1 THEN 1 ELSE 0 END), 0) AS wins,
-        |       COUNT(mr.id) AS matches_played
-        |FROM accounts a
-        |LEFT JOIN match_results mr ON mr.player_uuid = a.uuid
-        |GROUP BY a.username, a.elo
-        |ORDER BY a.elo DESC
-        |LIMIT ?""".stripMargin
-    )
-    stmt.setInt(1, limit)
-    val rs = stmt.executeQuery()
+  /** Returns (totalKills, totalDeaths, matchesPlayed, wins, elo) */
+  def getPlayerStats(playerUUID: UUID): (Int, Int, Int, Int, Int) = {
+    val cached = accounts.get(playerUUID)
+    if (cached != null) cached.stats else queryPlayerStats(playerUUID)
+  }
 
-    val results = scala.collection.mutable.ArrayBuffer[(String, Int, Int, Int)]()
-    while (rs.next()) {
-      results += ((
-        rs.getString("username"),
-        rs.getInt("elo"),
-        rs.getInt("wins"),
-        rs.getInt("matches_played")
-      ))
+  private def queryPlayerStats(playerUUID: UUID): (Int, Int, Int, Int, Int) = timed("stats") {
+    val result = pool.read { db =>
+      val stmt = db.prepare(
+        """SELECT COALESCE(SUM(kills), 0) AS total_kills,
+          |       COALESCE(SUM(deaths), 0) AS total_deaths,
+          |       COUNT(*) AS matches_played,
+          |       COALESCE(SUM(CASE WHEN rank = 1 THEN 1 ELSE 0 END), 0) AS wins
+          |FROM match_results
+          |WHERE player_uuid = ?""".stripMargin
+      )
+      stmt.setString(1, playerUUID.toString)
+      val rs = stmt.executeQuery()
+
+      val totals = if (rs.next()) {
+        (rs.getInt("total_kills"), rs.getInt("total_deaths"),
+         rs.getInt("matches_played"), rs.getInt("wins"))
+      } else {
+        (0, 0, 0, 0)
+      }
+      rs.close()
+      totals
     }
-    rs.close()
-    stmt.close()
-    results.toSeq
-  } }
 
-  def getElo(username: String): Int = timed("elo_get") { dbLock.synchronized {
-    val stmt = connection.prepareStatement("SELECT elo FROM accounts WHERE username = ?")
+    // Outside the read: the ELO lookup takes its own reader (read calls must not nest)
+    val username = queryUsernameByUUID(playerUUID)
+    val elo = if (username != null) queryElo(username) else 1000
+    (result._1, result._2, result._3, result._4, elo)
+  }
+
+  /** Returns (username, elo, wins, matchesPlayed) sorted by ELO descending (served from the in-memory index) */
+  def getLeaderboard(limit: Int = 50): Seq[(String, Int, Int, Int)] = timed("leaderboard") {
+    leaderboard.top(limit)
+  }
+
+  /** 1-based leaderboard position of the player (O(log n)), or 0 if they have no account. */
+  def getLeaderboardRank(playerUUID: UUID): Int = leaderboard.rankOf(playerUUID)
+
+  def getElo(username: String): Int = {
+    val cached = accounts.getByUsername(username)
+    if (cached != null) cached.synchronized { cached.elo } else queryElo(username)
+  }
+
+  private def queryElo(username: String): Int = timed("elo_get") { pool.read { db =>
+    val stmt = db.prepare("SELECT elo FROM accounts WHERE username = ?")
     stmt.setString(1, username.toLowerCase)
     val rs = stmt.executeQuery()
     val elo = if (rs.next()) rs.getInt("elo") else 1000
     rs.close()
-    stmt.close()
     elo
   } }
 
   def getEloByUUID(playerUUID: UUID): Int = {
-    val username = getUsernameByUUID(playerUUID)
-    if (username != null) getElo(username) else 1000
+    val cached = accounts.get(playerUUID)
+    if (cached != null) return cached.synchronized { cached.elo }
+    val username = queryUsernameByUUID(playerUUID)
+    if (username != null) queryElo(username) else 1000
   }
 
-  def updateElo(username: String, newElo: Int): Unit = timed("elo_update") { dbLock.synchronized {
-    val stmt = connection.prepareStatement("UPDATE accounts SET elo = ? WHERE username = ?")
+  def updateElo(username: String, newElo: Int): Unit = timed("elo_update") { pool.write { db =>
+    val stmt = db.prepare("UPDATE accounts SET elo = ? WHERE username = ?")
     stmt.setInt(1, newElo)
     stmt.setString(2, username.toLowerCase)
-    stmt.executeUpdate()
-    stmt.close()
+    if (stmt.executeUpdate() > 0) {
+      leaderboard.updateElo(username, newElo)
+      accounts.applyElo(username, newElo)
+    }
   } }
 
-  def getUsernameByUUID(uuid: UUID): String = timed("username_by_uuid") { dbLock.synchronized {
-    val stmt = connection.prepareStatement("SELECT username FROM accounts WHERE uuid = ?")
+  def getUsernameByUUID(uuid: UUID): String = {
+    val cached = accounts.get(uuid)
+    if (cached != null) cached.username else queryUsernameByUUID(uuid)
+  }
+
+  private def queryUsernameByUUID(uuid: UUID): String = timed("username_by_uuid") { pool.read { db =>
+    val stmt = db.prepare("SELECT username FROM accounts WHERE uuid = ?")
     stmt.setString(1, uuid.toString)
     val rs = stmt.executeQuery()
     val found = if (rs.next()) rs.getString("username") else null
     rs.close()
-    stmt.close()
     found
   } }
 
@@ -438,15 +542,15 @@ class AuthDatabase(dbPath: String = AuthDatabase.resolveDbPath()) {
   }
 
   def close(): Unit = {
-    if (connection != null && !connection.isClosed) {
-      connection.close()
-    }
+    pool.close()
   }
 }
 
 object AuthDatabase {
-  def resolveDbPath(): String = {
-    val fileName = "game_accounts.db"
+  def resolveDbPath(): String = resolvePath("game_accounts.db")
+
+  /** fileName in the directory `bazel run` was invoked from, else the working directory. */
+  def resolvePath(fileName: String): String = {
     val buildWorkDir = System.getenv("BUILD_WORKING_DIRECTORY")
     if (buildWorkDir != null) {
       new File(buildWorkDir, fileName).getAbsolutePath
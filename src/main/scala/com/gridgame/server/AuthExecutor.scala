@@ -0,0 +1,58 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Bounded pool for login/signup work (bcrypt + account DB), so Netty event loops only hand
+ * requests off and write the results. bcrypt is CPU-bound, so this is a fixed pool sized to
+ * cores rather than virtual threads. When the queue is full, submit refuses the task and the
+ * caller answers "busy" instead of stalling the connection behind a login burst.
+ */
+class AuthExecutor(threads: Int = Constants.AUTH_WORKER_THREADS, capacity: Int = Constants.AUTH_QUEUE_CAPACITY) {
+  private val queue = new ArrayBlockingQueue[Runnable](capacity)
+  private val threadIndex = new AtomicInteger(0)
+
+  private val pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+    new ThreadFactory {
+      def newThread(r: Runnable): Thread = {
+        val t = new Thread(r, s"auth-worker-${threadIndex.getAndIncrement()}")
+        t.setDaemon(true)
+        t
+      }
+    },
+    new ThreadPoolExecutor.AbortPolicy())
+
+  /** Queue task for a worker. Returns false (task not run) when the pool is saturated or stopped. */
+  def submit(task: Runnable): Boolean = {
+    try {
+      pool.execute(task)
+      true
+    } catch {
+      case _: RejectedExecutionException => false
+    }
+  }
+
+  /** Requests waiting for a worker. */
+  def queueDepth: Int = queue.size()
+
+  /** Requests currently being hashed/checked. */
+  def activeCount: Int = pool.getActiveCount
+
+  def shutdown(): Unit = {
+    pool.shutdown()
+    try {
+      if (!pool.awaitTermination(5, TimeUnit.SECONDS)) pool.shutdownNow()
+    } catch {
+      case _: InterruptedException =>
+        pool.shutdownNow()
+        Thread.currentThread().interrupt()
+    }
+  }
+}
@@ -8,9 +8,6 @@ import com.gridgame.common.protocol._
 
 import java.util.UUID
 import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.Executors
-import java.util.concurrent.ScheduledExecutorService
-import java.util.concurrent.TimeUnit
 import scala.jdk.CollectionConverters._
 
 class BotController(instance: GameInstance, isPractice: Boolean = false) {
@@ -23,14 +20,17 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
   private val currentTarget = new ConcurrentHashMap[UUID, UUID]()
   private val targetSwitchTime = new ConcurrentHashMap[UUID, Long]()
   private val strafeDirection = new ConcurrentHashMap[UUID, Int]() // 1 = clockwise, -1 = counter
-  private var executor: ScheduledExecutorService = _
+  private val nextThinkAt = new ConcurrentHashMap[UUID, Long]()
+  // Ticked by the owning GameInstance on its TickScheduler worker once started
+  @volatile private var active = false
 
-  private val TICK_INTERVAL_MS = 100L
   private val BOT_MOVE_INTERVAL_MS = 100L // bots move every 100ms (10 moves/sec, close to player's ~20)
   private val SHOOT_COOLDOWN_MIN_MS = 700L
   private val SHOOT_COOLDOWN_MAX_MS = 1100L
   private val TARGET_HYSTERESIS_MS = 2000L // stick to a target for at least 2s
   private val AIM_INACCURACY_RAD = 0.12f // ~7 degrees max aim wobble
+  // Practice bots think at the far rate; scaled so they still wander ~1.5 times a second
+  private val PRACTICE_WANDER_CHANCE = 0.15f * Constants.BOT_FAR_THINK_MS / BOT_MOVE_INTERVAL_MS
 
   // 8 cardinal + diagonal directions for obstacle avoidance
   private val ALL_DIRS = Array(
@@ -42,10 +42,13 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
   private val occupiedTiles = new java.util.HashSet[Long]()
   // Maps packed coords to player UUID for excludeId handling
   private val occupiedTileOwners = new java.util.HashMap[Long, UUID]()
+  // Human positions, rebuilt once per tick for level of detail
+  private var humanXs = new Array[Int](16)
+  private var humanYs = new Array[Int](16)
+  private var humanCount = 0
 
-  // Pre-allocated BFS structures reused between calls (bot executor is single-threaded)
-  private val bfsVisited = new java.util.HashSet[Long]()
-  private val bfsQueue = new java.util.ArrayDeque[(Int, Int, Int, Int)]()
+  // Flow fields for chasing, shared with every instance on this map
+  private val navigator = new Navigator(instance.server.navigation, instance)
 
   def addBotId(id: UUID): Unit = {
     botIds.add(id)
@@ -69,23 +72,20 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     }
 
   private val botTickAttrs = Attrs.tickPhase("bot")
+  private val botInstanceAttrs = io.opentelemetry.api.common.Attributes.of(Attrs.InstanceId, java.lang.Long.valueOf(instance.gameId.toLong))
+  private val threadMx = java.lang.management.ManagementFactory.getThreadMXBean
+  // Without per-thread CPU time the bot CPU metric isn't recorded (tick wall time is in tickDuration)
+  private val threadCpuTime = threadMx.isCurrentThreadCpuTimeSupported && threadMx.isThreadCpuTimeEnabled
 
   def start(): Unit = {
-    executor = Executors.newSingleThreadScheduledExecutor()
-    executor.scheduleAtFixedRate(
-      new Runnable { def run(): Unit = tick() },
-      TICK_INTERVAL_MS,
-      TICK_INTERVAL_MS,
-      TimeUnit.MILLISECONDS
-    )
+    active = true
     println(s"BotController: Started with ${botIds.size()} bots")
   }
 
+  def isActive: Boolean = active
+
   def stop(): Unit = {
-    if (executor != null) {
-      executor.shutdown()
-      executor.shutdownNow()
-    }
+    active = false
     // Unregister the gauge callback and drop per-bot tables; otherwise the gauge keeps
     // reporting the final bot count after the match ends, and across matches the
     // callbacks accumulate.
@@ -99,37 +99,45 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     currentTarget.clear()
     targetSwitchTime.clear()
     strafeDirection.clear()
+    nextThinkAt.clear()
     occupiedTiles.clear()
     occupiedTileOwners.clear()
-    bfsVisited.clear()
-    bfsQueue.clear()
     println("BotController: Stopped")
   }
 
   private def packCoord(x: Int, y: Int): Long = (x.toLong << 32) | (y.toLong & 0xFFFFFFFFL)
 
-  private def tick(): Unit = {
+  /** A tile changed in this instance's world (any thread); navigation catches up on the next tick. */
+  def tileChanged(x: Int, y: Int): Unit = navigator.tileChanged(x, y)
+
+  private[server] def tick(): Unit = {
     val tickStart = System.nanoTime()
+    val cpuStart = if (threadCpuTime) threadMx.getCurrentThreadCpuTime else 0L
     try {
       if (!instance.isRunning || instance.world == null) return
 
-      // Rebuild occupancy set once per tick
+      // Rebuild occupancy set and human positions once per tick
       occupiedTiles.clear()
       occupiedTileOwners.clear()
+      humanCount = 0
       instance.registry.forEachPlayer { p =>
         if (!p.isDead) {
           val key = packCoord(p.getPosition.getX, p.getPosition.getY)
           occupiedTiles.add(key)
           occupiedTileOwners.put(key, p.getId)
         }
+        if (!botIds.contains(p.getId)) addHuman(p.getPosition.getX, p.getPosition.getY)
       }
+      navigator.sync()
 
       val now = System.currentTimeMillis()
       botIds.asScala.foreach { botId =>
         val bot = instance.registry.get(botId)
         if (bot != null && !bot.isDead) {
           bot.updateHeartbeat()
-          if (!bot.isFrozen) {
+          if (!bot.isFrozen && now >= nextThinkAt.getOrDefault(botId, 0L)) {
+            // Level of detail: full rate near humans, reduced far from them and in practice
+            if (isPractice || !nearHuman(bot)) nextThinkAt.put(botId, now + Constants.BOT_FAR_THINK_MS)
             tickBot(bot, now)
           }
         }
@@ -139,13 +147,37 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
         System.err.println(s"BotController: Error in tick: ${e.getMessage}")
     } finally {
       Metrics.tickDuration.record((System.nanoTime() - tickStart) / 1e6, botTickAttrs)
+      if (threadCpuTime) Metrics.botCpuTime.add((threadMx.getCurrentThreadCpuTime - cpuStart) / 1000L, botInstanceAttrs)
+    }
+  }
+
+  private def addHuman(x: Int, y: Int): Unit = {
+    if (humanCount == humanXs.length) {
+      humanXs = java.util.Arrays.copyOf(humanXs, humanCount * 2)
+      humanYs = java.util.Arrays.copyOf(humanYs, humanCount * 2)
     }
+    humanXs(humanCount) = x
+    humanYs(humanCount) = y
+    humanCount += 1
+  }
+
+  /** Whether any human (alive or waiting to respawn) is within BOT_LOD_NEAR_CELLS on both axes. */
+  private def nearHuman(bot: Player): Boolean = {
+    val x = bot.getPosition.getX
+    val y = bot.getPosition.getY
+    var i = 0
+    while (i < humanCount) {
+      if (Math.abs(humanXs(i) - x) <= Constants.BOT_LOD_NEAR_CELLS &&
+          Math.abs(humanYs(i) - y) <= Constants.BOT_LOD_NEAR_CELLS) return true
+      i += 1
+    }
+    false
   }
 
   private def tickBot(bot: Player, now: Long): Unit = {
     if (isPractice) {
-      // Passive practice bots: wander randomly ~15% of ticks, no shooting/abilities
-      if (scala.util.Random.nextFloat() < 0.15f) {
+      // Passive practice bots: wander randomly, no shooting/abilities
+      if (scala.util.Random.nextFloat() < PRACTICE_WANDER_CHANCE) {
         moveRandom(bot)
       }
       return
@@ -290,58 +322,98 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     }
   }
 
-  // --- BFS pathfinding (bounded to avoid expensive searches) ---
+  // --- Pathfinding ---
 
-  private val BFS_MAX_CELLS = 600 // max cells to explore (~25 cell radius)
+  private val BFS_MAX_CELLS = 600 // max cells a local search explores (~25 cell radius)
   private val BFS_DIRS = Array((1, 0), (-1, 0), (0, 1), (0, -1))
 
-  /** BFS from (fromX,fromY) toward (toX,toY). Returns the first step, or None if unreachable. */
-  private def bfsNextStep(fromX: Int, fromY: Int, toX: Int, toY: Int, botId: UUID): Option[(Int, Int)] = {
-    if (fromX == toX && fromY == toY) return None
-
+  // Local search scratch, indexed like WorldData's layers; entries are stamped with bfsGeneration
+  private var bfsSeen = new Array[Int](0)
+  private var bfsGeneration = 0
+  private val bfsQueue = new Array[Int]((BFS_MAX_CELLS + 1) * BFS_DIRS.length)
+  private val bfsFirst = new Array[Byte]((BFS_MAX_CELLS + 1) * BFS_DIRS.length)
+
+  /**
+   * First step toward (toX,toY) as an index into BFS_DIRS, or -1 if none is free: down the
+   * distance field into the target's region, then a local search for the last few cells.
+   */
+  private def flowStep(fromX: Int, fromY: Int, toX: Int, toY: Int, botId: UUID): Int = {
+    val field = navigator.field(toX, toY)
+    if (field == null) return -1
     val world = instance.world
-    // Reuse pre-allocated structures (bot executor is single-threaded)
-    val visited = bfsVisited; visited.clear()
-    val queue = bfsQueue; queue.clear()
-
-    val startKey = packCoord(fromX, fromY)
-    visited.add(startKey)
-
-    // Seed with walkable neighbors
-    for ((ddx, ddy) <- BFS_DIRS) {
+    if (fromX < 0 || fromX >= world.width || fromY < 0 || fromY >= world.height) return -1
+    val here = field(fromY * world.width + fromX)
+    if (here == 0 || here == NavGrid.UNREACHABLE) return localStep(fromX, fromY, toX, toY, botId)
+    var d = 0
+    while (d < BFS_DIRS.length) {
+      val (ddx, ddy) = BFS_DIRS(d)
       val nx = fromX + ddx
       val ny = fromY + ddy
-      val key = packCoord(nx, ny)
-      if (!visited.contains(key) && nx >= 0 && nx < world.width && ny >= 0 && ny < world.height &&
-          world.isWalkable(nx, ny)) {
-        visited.add(key)
-        if (nx == toX && ny == toY) return Some((ddx, ddy))
-        if (!isTileOccupied(nx, ny, botId)) {
-          queue.add((nx, ny, ddx, ddy))
-        }
+      if (nx >= 0 && nx < world.width && ny >= 0 && ny < world.height &&
+          field(ny * world.width + nx) == here - 1 && canMoveTo(nx, ny, botId)) {
+        return d
       }
+      d += 1
     }
+    // Downhill is blocked (bots or a fresh fence): search around it locally
+    localStep(fromX, fromY, toX, toY, botId)
+  }
 
-    var explored = 0
-    while (!queue.isEmpty && explored < BFS_MAX_CELLS) {
-      val (cx, cy, firstDx, firstDy) = queue.poll()
-      explored += 1
+  /**
+   * Bounded BFS from (fromX,fromY) toward a nearby point (strafe and retreat targets, which change
+   * every move and aren't worth a field). Returns the first step as an index into BFS_DIRS, or -1.
+   */
+  private def localStep(fromX: Int, fromY: Int, toX: Int, toY: Int, botId: UUID): Int = {
+    if (fromX == toX && fromY == toY) return -1
 
-      for ((ddx, ddy) <- BFS_DIRS) {
+    val world = instance.world
+    val width = world.width
+    val height = world.height
+    if (bfsSeen.length != width * height) {
+      bfsSeen = new Array[Int](width * height)
+      bfsGeneration = 0
+    }
+    if (bfsGeneration == Int.MaxValue) {
+      java.util.Arrays.fill(bfsSeen, 0)
+      bfsGeneration = 0
+    }
+    bfsGeneration += 1
+    val gen = bfsGeneration
+    val seen = bfsSeen
+
+    // The start expands first with no first step of its own
+    seen(fromY * width + fromX) = gen
+    bfsQueue(0) = fromY * width + fromX
+    bfsFirst(0) = -1
+    var head = 0
+    var tail = 1
+    while (head < tail && head <= BFS_MAX_CELLS) {
+      val c = bfsQueue(head)
+      val first = bfsFirst(head)
+      head += 1
+      val cx = c % width
+      val cy = c / width
+
+      var d = 0
+      while (d < BFS_DIRS.length) {
+        val (ddx, ddy) = BFS_DIRS(d)
         val nx = cx + ddx
         val ny = cy + ddy
-        val key = packCoord(nx, ny)
-        if (!visited.contains(key) && nx >= 0 && nx < world.width && ny >= 0 && ny < world.height &&
+        if (nx >= 0 && nx < width && ny >= 0 && ny < height && seen(ny * width + nx) != gen &&
             world.isWalkable(nx, ny)) {
-          visited.add(key)
-          if (nx == toX && ny == toY) return Some((firstDx, firstDy))
+          seen(ny * width + nx) = gen
+          val step = if (first < 0) d else first.toInt
+          if (nx == toX && ny == toY) return step
           if (!isTileOccupied(nx, ny, botId)) {
-            queue.add((nx, ny, firstDx, firstDy))
+            bfsQueue(tail) = ny * width + nx
+            bfsFirst(tail) = step.toByte
+            tail += 1
           }
         }
+        d += 1
       }
     }
-    None
+    -1
   }
 
   /** Move bot one step. Returns true if moved. */
@@ -357,7 +429,11 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     } else false
   }
 
-  /** Try direct move toward (tx,ty), falling back to BFS if blocked. */
+  private def applyDir(bot: Player, dir: Int): Boolean = {
+    dir >= 0 && applyStep(bot, BFS_DIRS(dir)._1, BFS_DIRS(dir)._2)
+  }
+
+  /** Try direct move toward (tx,ty), falling back to the distance field if blocked. */
   private def moveTowardPoint(bot: Player, tx: Int, ty: Int): Unit = {
     val botPos = bot.getPosition
     val dx = tx - botPos.getX
@@ -377,10 +453,8 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
       if (sdx != 0 && applyStep(bot, sdx, 0)) return
     }
 
-    // Direct path blocked - use BFS to navigate around walls
-    bfsNextStep(botPos.getX, botPos.getY, tx, ty, bot.getId).foreach { case (bfsDx, bfsDy) =>
-      applyStep(bot, bfsDx, bfsDy)
-    }
+    // Direct path blocked - follow the goal's distance field around walls
+    applyDir(bot, flowStep(botPos.getX, botPos.getY, tx, ty, bot.getId))
   }
 
   /** Strafe perpendicular to the target (orbit around them). */
@@ -409,8 +483,7 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     // Blocked on all direct strafe attempts - use BFS to a strafe target point
     val strafeTargetX = botPos.getX + sdx * 3
     val strafeTargetY = botPos.getY + sdy * 3
-    val bfsMoved = bfsNextStep(botPos.getX, botPos.getY, strafeTargetX, strafeTargetY, bot.getId)
-      .exists { case (bfsDx, bfsDy) => applyStep(bot, bfsDx, bfsDy) }
+    val bfsMoved = applyDir(bot, localStep(botPos.getX, botPos.getY, strafeTargetX, strafeTargetY, bot.getId))
 
     if (!bfsMoved) {
       // Still stuck - flip strafe direction for next time
@@ -454,9 +527,7 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     val world = instance.world
     val clampedX = Math.max(0, Math.min(world.width - 1, awayX))
     val clampedY = Math.max(0, Math.min(world.height - 1, awayY))
-    bfsNextStep(botPos.getX, botPos.getY, clampedX, clampedY, bot.getId).foreach { case (bfsDx, bfsDy) =>
-      applyStep(bot, bfsDx, bfsDy)
-    }
+    applyDir(bot, localStep(botPos.getX, botPos.getY, clampedX, clampedY, bot.getId))
   }
 
   private def moveToward(bot: Player, target: Player): Unit = {
@@ -469,7 +540,7 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     val botPos = bot.getPosition
     val pickup = instance.itemManager.checkPickup(bot.getId, botPos.getX, botPos.getY)
     pickup.foreach { event =>
-      instance.broadcastItemPickup(event.item, event.playerId)
+      instance.queueItemPickup(event.item, event.playerId)
     }
   }
 
@@ -480,30 +551,24 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     inventory.foreach { item =>
       item.itemType match {
         case ItemType.Heart =>
-          bot.synchronized {
-            if (bot.getHealth.toFloat / bot.getMaxHealth.toFloat < 0.5f) {
-              useItem(bot, item)
-              bot.setHealth(bot.getMaxHealth)
-              broadcastBotPosition(bot)
-            }
+          if (bot.getHealth.toFloat / bot.getMaxHealth.toFloat < 0.5f) {
+            useItem(bot, item)
+            bot.setHealth(bot.getMaxHealth)
+            broadcastBotPosition(bot)
           }
 
         case ItemType.Shield =>
-          bot.synchronized {
-            if (!bot.hasShield) {
-              useItem(bot, item)
-              bot.setShieldUntil(System.currentTimeMillis() + Constants.SHIELD_DURATION_MS)
-              broadcastBotPosition(bot)
-            }
+          if (!bot.hasShield) {
+            useItem(bot, item)
+            bot.setShieldUntil(System.currentTimeMillis() + Constants.SHIELD_DURATION_MS)
+            broadcastBotPosition(bot)
           }
 
         case ItemType.Gem =>
-          bot.synchronized {
-            if (!bot.hasGemBoost) {
-              useItem(bot, item)
-              bot.setGemBoostUntil(System.currentTimeMillis() + Constants.GEM_DURATION_MS)
-              broadcastBotPosition(bot)
-            }
+          if (!bot.hasGemBoost) {
+            useItem(bot, item)
+            bot.setGemBoostUntil(System.currentTimeMillis() + Constants.GEM_DURATION_MS)
+            broadcastBotPosition(bot)
           }
 
         case ItemType.Fence =>
@@ -533,7 +598,7 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
       item.id,
       ItemAction.USE
     )
-    instance.broadcastToInstance(packet)
+    instance.queueBroadcast(packet)
   }
 
   private def placeFence(bot: Player, targetX: Int, targetY: Int): Unit = {
@@ -653,11 +718,11 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     ability.castBehavior match {
       case StandardProjectile =>
         if (dist > ability.maxRange) return false
-        val projectile = instance.projectileManager.spawnProjectile(
+        val slot = instance.projectileManager.spawnProjectile(
           bot.getId, botPos.getX, botPos.getY,
           ndx, ndy, bot.getColorRGB, 0, ability.projectileType
         )
-        if (projectile != null) instance.broadcastProjectileSpawn(projectile)
+        if (slot >= 0) instance.queueProjectileSpawn(slot)
         true
 
       case FanProjectile(count, fanAngle) =>
@@ -669,11 +734,11 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
           val sin = Math.sin(theta).toFloat
           val rdx = ndx * cos - ndy * sin
           val rdy = ndx * sin + ndy * cos
-          val projectile = instance.projectileManager.spawnProjectile(
+          val slot = instance.projectileManager.spawnProjectile(
             bot.getId, botPos.getX, botPos.getY,
             rdx, rdy, bot.getColorRGB, 0, ability.projectileType
           )
-          if (projectile != null) instance.broadcastProjectileSpawn(projectile)
+          if (slot >= 0) instance.queueProjectileSpawn(slot)
         }
         true
 
@@ -704,11 +769,11 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
 
       case GroundSlam(radius) =>
         if (dist > radius) return false
-        val projectile = instance.projectileManager.spawnProjectile(
+        val slot = instance.projectileManager.spawnProjectile(
           bot.getId, botPos.getX, botPos.getY,
           0.0f, 0.0f, bot.getColorRGB, 0, ability.projectileType
         )
-        if (projectile != null) instance.broadcastProjectileSpawn(projectile)
+        if (slot >= 0) instance.queueProjectileSpawn(slot)
         true
 
       case TeleportCast(maxDistance) =>
@@ -769,7 +834,7 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
     val ndy = baseDx * sin + baseDy * cos
 
     val charDef = CharacterDef.get(bot.getCharacterId)
-    val projectile = instance.projectileManager.spawnProjectile(
+    val slot = instance.projectileManager.spawnProjectile(
       bot.getId,
       botPos.getX, botPos.getY,
       ndx, ndy,
@@ -777,12 +842,14 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
       0,
       charDef.primaryProjectileType
     )
-    if (projectile != null) instance.broadcastProjectileSpawn(projectile)
+    if (slot >= 0) instance.queueProjectileSpawn(slot)
   }
 
   // --- Broadcasting ---
 
   private def broadcastBotPosition(bot: Player): Unit = {
+    // Bots are in the instance registry, so player snapshots already carry their state
+    if (Constants.PLAYER_SNAPSHOTS_ENABLED) return
     val flags = (if (bot.hasShield) 0x01 else 0) |
                 (if (bot.hasGemBoost) 0x02 else 0) |
                 (if (bot.isFrozen) 0x04 else 0) |
@@ -801,6 +868,7 @@ class BotController(instance: GameInstance, isPractice: Boolean = false) {
       flags,
       bot.getCharacterId
     )
-    instance.broadcastToInstance(packet)
+    val pos = bot.getPosition
+    instance.queueBroadcastNear(packet, pos.getX.toFloat, pos.getY.toFloat)
   }
 }
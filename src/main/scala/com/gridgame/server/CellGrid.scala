@@ -0,0 +1,110 @@
+package com.gridgame.server
+
+/**
+ * Uniform grid over a bounded world, rebuilt every tick by counting sort: entries are bucketed into
+ * one flat index array with a start offset and count per cell, so neighbor and radius queries are
+ * pure array arithmetic. Only the cells touched by the previous rebuild are reset, so a rebuild
+ * costs O(entries) rather than O(cells).
+ *
+ * Query pattern: for cy in rowOf(minY)..rowOf(maxY), cx in columnOf(minX)..columnOf(maxX),
+ * c = cell(cx, cy), entries entry(start(c)) until start(c) + count(c).
+ */
+final class CellGrid(val cellSize: Int) {
+  private var cols = 0
+  private var rows = 0
+  private var cellStart = new Array[Int](0)
+  private var cellCount = new Array[Int](0)
+  private var touched = new Array[Int](16)
+  private var touchedCount = 0
+  private var entryCells = new Array[Int](16)
+  private var entries = new Array[Int](16)
+  private var entryCount = 0
+
+  /**
+   * Bucket entries 0 until count by the world cell (xs(i), ys(i)). Positions outside the
+   * worldWidth x worldHeight bounds are clamped onto the edge cells.
+   */
+  def rebuild(xs: Array[Int], ys: Array[Int], count: Int, worldWidth: Int, worldHeight: Int): Unit = {
+    val newCols = math.max(1, (worldWidth + cellSize - 1) / cellSize)
+    val newRows = math.max(1, (worldHeight + cellSize - 1) / cellSize)
+    if (newCols != cols || newRows != rows) {
+      cols = newCols
+      rows = newRows
+      cellStart = new Array[Int](cols * rows)
+      cellCount = new Array[Int](cols * rows)
+      touchedCount = 0
+    }
+    var i = 0
+    while (i < touchedCount) {
+      cellCount(touched(i)) = 0
+      i += 1
+    }
+    touchedCount = 0
+    if (count > entries.length) {
+      val n = math.max(count, entries.length * 2)
+      entries = new Array[Int](n)
+      entryCells = new Array[Int](n)
+      touched = new Array[Int](n)
+    }
+
+    // Count entries per cell
+    i = 0
+    while (i < count) {
+      val cx = math.min(math.max(xs(i) / cellSize, 0), cols - 1)
+      val cy = math.min(math.max(ys(i) / cellSize, 0), rows - 1)
+      val c = cy * cols + cx
+      entryCells(i) = c
+      if (cellCount(c) == 0) {
+        touched(touchedCount) = c
+        touchedCount += 1
+      }
+      cellCount(c) += 1
+      i += 1
+    }
+    // Offsets: point each touched cell at the end of its range, then fill backwards
+    var offset = 0
+    i = 0
+    while (i < touchedCount) {
+      val c = touched(i)
+      offset += cellCount(c)
+      cellStart(c) = offset
+      i += 1
+    }
+    i = 0
+    while (i < count) {
+      val c = entryCells(i)
+      cellStart(c) -= 1
+      entries(cellStart(c)) = i
+      i += 1
+    }
+    entryCount = count
+  }
+
+  /** Entries in the last rebuild. Queries on an empty grid must be skipped. */
+  def size: Int = entryCount
+
+  /** Grid column containing world x, clamped to the grid. */
+  def columnOf(x: Float): Int = math.min(math.max((x / cellSize).toInt, 0), cols - 1)
+
+  /** Grid row containing world y, clamped to the grid. */
+  def rowOf(y: Float): Int = math.min(math.max((y / cellSize).toInt, 0), rows - 1)
+
+  def cell(cx: Int, cy: Int): Int = cy * cols + cx
+
+  def start(cell: Int): Int = cellStart(cell)
+
+  def count(cell: Int): Int = cellCount(cell)
+
+  /** The entry index stored at position k of the flat array. */
+  def entry(k: Int): Int = entries(k)
+
+  def clear(): Unit = {
+    var i = 0
+    while (i < touchedCount) {
+      cellCount(touched(i)) = 0
+      i += 1
+    }
+    touchedCount = 0
+    entryCount = 0
+  }
+}
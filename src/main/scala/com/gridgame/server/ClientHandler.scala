@@ -46,6 +46,14 @@ class ClientHandler(registry: ClientRegistry, server: GameServer, projectileMana
       case PacketType.ITEM_UPDATE =>
         handleItemUpdate(packet.asInstanceOf[ItemPacket])
 
+      case PacketType.PLAYER_SNAPSHOT =>
+        // Client ack for a delta snapshot; advances that viewer's baseline
+        val snapshotPacket = packet.asInstanceOf[PlayerSnapshotPacket]
+        if (instance != null && snapshotPacket.isAck) {
+          instance.snapshots.ack(playerId, snapshotPacket.getSnapshotSeq)
+        }
+        false
+
       case _ =>
         System.err.println(s"Unknown packet type: ${packet.getType}")
         false
@@ -91,7 +99,7 @@ class ClientHandler(registry: ClientRegistry, server: GameServer, projectileMana
     }
 
     // Spawn projectile at player's position with velocity from packet
-    val projectile = projectileManager.spawnProjectile(
+    val slot = projectileManager.spawnProjectile(
       playerId,
       packet.getX.toInt,
       packet.getY.toInt,
@@ -102,13 +110,13 @@ class ClientHandler(registry: ClientRegistry, server: GameServer, projectileMana
       packet.getProjectileType
     )
 
-    if (projectile == null) return false // Per-player projectile cap reached
+    if (slot < 0) return false // Per-player projectile cap reached
 
     // Broadcast spawn to instance or all clients
     if (instance != null) {
-      instance.broadcastProjectileSpawn(projectile)
+      instance.broadcastProjectileSpawn(slot)
     } else {
-      server.broadcastProjectileSpawn(projectile)
+      server.broadcastProjectileSpawn(slot)
     }
 
     false // Don't auto-broadcast; we handled it
@@ -150,6 +158,8 @@ class ClientHandler(registry: ClientRegistry, server: GameServer, projectileMana
       sendInventoryContents(playerId, existing)
       if (instance != null) instance.sendModifiedTiles(existing)
       else server.sendModifiedTiles(existing)
+      // A reconnecting client starts with an empty handle table
+      if (instance != null) instance.resendHandles(playerId)
 
       true
     } else {
@@ -226,6 +236,7 @@ class ClientHandler(registry: ClientRegistry, server: GameServer, projectileMana
         player.setPosition(newPos)
       }
       player.setColorRGB(packet.getColorRGB)
+      player.setChargeLevel(packet.getChargeLevel)
       // Character ID is set on join only — ignore mid-game character changes
       if (udpSender != null) {
         player.setUdpAddress(udpSender)
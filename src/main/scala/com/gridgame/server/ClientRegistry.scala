@@ -4,6 +4,7 @@ import com.gridgame.common.Constants
 import com.gridgame.common.model.Player
 import com.gridgame.common.observability.Attrs
 import com.gridgame.common.observability.Metrics
+import com.gridgame.common.protocol.EntityHandles
 import io.netty.channel.Channel
 
 import java.util.UUID
@@ -13,9 +14,12 @@ import scala.jdk.CollectionConverters._
 class ClientRegistry {
   private val players = new ConcurrentHashMap[UUID, Player]()
   private val channelToPlayer = new ConcurrentHashMap[Channel, UUID]()
+  // 16-bit wire handles, assigned on first add and kept after remove so they are never reused
+  val handles = new EntityHandles()
 
   def add(player: Player): Unit = {
     val isNew = players.put(player.getId, player) == null
+    handles.assign(player.getId)
     val ch = player.getTcpChannel
     if (ch != null) channelToPlayer.put(ch.asInstanceOf[Channel], player.getId)
     // Count each fresh entry into an instance registry — covers human joins through
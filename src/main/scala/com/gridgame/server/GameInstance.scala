@@ -5,12 +5,8 @@ import com.gridgame.common.model._
 import com.gridgame.common.observability.Attrs
 import com.gridgame.common.observability.Metrics
 import com.gridgame.common.protocol._
-import com.gridgame.common.world.WorldLoader
 
 import java.util.UUID
-import java.util.concurrent.Executors
-import java.util.concurrent.ScheduledExecutorService
-import java.util.concurrent.TimeUnit
 import scala.jdk.CollectionConverters._
 
 class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes: Int, val server: GameServer) {
@@ -21,8 +17,10 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
   val itemManager = new ItemManager()
   val killTracker = new KillTracker()
   val handler = new ClientHandler(registry, server, projectileManager, itemManager, this)
+  val snapshots = new PlayerSnapshots(this)
+  // An overlay on the server's shared base world for worldFile; tile changes stay in the overlay
   var world: WorldData = _
-  val modifiedTiles = new java.util.concurrent.ConcurrentHashMap[(Int, Int), Int]()
+  private var baseAcquired = false
 
   def isTeammate(id1: UUID, id2: UUID): Boolean = {
     if (gameMode == 0) return false
@@ -34,30 +32,59 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
   @volatile var isPractice: Boolean = false
   var botController: BotController = _
 
-  private var projectileExecutor: ScheduledExecutorService = _
-  private var itemSpawnExecutor: ScheduledExecutorService = _
-  private var timerSyncExecutor: ScheduledExecutorService = _
-  private var playerTickExecutor: ScheduledExecutorService = _
-  private var respawnExecutor: ScheduledExecutorService = _
+  // Fixed-timestep schedule, driven by the server's shared TickScheduler (ms deadlines)
+  private val PLAYER_TICK_MS = 200L
+  private val BOT_TICK_MS = 100L
+  private var nextPlayerTickAt: Long = 0L
+  private var nextBotTickAt: Long = 0L
+  private var nextItemSpawnAt: Long = 0L
+  private var nextTimerSyncAt: Long = 0L
+  private var nextSnapshotAt: Long = 0L
+  private var itemBatchSize: Int = 0
+  // Pending respawns as (due time, player). The delay is constant per instance, so FIFO order is due order.
+  private val pendingRespawns = new java.util.concurrent.ConcurrentLinkedQueue[(Long, UUID)]()
+  private val instanceAttrs = io.opentelemetry.api.common.Attributes.of(Attrs.InstanceId, java.lang.Long.valueOf(gameId.toLong))
+  private var lastOverrunLogAt: Long = 0L
+  // Area of interest: viewer -> players it has been synced with (tick thread only)
+  private val interestSets = new java.util.HashMap[UUID, java.util.HashSet[UUID]]()
+  // Entity handles already announced to each player: viewer -> highest handle sent (tick thread only)
+  private val handlesAnnounced = new java.util.HashMap[UUID, Integer]()
+  // Client inputs decoded on Netty threads, applied at the start of each tick
+  private val inputQueue = new InputQueue(Constants.INPUT_QUEUE_CAPACITY)
   private var startTime: Long = 0L
   @volatile private var running = false
   private val spawnLock = new Object()
   // Tracks players killed in the current tick to prevent duplicate kill events
   // when multiple projectiles hit the same player in one tick
   private val killedThisTick: java.util.Set[UUID] = java.util.concurrent.ConcurrentHashMap.newKeySet[UUID]()
+  // Bot actions were buffered this tick and still need a flush (tick thread only)
+  private var botSendsQueued = false
 
   def loadWorld(): Unit = {
+    releaseBaseWorld()
     if (worldFile.nonEmpty) {
       try {
-        world = WorldLoader.load(worldFile)
+        val base = server.worlds.acquire(worldFile)
+        baseAcquired = true
+        world = base.overlay()
         println(s"GameInstance[$gameId]: Loaded world '${world.name}' (${world.width}x${world.height})")
       } catch {
         case e: Exception =>
           println(s"GameInstance[$gameId]: Failed to load world: ${e.getMessage}")
-          world = WorldData.createEmpty(200, 200)
+          world = emptyWorld()
       }
     } else {
-      world = WorldData.createEmpty(200, 200)
+      world = emptyWorld()
+    }
+  }
+
+  /** Fallback arena, still an overlay so tile changes are tracked and replayed to late joiners. */
+  private def emptyWorld(): WorldData = WorldData.createEmpty(200, 200).overlay()
+
+  private def releaseBaseWorld(): Unit = {
+    if (baseAcquired) {
+      server.worlds.release(worldFile)
+      baseAcquired = false
     }
   }
 
@@ -67,53 +94,17 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
     startTime = System.currentTimeMillis()
     running = true
 
-    // Helper: wrap a Runnable in try-catch so ScheduledExecutorService doesn't silently die
-    def safeRunnable(name: String)(body: => Unit): Runnable = new Runnable {
-      def run(): Unit = try { body } catch {
-        case e: Exception =>
-          System.err.println(s"GameInstance[$gameId] $name error: ${e.getMessage}")
-      }
-    }
-
-    // Start projectile tick
-    projectileExecutor = Executors.newSingleThreadScheduledExecutor()
-    projectileExecutor.scheduleAtFixedRate(
-      safeRunnable("tickProjectiles")(tickProjectiles()),
-      Constants.PROJECTILE_SPEED_MS.toLong,
-      Constants.PROJECTILE_SPEED_MS.toLong,
-      TimeUnit.MILLISECONDS
-    )
-
     // Spawn items relative to map size (1 item per 500 tiles, min 3, max 20)
     val mapArea = world.width * world.height
-    val itemCount = Math.max(3, Math.min(20, mapArea / 2000))
-    itemSpawnExecutor = Executors.newSingleThreadScheduledExecutor()
-    spawnItemBatch(itemCount)
-    itemSpawnExecutor.scheduleAtFixedRate(
-      safeRunnable("spawnItem")(spawnItemBatch(itemCount)),
-      Constants.ITEM_SPAWN_INTERVAL_MS.toLong,
-      Constants.ITEM_SPAWN_INTERVAL_MS.toLong,
-      TimeUnit.MILLISECONDS
-    )
+    itemBatchSize = Math.max(3, Math.min(20, mapArea / 2000))
+    spawnItemBatch(itemBatchSize)
 
-    // Start player state tick (burn DoT processing)
-    playerTickExecutor = Executors.newSingleThreadScheduledExecutor()
-    playerTickExecutor.scheduleAtFixedRate(
-      safeRunnable("tickPlayers")(tickPlayers()),
-      200L, 200L, TimeUnit.MILLISECONDS
-    )
-
-    // Shared executor for respawn scheduling
-    respawnExecutor = Executors.newSingleThreadScheduledExecutor()
-
-    // Start timer sync
-    timerSyncExecutor = Executors.newSingleThreadScheduledExecutor()
-    timerSyncExecutor.scheduleAtFixedRate(
-      safeRunnable("syncTimer")(syncTimer()),
-      Constants.TIME_SYNC_INTERVAL_S.toLong,
-      Constants.TIME_SYNC_INTERVAL_S.toLong,
-      TimeUnit.SECONDS
-    )
+    nextPlayerTickAt = startTime + PLAYER_TICK_MS
+    nextBotTickAt = startTime + BOT_TICK_MS
+    nextItemSpawnAt = startTime + Constants.ITEM_SPAWN_INTERVAL_MS
+    nextTimerSyncAt = startTime + Constants.TIME_SYNC_INTERVAL_S * 1000L
+    nextSnapshotAt = startTime + Constants.SNAPSHOT_INTERVAL_MS
+    server.tickScheduler.register(this)
 
     Metrics.matchesStarted.add(1L, io.opentelemetry.api.common.Attributes.builder()
       .putAll(Attrs.modeOf(gameMode))
@@ -124,12 +115,13 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
 
   def stop(): Unit = {
     running = false
+    server.tickScheduler.unregister(this)
     if (botController != null) botController.stop()
-    if (projectileExecutor != null) { projectileExecutor.shutdown(); projectileExecutor.shutdownNow() }
-    if (playerTickExecutor != null) { playerTickExecutor.shutdown(); playerTickExecutor.shutdownNow() }
-    if (itemSpawnExecutor != null) { itemSpawnExecutor.shutdown(); itemSpawnExecutor.shutdownNow() }
-    if (respawnExecutor != null) { respawnExecutor.shutdown(); respawnExecutor.shutdownNow() }
-    if (timerSyncExecutor != null) { timerSyncExecutor.shutdown(); timerSyncExecutor.shutdownNow() }
+    pendingRespawns.clear()
+    inputQueue.clear()
+    interestSets.clear()
+    handlesAnnounced.clear()
+    snapshots.clear()
     // Release manager state and unregister their async gauges. Without this, the
     // gauge callbacks remain registered against OTel's meter and keep reporting the
     // post-mortem sizes of projectiles/items, and across matches the callbacks
@@ -137,7 +129,7 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
     projectileManager.close()
     itemManager.close()
     killedThisTick.clear()
-    modifiedTiles.clear()
+    releaseBaseWorld()
     teamAssignments.clear()
     println(s"GameInstance[$gameId]: Stopped")
   }
@@ -156,234 +148,193 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
   private val playerTickAttrs = Attrs.tickPhase("player")
   private val timerTickAttrs = Attrs.tickPhase("timer")
 
+  /**
+   * One fixed timestep, called by the TickScheduler worker that owns this instance.
+   * Phases always run in the same order: inputs, handle announcements, projectiles,
+   * players (+ interest), respawns, bots, player snapshots, items, timer.
+   */
+  private[server] def tick(now: Long): Unit = {
+    if (!running) return
+    runPhase("drainInputs")(drainInputs())
+    // Snapshot entries name players by handle too, so bindings go out whenever either is on
+    if (Constants.ENTITY_HANDLES_ENABLED || Constants.PLAYER_SNAPSHOTS_ENABLED) runPhase("announceHandles")(announceHandles())
+    runPhase("tickProjectiles")(tickProjectiles())
+    if (now >= nextPlayerTickAt) {
+      nextPlayerTickAt = nextDeadline(nextPlayerTickAt, now, PLAYER_TICK_MS)
+      runPhase("tickPlayers")(tickPlayers())
+      // Snapshots already send full state for players entering a viewer's range
+      if (Constants.AOI_ENABLED && !Constants.PLAYER_SNAPSHOTS_ENABLED) runPhase("syncInterest")(syncInterest())
+    }
+    runPhase("respawns")(processRespawns(now))
+    if (botController != null && botController.isActive && now >= nextBotTickAt) {
+      nextBotTickAt = nextDeadline(nextBotTickAt, now, BOT_TICK_MS)
+      botController.tick()
+      // One flush (and one signature per UDP bundle) for everything the bots did this tick
+      if (botSendsQueued) {
+        botSendsQueued = false
+        flushAllInstancePlayers()
+      }
+    }
+    if (Constants.PLAYER_SNAPSHOTS_ENABLED && now >= nextSnapshotAt) {
+      nextSnapshotAt = nextDeadline(nextSnapshotAt, now, Constants.SNAPSHOT_INTERVAL_MS.toLong)
+      runPhase("snapshots") {
+        snapshots.tick(now)
+        flushAllInstancePlayers()
+      }
+    }
+    if (now >= nextItemSpawnAt) {
+      nextItemSpawnAt = nextDeadline(nextItemSpawnAt, now, Constants.ITEM_SPAWN_INTERVAL_MS.toLong)
+      runPhase("spawnItem")(spawnItemBatch(itemBatchSize))
+    }
+    if (now >= nextTimerSyncAt) {
+      nextTimerSyncAt = nextDeadline(nextTimerSyncAt, now, Constants.TIME_SYNC_INTERVAL_S * 1000L)
+      runPhase("syncTimer")(syncTimer())
+    }
+  }
+
+  /** Queue a decoded client packet for this instance. Called from Netty event-loop threads. */
+  def enqueueInput(packet: Packet, tcpChannel: io.netty.channel.Channel, udpSender: java.net.InetSocketAddress): Unit = {
+    if (!inputQueue.offer(InputCommand(packet, tcpChannel, udpSender))) {
+      Metrics.packetsDropped.add(1L, Attrs.ReasonInputQueueFull)
+    }
+  }
+
+  private def drainInputs(): Unit = {
+    inputQueue.drain { cmd =>
+      try {
+        if (cmd.packet.getType == PacketType.PLAYER_JOIN) {
+          // (Re)join forwarded by GameServer.handleGlobalConnect; never rebroadcast as-is
+          handler.processPacket(cmd.packet, cmd.tcpChannel, cmd.udpSender)
+        } else {
+          server.dispatchInstancePacket(this, cmd.packet, cmd.tcpChannel, cmd.udpSender)
+        }
+      } catch {
+        case e: Exception =>
+          System.err.println(s"GameInstance[$gameId] input ${cmd.packet.getType} error: ${e.getMessage}")
+      }
+    }
+  }
+
+  /** Advance a phase deadline by one interval; after a stall, skip missed steps instead of bursting. */
+  private def nextDeadline(deadline: Long, now: Long, interval: Long): Long = {
+    val next = deadline + interval
+    if (next <= now) now + interval else next
+  }
+
+  // Keep one failing phase from taking down the rest of the tick
+  private def runPhase(name: String)(body: => Unit): Unit = {
+    try { body } catch {
+      case e: Exception =>
+        System.err.println(s"GameInstance[$gameId] $name error: ${e.getMessage}")
+    }
+  }
+
+  /** Called by the TickScheduler when a tick exceeded its budget. Logged at most every 10s. */
+  private[server] def reportOverrun(elapsedMs: Double, budgetMs: Long): Unit = {
+    Metrics.tickOverruns.add(1L, instanceAttrs)
+    val now = System.currentTimeMillis()
+    if (now - lastOverrunLogAt >= 10000L) {
+      lastOverrunLogAt = now
+      println(f"GameInstance[$gameId]: Tick overran budget (${elapsedMs}%.1fms > ${budgetMs}ms, ${registry.size} players)")
+    }
+  }
+
   private def tickProjectiles(): Unit = {
     if (!running || world == null) return
     val tickStart = System.nanoTime()
 
     killedThisTick.clear()
-    val events = projectileManager.tick(world)
-    events.foreach {
-      case ProjectileMoved(projectile) =>
-        val packet = new ProjectilePacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          projectile.getX, projectile.getY,
-          projectile.colorRGB,
-          projectile.id,
-          projectile.dx, projectile.dy,
-          ProjectileAction.MOVE,
-          null,
-          projectile.chargeLevel.toByte,
-          projectile.projectileType
-        )
-        broadcastBuffered(packet)
+    val eventCount = projectileManager.tick(world)
+    var e = 0
+    while (e < eventCount) {
+      val slot = projectileManager.eventSlot(e)
+      val targetId = projectileManager.eventTargetId(e) // null for events without a target
+      projectileManager.eventKind(e) match {
+        case ProjectileManager.EVENT_MOVED =>
+          // Clients simulate flight from SPAWN; only send periodic corrections
+          if (!Constants.PROJECTILE_SPAWN_ONLY_REPLICATION ||
+              projectileManager.pollCorrection(slot, Constants.PROJECTILE_CORRECTION_INTERVAL_TICKS)) {
+            val packet = new ProjectilePacket(
+              server.getNextSequenceNumber,
+              projectileManager.ownerId(slot),
+              projectileManager.x(slot), projectileManager.y(slot),
+              projectileManager.colorRGB(slot),
+              projectileManager.id(slot),
+              projectileManager.dx(slot), projectileManager.dy(slot),
+              ProjectileAction.MOVE,
+              null,
+              projectileManager.chargeLevel(slot).toByte,
+              projectileManager.projectileType(slot),
+              projectileManager.distanceTraveled(slot),
+              projectileManager.isReturning(slot),
+              projectileManager.remainingBounces(slot)
+            )
+            broadcastBufferedNear(packet, projectileManager.x(slot), projectileManager.y(slot))
+          }
 
-      case ProjectileKill(projectile, targetId) =>
-        Metrics.projectilesHit.add(1L, Attrs.projectileType(projectile.projectileType))
-        // Guard: skip if target was already killed this tick by another projectile
-        val target = registry.get(targetId)
-        if (target != null && killedThisTick.contains(targetId)) {
-          // Already dead — just send the hit packet for visual feedback
+        case ProjectileManager.EVENT_KILL =>
+          Metrics.projectilesHit.add(1L, Attrs.projectileType(projectileManager.projectileType(slot)))
+          // Guard: skip if target was already killed this tick by another projectile
+          val target = registry.get(targetId)
+          if (target != null && killedThisTick.contains(targetId)) {
+            // Already dead — just send the hit packet for visual feedback
+            val hitPacket = new ProjectilePacket(
+              server.getNextSequenceNumber,
+              projectileManager.ownerId(slot),
+              projectileManager.x(slot), projectileManager.y(slot),
+              projectileManager.colorRGB(slot),
+              projectileManager.id(slot),
+              projectileManager.dx(slot), projectileManager.dy(slot),
+              ProjectileAction.HIT,
+              targetId,
+              projectileManager.chargeLevel(slot).toByte,
+              projectileManager.projectileType(slot)
+            )
+            broadcastBuffered(hitPacket)
+          } else {
+          // Send hit packet
           val hitPacket = new ProjectilePacket(
             server.getNextSequenceNumber,
-            projectile.ownerId,
-            projectile.getX, projectile.getY,
-            projectile.colorRGB,
-            projectile.id,
-            projectile.dx, projectile.dy,
+            projectileManager.ownerId(slot),
+            projectileManager.x(slot), projectileManager.y(slot),
+            projectileManager.colorRGB(slot),
+            projectileManager.id(slot),
+            projectileManager.dx(slot), projectileManager.dy(slot),
             ProjectileAction.HIT,
             targetId,
-            projectile.chargeLevel.toByte,
-            projectile.projectileType
+            projectileManager.chargeLevel(slot).toByte,
+            projectileManager.projectileType(slot)
           )
           broadcastBuffered(hitPacket)
-        } else {
-        // Send hit packet
-        val hitPacket = new ProjectilePacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          projectile.getX, projectile.getY,
-          projectile.colorRGB,
-          projectile.id,
-          projectile.dx, projectile.dy,
-          ProjectileAction.HIT,
-          targetId,
-          projectile.chargeLevel.toByte,
-          projectile.projectileType
-        )
-        broadcastBuffered(hitPacket)
-        notifyAbilityHitForOwner(projectile)
-
-        // Send player update with 0 health
-        if (target != null) {
-          val updatePacket = new PlayerUpdatePacket(
-            server.getNextSequenceNumber,
-            targetId,
-            target.getPosition,
-            target.getColorRGB,
-            target.getHealth,
-            0,
-            playerFlags(target)
-          )
-          broadcastBuffered(updatePacket)
-        }
-
-        // Life-steal on killing blow
-        ProjectileDef.get(projectile.projectileType).onHitEffect.foreach {
-          case LifeSteal(healPercent) =>
-            val lsOwner = registry.get(projectile.ownerId)
-            if (lsOwner != null && !lsOwner.isDead) {
-              val pDef = ProjectileDef.get(projectile.projectileType)
-              val dmg = pDef.effectiveDamage(projectile.chargeLevel, projectile.getDistanceTraveled)
-              val healAmount = dmg * healPercent / 100
-              val newHealth = Math.min(lsOwner.getMaxHealth, lsOwner.getHealth + healAmount)
-              lsOwner.setHealth(newHealth)
-              val ownerUpdate = new PlayerUpdatePacket(
-                server.getNextSequenceNumber,
-                projectile.ownerId,
-                lsOwner.getPosition,
-                lsOwner.getColorRGB,
-                lsOwner.getHealth,
-                0,
-                playerFlags(lsOwner)
-              )
-              broadcastBuffered(ownerUpdate)
-            }
-          case _ => // no life-steal
-        }
-
-        // Record kill and mark as killed this tick
-        killedThisTick.add(targetId)
-        killTracker.recordKill(projectile.ownerId, targetId)
-
-        // Metrics: kill event
-        val killer = registry.get(projectile.ownerId)
-        val victim = target
-        Metrics.kills.add(1L, Attrs.killCombo(
-          if (killer != null) killer.getCharacterId else 0,
-          if (victim != null) victim.getCharacterId else 0,
-          projectile.projectileType
-        ))
-        Metrics.deaths.add(1L, Attrs.CauseProjectile)
-
-        // Broadcast kill event
-        val killPacket = new GameEventPacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          GameEvent.KILL,
-          gameId,
-          getRemainingSeconds,
-          killTracker.getKills(projectile.ownerId).toShort,
-          killTracker.getDeaths(projectile.ownerId).toShort,
-          targetId,
-          0.toByte, 0.toShort, 0.toShort
-        )
-        broadcastBuffered(killPacket)
-
-        // Schedule auto-respawn
-        scheduleRespawn(targetId)
-        }
-
-      case ProjectileHit(projectile, targetId) =>
-        Metrics.projectilesHit.add(1L, Attrs.projectileType(projectile.projectileType))
-        val hitPacket = new ProjectilePacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          projectile.getX, projectile.getY,
-          projectile.colorRGB,
-          projectile.id,
-          projectile.dx, projectile.dy,
-          ProjectileAction.HIT,
-          targetId,
-          projectile.chargeLevel.toByte,
-          projectile.projectileType
-        )
-        broadcastBuffered(hitPacket)
-        notifyAbilityHitForOwner(projectile)
-
-        val target = registry.get(targetId)
-        if (target != null && !target.isDead) {
-          // Apply type-specific on-hit effects from ProjectileDef (skip dead targets)
-          ProjectileDef.get(projectile.projectileType).onHitEffect.foreach {
-            case PullToOwner =>
-              val owner = registry.get(projectile.ownerId)
-              if (owner != null) {
-                val ownerPos = owner.getPosition
-                val destX = ownerPos.getX
-                val destY = ownerPos.getY
-                if (world.isWalkable(destX, destY)) {
-                  target.setPosition(new Position(destX, destY))
-                }
-              }
-
-            case Freeze(durationMs) =>
-              target.tryFreeze(durationMs)
-
-            case TeleportOwnerBehind(distance, freezeDurationMs) =>
-              target.tryFreeze(freezeDurationMs)
-              val owner = registry.get(projectile.ownerId)
-              if (owner != null) {
-                val targetPos = target.getPosition
-                val (bdx, bdy) = target.getDirection match {
-                  case Direction.Up    => (0, 1)
-                  case Direction.Down  => (0, -1)
-                  case Direction.Left  => (1, 0)
-                  case Direction.Right => (-1, 0)
-                }
-                val destX = Math.max(0, Math.min(world.width - 1, targetPos.getX + bdx * distance))
-                val destY = Math.max(0, Math.min(world.height - 1, targetPos.getY + bdy * distance))
-                if (world.isWalkable(destX, destY)) {
-                  owner.setPosition(new Position(destX, destY))
-                  owner.setServerTeleportedUntil(System.currentTimeMillis() + 500)
-                    val ownerUpdate = new PlayerUpdatePacket(
-                    server.getNextSequenceNumber,
-                    projectile.ownerId,
-                    owner.getPosition,
-                    owner.getColorRGB,
-                    owner.getHealth,
-                    0,
-                    playerFlags(owner)
-                  )
-                  broadcastBuffered(ownerUpdate)
-                }
-              }
-
-            case Push(pushDistance) =>
-              val pushOwner = registry.get(projectile.ownerId)
-              if (pushOwner != null) {
-                val pushOwnerPos = pushOwner.getPosition
-                val pushTargetPos = target.getPosition
-                val pdx = pushTargetPos.getX - pushOwnerPos.getX
-                val pdy = pushTargetPos.getY - pushOwnerPos.getY
-                val dist = Math.sqrt(pdx * pdx + pdy * pdy)
-                if (dist > 0.01) {
-                  val ndx = pdx / dist
-                  val ndy = pdy / dist
-                  var destX = pushTargetPos.getX
-                  var destY = pushTargetPos.getY
-                  for (s <- 1 to pushDistance.toInt) {
-                    val nextX = Math.max(0, Math.min(world.width - 1, (pushTargetPos.getX + ndx * s).toInt))
-                    val nextY = Math.max(0, Math.min(world.height - 1, (pushTargetPos.getY + ndy * s).toInt))
-                    if (world.isWalkable(nextX, nextY)) {
-                      destX = nextX
-                      destY = nextY
-                    }
-                  }
-                  target.setPosition(new Position(destX, destY))
-                }
-              }
+          notifyAbilityHitForOwner(slot)
+
+          // Send player update with 0 health
+          if (target != null) {
+            val updatePacket = new PlayerUpdatePacket(
+              server.getNextSequenceNumber,
+              targetId,
+              target.getPosition,
+              target.getColorRGB,
+              target.getHealth,
+              0,
+              playerFlags(target)
+            )
+            broadcastBuffered(updatePacket)
+          }
 
+          // Life-steal on killing blow
+          ProjectileDef.get(projectileManager.projectileType(slot)).onHitEffect.foreach {
             case LifeSteal(healPercent) =>
-              val lsOwner = registry.get(projectile.ownerId)
+              val lsOwner = registry.get(projectileManager.ownerId(slot))
               if (lsOwner != null && !lsOwner.isDead) {
-                val pDef = ProjectileDef.get(projectile.projectileType)
-                val dmg = pDef.effectiveDamage(projectile.chargeLevel, projectile.getDistanceTraveled)
+                val pDef = ProjectileDef.get(projectileManager.projectileType(slot))
+                val dmg = pDef.effectiveDamage(projectileManager.chargeLevel(slot), projectileManager.distanceTraveled(slot))
                 val healAmount = dmg * healPercent / 100
                 val newHealth = Math.min(lsOwner.getMaxHealth, lsOwner.getHealth + healAmount)
                 lsOwner.setHealth(newHealth)
                 val ownerUpdate = new PlayerUpdatePacket(
                   server.getNextSequenceNumber,
-                  projectile.ownerId,
+                  projectileManager.ownerId(slot),
                   lsOwner.getPosition,
                   lsOwner.getColorRGB,
                   lsOwner.getHealth,
@@ -392,298 +343,444 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
                 )
                 broadcastBuffered(ownerUpdate)
               }
-              // Bat Swarm also applies a brief freeze
-              if (projectile.projectileType == ProjectileType.BAT_SWARM) {
-                target.tryFreeze(600)
-              }
+            case _ => // no life-steal
+          }
 
-            case Burn(totalDamage, durationMs, tickMs) =>
-              target.applyBurn(totalDamage, durationMs, tickMs, projectile.ownerId)
-
-            case VortexPull(radius, pullStrength) =>
-              // Pull all nearby enemies toward the hit location
-              val vx = projectile.getX
-              val vy = projectile.getY
-              projectileManager.forEachNearbyPlayer(vx, vy, radius) { nearby =>
-                if (!nearby.isDead && !nearby.isPhased && !nearby.getId.equals(projectile.ownerId) && !isTeammate(projectile.ownerId, nearby.getId)) {
-                  val pos = nearby.getPosition
-                  val ndx = vx - (pos.getX + 0.5f)
-                  val ndy = vy - (pos.getY + 0.5f)
-                  val dist = math.sqrt(ndx * ndx + ndy * ndy).toFloat
-                  if (dist > 0.1f && dist <= radius) {
-                    val normX = ndx / dist
-                    val normY = ndy / dist
-                    val pull = Math.min(pullStrength, dist).toInt
-                    var destX = pos.getX
-                    var destY = pos.getY
-                    for (s <- 1 to pull) {
-                      val nextX = Math.max(0, Math.min(world.width - 1, (pos.getX + normX * s).toInt))
-                      val nextY = Math.max(0, Math.min(world.height - 1, (pos.getY + normY * s).toInt))
+          // Record kill and mark as killed this tick
+          killedThisTick.add(targetId)
+          killTracker.recordKill(projectileManager.ownerId(slot), targetId)
+
+          // Metrics: kill event
+          val killer = registry.get(projectileManager.ownerId(slot))
+          val victim = target
+          Metrics.kills.add(1L, Attrs.killCombo(
+            if (killer != null) killer.getCharacterId else 0,
+            if (victim != null) victim.getCharacterId else 0,
+            projectileManager.projectileType(slot)
+          ))
+          Metrics.deaths.add(1L, Attrs.CauseProjectile)
+
+          // Broadcast kill event
+          val killPacket = new GameEventPacket(
+            server.getNextSequenceNumber,
+            projectileManager.ownerId(slot),
+            GameEvent.KILL,
+            gameId,
+            getRemainingSeconds,
+            killTracker.getKills(projectileManager.ownerId(slot)).toShort,
+            killTracker.getDeaths(projectileManager.ownerId(slot)).toShort,
+            targetId,
+            0.toByte, 0.toShort, 0.toShort
+          )
+          broadcastBuffered(killPacket)
+
+          // Schedule auto-respawn
+          scheduleRespawn(targetId)
+          }
+
+        case ProjectileManager.EVENT_HIT =>
+          Metrics.projectilesHit.add(1L, Attrs.projectileType(projectileManager.projectileType(slot)))
+          val hitPacket = new ProjectilePacket(
+            server.getNextSequenceNumber,
+            projectileManager.ownerId(slot),
+            projectileManager.x(slot), projectileManager.y(slot),
+            projectileManager.colorRGB(slot),
+            projectileManager.id(slot),
+            projectileManager.dx(slot), projectileManager.dy(slot),
+            ProjectileAction.HIT,
+            targetId,
+            projectileManager.chargeLevel(slot).toByte,
+            projectileManager.projectileType(slot)
+          )
+          broadcastBuffered(hitPacket)
+          notifyAbilityHitForOwner(slot)
+
+          val target = registry.get(targetId)
+          if (target != null && !target.isDead) {
+            // Apply type-specific on-hit effects from ProjectileDef (skip dead targets)
+            ProjectileDef.get(projectileManager.projectileType(slot)).onHitEffect.foreach {
+              case PullToOwner =>
+                val owner = registry.get(projectileManager.ownerId(slot))
+                if (owner != null) {
+                  val ownerPos = owner.getPosition
+                  val destX = ownerPos.getX
+                  val destY = ownerPos.getY
+                  if (world.isWalkable(destX, destY)) {
+                    target.setPosition(new Position(destX, destY))
+                  }
+                }
+
+              case Freeze(durationMs) =>
+                target.tryFreeze(durationMs)
+
+              case TeleportOwnerBehind(distance, freezeDurationMs) =>
+                target.tryFreeze(freezeDurationMs)
+                val owner = registry.get(projectileManager.ownerId(slot))
+                if (owner != null) {
+                  val targetPos = target.getPosition
+                  val (bdx, bdy) = target.getDirection match {
+                    case Direction.Up    => (0, 1)
+                    case Direction.Down  => (0, -1)
+                    case Direction.Left  => (1, 0)
+                    case Direction.Right => (-1, 0)
+                  }
+                  val destX = Math.max(0, Math.min(world.width - 1, targetPos.getX + bdx * distance))
+                  val destY = Math.max(0, Math.min(world.height - 1, targetPos.getY + bdy * distance))
+                  if (world.isWalkable(destX, destY)) {
+                    owner.setPosition(new Position(destX, destY))
+                    owner.setServerTeleportedUntil(System.currentTimeMillis() + 500)
+                      val ownerUpdate = new PlayerUpdatePacket(
+                      server.getNextSequenceNumber,
+                      projectileManager.ownerId(slot),
+                      owner.getPosition,
+                      owner.getColorRGB,
+                      owner.getHealth,
+                      0,
+                      playerFlags(owner)
+                    )
+                    broadcastBuffered(ownerUpdate)
+                  }
+                }
+
+              case Push(pushDistance) =>
+                val pushOwner = registry.get(projectileManager.ownerId(slot))
+                if (pushOwner != null) {
+                  val pushOwnerPos = pushOwner.getPosition
+                  val pushTargetPos = target.getPosition
+                  val pdx = pushTargetPos.getX - pushOwnerPos.getX
+                  val pdy = pushTargetPos.getY - pushOwnerPos.getY
+                  val dist = Math.sqrt(pdx * pdx + pdy * pdy)
+                  if (dist > 0.01) {
+                    val ndx = pdx / dist
+                    val ndy = pdy / dist
+                    var destX = pushTargetPos.getX
+                    var destY = pushTargetPos.getY
+                    for (s <- 1 to pushDistance.toInt) {
+                      val nextX = Math.max(0, Math.min(world.width - 1, (pushTargetPos.getX + ndx * s).toInt))
+                      val nextY = Math.max(0, Math.min(world.height - 1, (pushTargetPos.getY + ndy * s).toInt))
                       if (world.isWalkable(nextX, nextY)) {
                         destX = nextX
                         destY = nextY
                       }
                     }
-                    nearby.setPosition(new Position(destX, destY))
+                    target.setPosition(new Position(destX, destY))
+                  }
+                }
+
+              case LifeSteal(healPercent) =>
+                val lsOwner = registry.get(projectileManager.ownerId(slot))
+                if (lsOwner != null && !lsOwner.isDead) {
+                  val pDef = ProjectileDef.get(projectileManager.projectileType(slot))
+                  val dmg = pDef.effectiveDamage(projectileManager.chargeLevel(slot), projectileManager.distanceTraveled(slot))
+                  val healAmount = dmg * healPercent / 100
+                  val newHealth = Math.min(lsOwner.getMaxHealth, lsOwner.getHealth + healAmount)
+                  lsOwner.setHealth(newHealth)
+                  val ownerUpdate = new PlayerUpdatePacket(
+                    server.getNextSequenceNumber,
+                    projectileManager.ownerId(slot),
+                    lsOwner.getPosition,
+                    lsOwner.getColorRGB,
+                    lsOwner.getHealth,
+                    0,
+                    playerFlags(lsOwner)
+                  )
+                  broadcastBuffered(ownerUpdate)
+                }
+                // Bat Swarm also applies a brief freeze
+                if (projectileManager.projectileType(slot) == ProjectileType.BAT_SWARM) {
+                  target.tryFreeze(600)
+                }
+
+              case Burn(totalDamage, durationMs, tickMs) =>
+                target.applyBurn(totalDamage, durationMs, tickMs, projectileManager.ownerId(slot))
+
+              case VortexPull(radius, pullStrength) =>
+                // Pull all nearby enemies toward the hit location
+                val vx = projectileManager.x(slot)
+                val vy = projectileManager.y(slot)
+                projectileManager.forEachNearbyPlayer(vx, vy, radius) { nearby =>
+                  if (!nearby.isDead && !nearby.isPhased && !nearby.getId.equals(projectileManager.ownerId(slot)) && !isTeammate(projectileManager.ownerId(slot), nearby.getId)) {
+                    val pos = nearby.getPosition
+                    val ndx = vx - (pos.getX + 0.5f)
+                    val ndy = vy - (pos.getY + 0.5f)
+                    val dist = math.sqrt(ndx * ndx + ndy * ndy).toFloat
+                    if (dist > 0.1f && dist <= radius) {
+                      val normX = ndx / dist
+                      val normY = ndy / dist
+                      val pull = Math.min(pullStrength, dist).toInt
+                      var destX = pos.getX
+                      var destY = pos.getY
+                      for (s <- 1 to pull) {
+                        val nextX = Math.max(0, Math.min(world.width - 1, (pos.getX + normX * s).toInt))
+                        val nextY = Math.max(0, Math.min(world.height - 1, (pos.getY + normY * s).toInt))
+                        if (world.isWalkable(nextX, nextY)) {
+                          destX = nextX
+                          destY = nextY
+                        }
+                      }
+                      nearby.setPosition(new Position(destX, destY))
+                    }
                   }
                 }
-              }
 
-            case Root(durationMs) =>
-              target.tryRoot(durationMs)
+              case Root(durationMs) =>
+                target.tryRoot(durationMs)
 
-            case Slow(durationMs, multiplier) =>
-              target.trySlow(durationMs, multiplier)
+              case Slow(durationMs, multiplier) =>
+                target.trySlow(durationMs, multiplier)
 
-            case SpeedBoost(durationMs) =>
-              val boostOwner = registry.get(projectile.ownerId)
-              if (boostOwner != null && !boostOwner.isDead) {
-                boostOwner.setSpeedBoostUntil(System.currentTimeMillis() + durationMs)
-                val ownerUpdate = new PlayerUpdatePacket(
-                  server.getNextSequenceNumber,
-                  projectile.ownerId,
-                  boostOwner.getPosition,
-                  boostOwner.getColorRGB,
-                  boostOwner.getHealth,
-                  0,
-                  playerFlags(boostOwner)
-                )
-                broadcastBuffered(ownerUpdate)
-              }
+              case SpeedBoost(durationMs) =>
+                val boostOwner = registry.get(projectileManager.ownerId(slot))
+                if (boostOwner != null && !boostOwner.isDead) {
+                  boostOwner.setSpeedBoostUntil(System.currentTimeMillis() + durationMs)
+                  val ownerUpdate = new PlayerUpdatePacket(
+                    server.getNextSequenceNumber,
+                    projectileManager.ownerId(slot),
+                    boostOwner.getPosition,
+                    boostOwner.getColorRGB,
+                    boostOwner.getHealth,
+                    0,
+                    playerFlags(boostOwner)
+                  )
+                  broadcastBuffered(ownerUpdate)
+                }
+            }
+
+            val flags = playerFlags(target)
+            val updatePacket = new PlayerUpdatePacket(
+              server.getNextSequenceNumber,
+              targetId,
+              target.getPosition,
+              target.getColorRGB,
+              target.getHealth,
+              0,
+              flags
+            )
+            broadcastBuffered(updatePacket)
           }
 
-          val flags = playerFlags(target)
-          val updatePacket = new PlayerUpdatePacket(
+        case ProjectileManager.EVENT_AOE =>
+          // Broadcast despawn (client renders explosion for GRENADE/ROCKET)
+          val despawnPacket = new ProjectilePacket(
             server.getNextSequenceNumber,
-            targetId,
-            target.getPosition,
-            target.getColorRGB,
-            target.getHealth,
-            0,
-            flags
+            projectileManager.ownerId(slot),
+            projectileManager.x(slot), projectileManager.y(slot),
+            projectileManager.colorRGB(slot),
+            projectileManager.id(slot),
+            projectileManager.dx(slot), projectileManager.dy(slot),
+            ProjectileAction.DESPAWN,
+            null,
+            projectileManager.chargeLevel(slot).toByte,
+            projectileManager.projectileType(slot)
           )
-          broadcastBuffered(updatePacket)
-        }
+          broadcastBuffered(despawnPacket)
+
+          // Determine blast parameters from ProjectileDef
+          val pDef = ProjectileDef.get(projectileManager.projectileType(slot))
+          val explosion = pDef.explosionConfig.getOrElse(ExplosionConfig(40, 10, 3.0f))
+          val (centerDmg, edgeDmg, blastRadius) = (explosion.centerDamage, explosion.edgeDamage, explosion.blastRadius)
+
+          // Find all players in blast radius (skip if explosion deals no damage, e.g. visual-only snare mine)
+          val explosionX = projectileManager.x(slot)
+          val explosionY = projectileManager.y(slot)
+          if (centerDmg > 0 || edgeDmg > 0)
+          projectileManager.forEachNearbyPlayer(explosionX, explosionY, blastRadius) { player =>
+            if (!player.isDead && !player.hasShield && !player.isPhased && !player.getId.equals(projectileManager.ownerId(slot)) && !isTeammate(projectileManager.ownerId(slot), player.getId)) {
+              val pos = player.getPosition
+              val pdx = explosionX - (pos.getX + 0.5f)
+              val pdy = explosionY - (pos.getY + 0.5f)
+              val distance = math.sqrt(pdx * pdx + pdy * pdy).toFloat
+              if (distance <= blastRadius) {
+                val damage = (centerDmg - (distance / blastRadius) * (centerDmg - edgeDmg)).toInt
+                val newHealth = {
+                  val h = player.getHealth - damage
+                  player.setHealth(h)
+                  h
+                }
+                if (newHealth <= 0 && !killedThisTick.contains(player.getId)) {
+                  // Kill
+                  killedThisTick.add(player.getId)
+                  killTracker.recordKill(projectileManager.ownerId(slot), player.getId)
+                  val killPacket = new GameEventPacket(
+                    server.getNextSequenceNumber,
+                    projectileManager.ownerId(slot),
+                    GameEvent.KILL,
+                    gameId,
+                    getRemainingSeconds,
+                    killTracker.getKills(projectileManager.ownerId(slot)).toShort,
+                    killTracker.getDeaths(projectileManager.ownerId(slot)).toShort,
+                    player.getId,
+                    0.toByte, 0.toShort, 0.toShort
+                  )
+                  broadcastBuffered(killPacket)
+                  scheduleRespawn(player.getId)
+                } else {
+                  // Hit packet
+                  val hitPacket = new ProjectilePacket(
+                    server.getNextSequenceNumber,
+                    projectileManager.ownerId(slot),
+                    projectileManager.x(slot), projectileManager.y(slot),
+                    projectileManager.colorRGB(slot),
+                    projectileManager.id(slot),
+                    projectileManager.dx(slot), projectileManager.dy(slot),
+                    ProjectileAction.HIT,
+                    player.getId,
+                    projectileManager.chargeLevel(slot).toByte,
+                    projectileManager.projectileType(slot)
+                  )
+                  broadcastBuffered(hitPacket)
+                  notifyAbilityHitForOwner(slot)
+                }
 
-      case ProjectileAoE(projectile) =>
-        // Broadcast despawn (client renders explosion for GRENADE/ROCKET)
-        val despawnPacket = new ProjectilePacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          projectile.getX, projectile.getY,
-          projectile.colorRGB,
-          projectile.id,
-          projectile.dx, projectile.dy,
-          ProjectileAction.DESPAWN,
-          null,
-          projectile.chargeLevel.toByte,
-          projectile.projectileType
-        )
-        broadcastBuffered(despawnPacket)
-
-        // Determine blast parameters from ProjectileDef
-        val pDef = ProjectileDef.get(projectile.projectileType)
-        val explosion = pDef.explosionConfig.getOrElse(ExplosionConfig(40, 10, 3.0f))
-        val (centerDmg, edgeDmg, blastRadius) = (explosion.centerDamage, explosion.edgeDamage, explosion.blastRadius)
-
-        // Find all players in blast radius (skip if explosion deals no damage, e.g. visual-only snare mine)
-        val explosionX = projectile.getX
-        val explosionY = projectile.getY
-        if (centerDmg > 0 || edgeDmg > 0)
-        projectileManager.forEachNearbyPlayer(explosionX, explosionY, blastRadius) { player =>
-          if (!player.isDead && !player.hasShield && !player.isPhased && !player.getId.equals(projectile.ownerId) && !isTeammate(projectile.ownerId, player.getId)) {
-            val pos = player.getPosition
-            val pdx = explosionX - (pos.getX + 0.5f)
-            val pdy = explosionY - (pos.getY + 0.5f)
-            val distance = math.sqrt(pdx * pdx + pdy * pdy).toFloat
-            if (distance <= blastRadius) {
-              val damage = (centerDmg - (distance / blastRadius) * (centerDmg - edgeDmg)).toInt
-              val newHealth = player.synchronized {
-                val h = player.getHealth - damage
-                player.setHealth(h)
-                h
-              }
-              if (newHealth <= 0 && !killedThisTick.contains(player.getId)) {
-                // Kill
-                killedThisTick.add(player.getId)
-                killTracker.recordKill(projectile.ownerId, player.getId)
-                val killPacket = new GameEventPacket(
+                // Broadcast player health update (use newHealth captured at damage time)
+                val updatePacket = new PlayerUpdatePacket(
                   server.getNextSequenceNumber,
-                  projectile.ownerId,
-                  GameEvent.KILL,
-                  gameId,
-                  getRemainingSeconds,
-                  killTracker.getKills(projectile.ownerId).toShort,
-                  killTracker.getDeaths(projectile.ownerId).toShort,
                   player.getId,
-                  0.toByte, 0.toShort, 0.toShort
-                )
-                broadcastBuffered(killPacket)
-                scheduleRespawn(player.getId)
-              } else {
-                // Hit packet
-                val hitPacket = new ProjectilePacket(
-                  server.getNextSequenceNumber,
-                  projectile.ownerId,
-                  projectile.getX, projectile.getY,
-                  projectile.colorRGB,
-                  projectile.id,
-                  projectile.dx, projectile.dy,
-                  ProjectileAction.HIT,
-                  player.getId,
-                  projectile.chargeLevel.toByte,
-                  projectile.projectileType
+                  player.getPosition,
+                  player.getColorRGB,
+                  newHealth,
+                  0,
+                  playerFlags(player)
                 )
-                broadcastBuffered(hitPacket)
-                notifyAbilityHitForOwner(projectile)
+                broadcastBuffered(updatePacket)
               }
-
-              // Broadcast player health update (use newHealth captured inside synchronized block
-              // to avoid race with concurrent health changes like burn DoT)
-              val updatePacket = new PlayerUpdatePacket(
-                server.getNextSequenceNumber,
-                player.getId,
-                player.getPosition,
-                player.getColorRGB,
-                newHealth,
-                0,
-                playerFlags(player)
-              )
-              broadcastBuffered(updatePacket)
             }
           }
-        }
 
-      case ProjectileAoEHit(projectile, targetId) =>
-        Metrics.projectilesHit.add(1L, Attrs.projectileType(projectile.projectileType))
-        val hitPacket = new ProjectilePacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          projectile.getX, projectile.getY,
-          projectile.colorRGB,
-          projectile.id,
-          projectile.dx, projectile.dy,
-          ProjectileAction.HIT,
-          targetId,
-          projectile.chargeLevel.toByte,
-          projectile.projectileType
-        )
-        broadcastBuffered(hitPacket)
-        notifyAbilityHitForOwner(projectile)
-
-        val aoeTarget = registry.get(targetId)
-        if (aoeTarget != null) {
-          // Apply simple on-hit effects to surviving explosion victims
-          val pDef = ProjectileDef.get(projectile.projectileType)
-          pDef.onHitEffect.foreach {
-            case Freeze(durationMs) => aoeTarget.tryFreeze(durationMs)
-            case Root(durationMs) => aoeTarget.tryRoot(durationMs)
-            case Slow(durationMs, multiplier) => aoeTarget.trySlow(durationMs, multiplier)
-            case Burn(totalDamage, durationMs, tickMs) => aoeTarget.applyBurn(totalDamage, durationMs, tickMs, projectile.ownerId)
-            case _ => // Skip positional effects for AoE explosion
-          }
-          val updatePacket = new PlayerUpdatePacket(
+        case ProjectileManager.EVENT_AOE_HIT =>
+          Metrics.projectilesHit.add(1L, Attrs.projectileType(projectileManager.projectileType(slot)))
+          val hitPacket = new ProjectilePacket(
             server.getNextSequenceNumber,
+            projectileManager.ownerId(slot),
+            projectileManager.x(slot), projectileManager.y(slot),
+            projectileManager.colorRGB(slot),
+            projectileManager.id(slot),
+            projectileManager.dx(slot), projectileManager.dy(slot),
+            ProjectileAction.HIT,
             targetId,
-            aoeTarget.getPosition,
-            aoeTarget.getColorRGB,
-            aoeTarget.getHealth,
-            0,
-            playerFlags(aoeTarget)
+            projectileManager.chargeLevel(slot).toByte,
+            projectileManager.projectileType(slot)
           )
-          broadcastBuffered(updatePacket)
-        }
-
-      case ProjectileAoEKill(projectile, targetId) =>
-        Metrics.projectilesHit.add(1L, Attrs.projectileType(projectile.projectileType))
-        // Guard: skip if target was already killed this tick
-        if (!killedThisTick.contains(targetId)) {
-        val aoeKiller = registry.get(projectile.ownerId)
-        val aoeVictim = registry.get(targetId)
-        Metrics.kills.add(1L, Attrs.killCombo(
-          if (aoeKiller != null) aoeKiller.getCharacterId else 0,
-          if (aoeVictim != null) aoeVictim.getCharacterId else 0,
-          projectile.projectileType
-        ))
-        Metrics.deaths.add(1L, Attrs.CauseAoe)
-        val hitPacket = new ProjectilePacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          projectile.getX, projectile.getY,
-          projectile.colorRGB,
-          projectile.id,
-          projectile.dx, projectile.dy,
-          ProjectileAction.HIT,
-          targetId,
-          projectile.chargeLevel.toByte,
-          projectile.projectileType
-        )
-        broadcastBuffered(hitPacket)
-        notifyAbilityHitForOwner(projectile)
+          broadcastBuffered(hitPacket)
+          notifyAbilityHitForOwner(slot)
+
+          val aoeTarget = registry.get(targetId)
+          if (aoeTarget != null) {
+            // Apply simple on-hit effects to surviving explosion victims
+            val pDef = ProjectileDef.get(projectileManager.projectileType(slot))
+            pDef.onHitEffect.foreach {
+              case Freeze(durationMs) => aoeTarget.tryFreeze(durationMs)
+              case Root(durationMs) => aoeTarget.tryRoot(durationMs)
+              case Slow(durationMs, multiplier) => aoeTarget.trySlow(durationMs, multiplier)
+              case Burn(totalDamage, durationMs, tickMs) => aoeTarget.applyBurn(totalDamage, durationMs, tickMs, projectileManager.ownerId(slot))
+              case _ => // Skip positional effects for AoE explosion
+            }
+            val updatePacket = new PlayerUpdatePacket(
+              server.getNextSequenceNumber,
+              targetId,
+              aoeTarget.getPosition,
+              aoeTarget.getColorRGB,
+              aoeTarget.getHealth,
+              0,
+              playerFlags(aoeTarget)
+            )
+            broadcastBuffered(updatePacket)
+          }
 
-        val aoeKillTarget = registry.get(targetId)
-        if (aoeKillTarget != null) {
-          val updatePacket = new PlayerUpdatePacket(
+        case ProjectileManager.EVENT_AOE_KILL =>
+          Metrics.projectilesHit.add(1L, Attrs.projectileType(projectileManager.projectileType(slot)))
+          // Guard: skip if target was already killed this tick
+          if (!killedThisTick.contains(targetId)) {
+          val aoeKiller = registry.get(projectileManager.ownerId(slot))
+          val aoeVictim = registry.get(targetId)
+          Metrics.kills.add(1L, Attrs.killCombo(
+            if (aoeKiller != null) aoeKiller.getCharacterId else 0,
+            if (aoeVictim != null) aoeVictim.getCharacterId else 0,
+            projectileManager.projectileType(slot)
+          ))
+          Metrics.deaths.add(1L, Attrs.CauseAoe)
+          val hitPacket = new ProjectilePacket(
             server.getNextSequenceNumber,
+            projectileManager.ownerId(slot),
+            projectileManager.x(slot), projectileManager.y(slot),
+            projectileManager.colorRGB(slot),
+            projectileManager.id(slot),
+            projectileManager.dx(slot), projectileManager.dy(slot),
+            ProjectileAction.HIT,
             targetId,
-            aoeKillTarget.getPosition,
-            aoeKillTarget.getColorRGB,
-            aoeKillTarget.getHealth,
-            0,
-            playerFlags(aoeKillTarget)
+            projectileManager.chargeLevel(slot).toByte,
+            projectileManager.projectileType(slot)
           )
-          broadcastBuffered(updatePacket)
-        }
+          broadcastBuffered(hitPacket)
+          notifyAbilityHitForOwner(slot)
+
+          val aoeKillTarget = registry.get(targetId)
+          if (aoeKillTarget != null) {
+            val updatePacket = new PlayerUpdatePacket(
+              server.getNextSequenceNumber,
+              targetId,
+              aoeKillTarget.getPosition,
+              aoeKillTarget.getColorRGB,
+              aoeKillTarget.getHealth,
+              0,
+              playerFlags(aoeKillTarget)
+            )
+            broadcastBuffered(updatePacket)
+          }
 
-        killedThisTick.add(targetId)
-        killTracker.recordKill(projectile.ownerId, targetId)
+          killedThisTick.add(targetId)
+          killTracker.recordKill(projectileManager.ownerId(slot), targetId)
 
-        val aoeKillPacket = new GameEventPacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          GameEvent.KILL,
-          gameId,
-          getRemainingSeconds,
-          killTracker.getKills(projectile.ownerId).toShort,
-          killTracker.getDeaths(projectile.ownerId).toShort,
-          targetId,
-          0.toByte, 0.toShort, 0.toShort
-        )
-        broadcastBuffered(aoeKillPacket)
+          val aoeKillPacket = new GameEventPacket(
+            server.getNextSequenceNumber,
+            projectileManager.ownerId(slot),
+            GameEvent.KILL,
+            gameId,
+            getRemainingSeconds,
+            killTracker.getKills(projectileManager.ownerId(slot)).toShort,
+            killTracker.getDeaths(projectileManager.ownerId(slot)).toShort,
+            targetId,
+            0.toByte, 0.toShort, 0.toShort
+          )
+          broadcastBuffered(aoeKillPacket)
 
-        scheduleRespawn(targetId)
-        }
+          scheduleRespawn(targetId)
+          }
 
-      case ProjectileDespawned(projectile) =>
-        val packet = new ProjectilePacket(
-          server.getNextSequenceNumber,
-          projectile.ownerId,
-          projectile.getX, projectile.getY,
-          projectile.colorRGB,
-          projectile.id,
-          projectile.dx, projectile.dy,
-          ProjectileAction.DESPAWN,
-          null,
-          projectile.chargeLevel.toByte,
-          projectile.projectileType
-        )
-        broadcastBuffered(packet)
-        Metrics.projectilesExpired.add(1L, Attrs.projectileType(projectile.projectileType))
+        case ProjectileManager.EVENT_DESPAWNED =>
+          val packet = new ProjectilePacket(
+            server.getNextSequenceNumber,
+            projectileManager.ownerId(slot),
+            projectileManager.x(slot), projectileManager.y(slot),
+            projectileManager.colorRGB(slot),
+            projectileManager.id(slot),
+            projectileManager.dx(slot), projectileManager.dy(slot),
+            ProjectileAction.DESPAWN,
+            null,
+            projectileManager.chargeLevel(slot).toByte,
+            projectileManager.projectileType(slot)
+          )
+          broadcastBuffered(packet)
+          Metrics.projectilesExpired.add(1L, Attrs.projectileType(projectileManager.projectileType(slot)))
+      }
+      e += 1
     }
+    // Every event is handled: ended projectiles' slots can be reused
+    projectileManager.releaseRetired()
     // Flush all buffered writes at end of tick
     flushAllInstancePlayers()
     Metrics.tickDuration.record((System.nanoTime() - tickStart) / 1e6, projectileTickAttrs)
   }
 
   /** Mirror client-side on-hit ability cooldown reduction so server fire-rate validation stays in sync. */
-  private def notifyAbilityHitForOwner(projectile: Projectile): Unit = {
-    val owner = registry.get(projectile.ownerId)
+  private def notifyAbilityHitForOwner(slot: Int): Unit = {
+    val owner = registry.get(projectileManager.ownerId(slot))
     if (owner != null) {
-      handler.notifyAbilityHit(projectile.ownerId, projectile.projectileType, owner.getCharacterId)
+      handler.notifyAbilityHit(projectileManager.ownerId(slot), projectileManager.projectileType(slot), owner.getCharacterId)
     }
   }
 
-  private def playerFlags(p: Player): Int =
+  private[server] def playerFlags(p: Player): Int =
     (if (p.hasShield) 0x01 else 0) |
     (if (p.hasGemBoost) 0x02 else 0) |
     (if (p.isFrozen) 0x04 else 0) |
@@ -701,8 +798,7 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
     registry.forEachPlayer { player =>
       if (!player.isDead) {
         // --- Burn DoT ---
-        // All burn state reads inside synchronized to prevent double-tick race
-        val burnResult = player.synchronized {
+        val burnResult = {
           if (player.isBurning && now >= player.getLastBurnTick + player.getBurnTickMs) {
             player.setLastBurnTick(now)
             val h = player.getHealth - player.getBurnDamagePerTick
@@ -742,17 +838,19 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
             }
           }
 
-          // Broadcast updated health
-          val updatePacket = new PlayerUpdatePacket(
-            server.getNextSequenceNumber,
-            player.getId,
-            player.getPosition,
-            player.getColorRGB,
-            player.getHealth,
-            0,
-            playerFlags(player)
-          )
-          broadcastToInstance(updatePacket)
+          // Broadcast updated health (with snapshots on, it rides the next snapshot instead)
+          if (!Constants.PLAYER_SNAPSHOTS_ENABLED) {
+            val updatePacket = new PlayerUpdatePacket(
+              server.getNextSequenceNumber,
+              player.getId,
+              player.getPosition,
+              player.getColorRGB,
+              player.getHealth,
+              0,
+              playerFlags(player)
+            )
+            broadcastToInstance(updatePacket)
+          }
         } else if (player.getHealth < player.getMaxHealth) {
           // --- Health Regen (only when not burning and not at full health) ---
           val maxHp = player.getMaxHealth
@@ -761,14 +859,14 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
           val accum = player.getRegenAccumulator
           if (accum >= 1.0) {
             val healAmount = accum.toInt
-            val healed = player.synchronized {
+            val healed = {
               val oldHealth = player.getHealth
               val newHealth = Math.min(maxHp, oldHealth + healAmount)
               player.setHealth(newHealth)
               newHealth != oldHealth
             }
             player.subtractRegenAccumulator(healAmount.toDouble)
-            if (healed) {
+            if (healed && !Constants.PLAYER_SNAPSHOTS_ENABLED) {
               val updatePacket = new PlayerUpdatePacket(
                 server.getNextSequenceNumber,
                 player.getId,
@@ -791,67 +889,76 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
   }
 
   private def scheduleRespawn(playerId: UUID): Unit = {
-    if (respawnExecutor == null || respawnExecutor.isShutdown) return
-    respawnExecutor.schedule(new Runnable {
-      def run(): Unit = {
-        if (!running) return
-        val player = registry.get(playerId)
-        if (player != null) {
-          val spawnPoint = spawnLock.synchronized {
-            player.setHealth(player.getMaxHealth)
-            player.setDirection(Direction.Down)
-            player.clearBurn()
-            player.clearSlow()
-            player.setRootedUntil(0)
-            player.setFrozenUntil(0)
-            player.setSpeedBoostUntil(0)
-            player.resetRegenAccumulator()
-            // Clear inventory on respawn
-            itemManager.clearInventory(playerId)
-            val occupied = {
-              val set = scala.collection.mutable.HashSet[(Int, Int)]()
-              registry.forEachPlayer { p =>
-                if (!p.isDead && !p.getId.equals(playerId)) {
-                  set += ((p.getPosition.getX, p.getPosition.getY))
-                }
-              }
-              set.toSet
-            }
-            val sp = world.getValidSpawnPoint(occupied)
-            player.setPosition(sp)
-            sp
-          }
+    if (!running) return
+    val delay = if (isPractice) 1000L else Constants.RESPAWN_DELAY_MS.toLong
+    pendingRespawns.add((System.currentTimeMillis() + delay, playerId))
+  }
 
-          Metrics.respawns.add(1L, io.opentelemetry.api.common.Attributes.empty())
-          // Send respawn event
-          val respawnPacket = new GameEventPacket(
-            server.getNextSequenceNumber,
-            playerId,
-            GameEvent.RESPAWN,
-            gameId,
-            getRemainingSeconds,
-            killTracker.getKills(playerId).toShort,
-            killTracker.getDeaths(playerId).toShort,
-            null,
-            0.toByte,
-            spawnPoint.getX.toShort,
-            spawnPoint.getY.toShort
-          )
-          broadcastToInstance(respawnPacket)
+  private def processRespawns(now: Long): Unit = {
+    var next = pendingRespawns.peek()
+    while (next != null && next._1 <= now && running) {
+      pendingRespawns.poll()
+      respawnPlayer(next._2)
+      next = pendingRespawns.peek()
+    }
+  }
 
-          // Broadcast updated player state
-          val updatePacket = new PlayerUpdatePacket(
-            server.getNextSequenceNumber,
-            playerId,
-            spawnPoint,
-            player.getColorRGB,
-            player.getHealth,
-            0, 0
-          )
-          broadcastToInstance(updatePacket)
+  private def respawnPlayer(playerId: UUID): Unit = {
+    val player = registry.get(playerId)
+    if (player != null) {
+      val spawnPoint = spawnLock.synchronized {
+        player.setHealth(player.getMaxHealth)
+        player.setDirection(Direction.Down)
+        player.clearBurn()
+        player.clearSlow()
+        player.setRootedUntil(0)
+        player.setFrozenUntil(0)
+        player.setSpeedBoostUntil(0)
+        player.resetRegenAccumulator()
+        // Clear inventory on respawn
+        itemManager.clearInventory(playerId)
+        val occupied = {
+          val set = scala.collection.mutable.HashSet[(Int, Int)]()
+          registry.forEachPlayer { p =>
+            if (!p.isDead && !p.getId.equals(playerId)) {
+              set += ((p.getPosition.getX, p.getPosition.getY))
+            }
+          }
+          set.toSet
         }
+        val sp = world.getValidSpawnPoint(occupied)
+        player.setPosition(sp)
+        sp
       }
-    }, (if (isPractice) 1000L else Constants.RESPAWN_DELAY_MS.toLong), TimeUnit.MILLISECONDS)
+
+      Metrics.respawns.add(1L, io.opentelemetry.api.common.Attributes.empty())
+      // Send respawn event
+      val respawnPacket = new GameEventPacket(
+        server.getNextSequenceNumber,
+        playerId,
+        GameEvent.RESPAWN,
+        gameId,
+        getRemainingSeconds,
+        killTracker.getKills(playerId).toShort,
+        killTracker.getDeaths(playerId).toShort,
+        null,
+        0.toByte,
+        spawnPoint.getX.toShort,
+        spawnPoint.getY.toShort
+      )
+      broadcastToInstance(respawnPacket)
+
+      // Broadcast updated player state
+      val updatePacket = new PlayerUpdatePacket(
+        server.getNextSequenceNumber,
+        playerId,
+        spawnPoint,
+        player.getColorRGB,
+        player.getHealth,
+        0, 0
+      )
+      broadcastToInstance(updatePacket)
+    }
   }
 
   private def spawnItemBatch(count: Int): Unit = {
@@ -905,7 +1012,7 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
   }
 
   def broadcastToInstanceExcluding(packet: Packet, excludePlayerId: UUID): Unit = {
-    val data = packet.serialize()
+    val data = encode(packet)
     val isTcp = packet.getType.tcp
     registry.forEachPlayer { player =>
       if (excludePlayerId == null || !player.getId.equals(excludePlayerId)) {
@@ -918,9 +1025,137 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
     }
   }
 
+  /**
+   * Iterate players whose area of interest (viewport plus AOI_MARGIN_CELLS) covers (x, y).
+   * Everyone when AOI is disabled. Positions come from the last projectile-tick grid rebuild.
+   */
+  def forEachViewer(x: Float, y: Float)(fn: Player => Unit): Unit = {
+    if (Constants.AOI_ENABLED) projectileManager.forEachViewer(x, y)(fn)
+    else registry.forEachPlayer(fn)
+  }
+
+  /** Broadcast position-type traffic (e.g. bot movement) only to players that can see (x, y). */
+  def broadcastNear(packet: Packet, x: Float, y: Float): Unit = {
+    val data = encode(packet)
+    val isTcp = packet.getType.tcp
+    forEachViewer(x, y) { player =>
+      try {
+        server.sendRawToPlayer(data, isTcp, player)
+      } catch {
+        case _: Exception =>
+      }
+    }
+  }
+
+  private def broadcastBufferedNear(packet: Packet, x: Float, y: Float): Unit = {
+    val data = encode(packet)
+    val isTcp = packet.getType.tcp
+    forEachViewer(x, y) { player =>
+      try {
+        server.sendRawToPlayerBuffered(data, isTcp, player)
+      } catch {
+        case _: Exception =>
+      }
+    }
+  }
+
+  /**
+   * Enter sync for area of interest. Players that came into a viewer's range since the last pass
+   * get a full state snapshot, since position updates are only sent on change and to viewers
+   * in range at the time. Players that leave range are simply no longer updated; they are
+   * beyond the viewer's viewport, so the stale copy is never on screen.
+   */
+  private def syncInterest(): Unit = {
+    var sent = false
+    registry.forEachPlayer { viewer =>
+      val viewerId = viewer.getId
+      val previous = interestSets.get(viewerId)
+      val current = new java.util.HashSet[UUID]()
+      val vpos = viewer.getPosition
+      projectileManager.forEachViewer(vpos.getX.toFloat, vpos.getY.toFloat) { other =>
+        val otherId = other.getId
+        if (!otherId.equals(viewerId)) {
+          current.add(otherId)
+          if (previous == null || !previous.contains(otherId)) {
+            val snapshot = new PlayerUpdatePacket(
+              server.getNextSequenceNumber,
+              otherId,
+              other.getPosition,
+              other.getColorRGB,
+              other.getHealth,
+              0,
+              playerFlags(other),
+              other.getCharacterId,
+              other.getTeamId
+            )
+            try {
+              server.sendRawToPlayerBuffered(snapshot.serialize(), snapshot.getType.tcp, viewer)
+              sent = true
+            } catch {
+              case _: Exception =>
+            }
+          }
+        }
+      }
+      interestSets.put(viewerId, current)
+    }
+    // Drop sets for players that left the instance
+    interestSets.keySet().removeIf(id => !registry.contains(id))
+    if (sent) flushAllInstancePlayers()
+  }
+
+  /** Serialize for instance players, naming players by entity handle where the layout supports it. */
+  private def encode(packet: Packet): Array[Byte] = packet match {
+    case p: ProjectilePacket if Constants.ENTITY_HANDLES_ENABLED =>
+      val owner = registry.handles.handleOf(p.getPlayerId)
+      if (owner == EntityHandles.NONE) p.serialize()
+      else p.serializeWithHandles(owner, registry.handles.handleOf(p.getTargetId))
+    case _ => packet.serialize()
+  }
+
+  /**
+   * Send each player the handle bindings it hasn't seen yet over TCP, so handle-addressed UDP
+   * traffic can be resolved. Runs right after inputs so joins from this tick are announced
+   * before any packet that uses their handle.
+   */
+  private def announceHandles(): Unit = {
+    val highest = registry.handles.highestHandle
+    var sent = false
+    registry.forEachPlayer { viewer =>
+      if (viewer.getTcpChannel != null) {
+        val announced = handlesAnnounced.get(viewer.getId)
+        var h = if (announced != null) announced.intValue() + 1 else 1
+        if (h <= highest) {
+          while (h <= highest) {
+            val id = registry.handles.resolve(h)
+            if (id != null) {
+              val packet = new GameEventPacket(server.getNextSequenceNumber, id, Packet.getCurrentTimestamp,
+                GameEvent.HANDLE_ASSIGN, gameId = gameId, handle = h.toShort)
+              try {
+                server.sendRawToPlayerBuffered(packet.serialize(), true, viewer)
+              } catch {
+                case _: Exception =>
+              }
+            }
+            h += 1
+          }
+          handlesAnnounced.put(viewer.getId, Integer.valueOf(highest))
+          sent = true
+        }
+      }
+    }
+    handlesAnnounced.keySet().removeIf(id => !registry.contains(id))
+    if (sent) registry.forEachPlayer(p => try server.flushPlayer(p) catch { case _: Exception => })
+  }
+
+  /** Re-send every handle binding to a player, e.g. after it reconnected with a fresh client state. */
+  private[server] def resendHandles(playerId: UUID): Unit = {
+    handlesAnnounced.remove(playerId)
+  }
+
   /** Buffered broadcast: write without flushing. Call flushAllInstancePlayers() after the batch. */
   private def broadcastBuffered(packet: Packet): Unit = {
-    val data = packet.serialize()
+    val data = encode(packet)
     val isTcp = packet.getType.tcp
     registry.forEachPlayer { player =>
       try {
@@ -934,30 +1169,41 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
   /** Flush all channels after a batch of buffered broadcasts. */
   private def flushAllInstancePlayers(): Unit = {
     registry.forEachPlayer { player =>
-      try { server.flushPlayer(player) } catch { case _: Exception => }
+      try {
+        server.flushPlayer(player)
+        server.flushUdpBundle(player)
+      } catch { case _: Exception => }
     }
     server.flushUdpChannel()
   }
 
-  def broadcastProjectileSpawn(projectile: Projectile): Unit = {
-    val packet = new ProjectilePacket(
+  def broadcastProjectileSpawn(slot: Int): Unit = {
+    broadcastToInstance(projectileSpawnPacket(slot))
+    Metrics.projectilesSpawned.add(1L, Attrs.projectileType(projectileManager.projectileType(slot)))
+  }
+
+  private def projectileSpawnPacket(slot: Int): ProjectilePacket = {
+    new ProjectilePacket(
       server.getNextSequenceNumber,
-      projectile.ownerId,
-      projectile.getX, projectile.getY,
-      projectile.colorRGB,
-      projectile.id,
-      projectile.dx, projectile.dy,
+      projectileManager.ownerId(slot),
+      projectileManager.x(slot), projectileManager.y(slot),
+      projectileManager.colorRGB(slot),
+      projectileManager.id(slot),
+      projectileManager.dx(slot), projectileManager.dy(slot),
       ProjectileAction.SPAWN,
       null,
-      projectile.chargeLevel.toByte,
-      projectile.projectileType
+      projectileManager.chargeLevel(slot).toByte,
+      projectileManager.projectileType(slot)
     )
-    broadcastToInstance(packet)
-    Metrics.projectilesSpawned.add(1L, Attrs.projectileType(projectile.projectileType))
   }
 
   def broadcastItemPickup(item: Item, playerId: UUID): Unit = {
-    val packet = new ItemPacket(
+    broadcastToInstance(itemPickupPacket(item, playerId))
+    Metrics.itemsPickedUp.add(1L, Attrs.itemTypeAttrs(item.itemType.id))
+  }
+
+  private def itemPickupPacket(item: Item, playerId: UUID): ItemPacket = {
+    new ItemPacket(
       server.getNextSequenceNumber,
       playerId,
       item.x, item.y,
@@ -965,12 +1211,35 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
       item.id,
       ItemAction.PICKUP
     )
-    broadcastToInstance(packet)
+  }
+
+  // --- Bot actions: buffered on the tick thread, flushed once when the bot phase ends ---
+
+  /** Buffered broadcast of a bot action to the whole instance. Tick thread only. */
+  private[server] def queueBroadcast(packet: Packet): Unit = {
+    broadcastBuffered(packet)
+    botSendsQueued = true
+  }
+
+  /** Buffered position-type traffic for a bot, only to players that can see (x, y). Tick thread only. */
+  private[server] def queueBroadcastNear(packet: Packet, x: Float, y: Float): Unit = {
+    broadcastBufferedNear(packet, x, y)
+    botSendsQueued = true
+  }
+
+  private[server] def queueProjectileSpawn(slot: Int): Unit = {
+    queueBroadcast(projectileSpawnPacket(slot))
+    Metrics.projectilesSpawned.add(1L, Attrs.projectileType(projectileManager.projectileType(slot)))
+  }
+
+  private[server] def queueItemPickup(item: Item, playerId: UUID): Unit = {
+    queueBroadcast(itemPickupPacket(item, playerId))
     Metrics.itemsPickedUp.add(1L, Attrs.itemTypeAttrs(item.itemType.id))
   }
 
   def broadcastTileUpdate(playerId: UUID, x: Int, y: Int, tileId: Int): Unit = {
-    modifiedTiles.put((x, y), tileId)
+    val bots = botController
+    if (bots != null) bots.tileChanged(x, y)
     val packet = new TileUpdatePacket(
       server.getNextSequenceNumber,
       playerId,
@@ -982,12 +1251,14 @@ class GameInstance(val gameId: Short, val worldFile: String, val durationMinutes
   }
 
   def sendModifiedTiles(player: Player): Unit = {
+    val w = world
+    if (w == null) return
     val zeroUUID = new UUID(0L, 0L)
-    modifiedTiles.forEach { (pos, tileId) =>
+    w.forEachOverride { (x, y, tileId) =>
       val packet = new TileUpdatePacket(
         server.getNextSequenceNumber,
         zeroUUID,
-        pos._1, pos._2,
+        x, y,
         tileId
       )
       server.sendPacketToPlayer(packet, player)
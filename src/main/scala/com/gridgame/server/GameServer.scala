@@ -4,7 +4,6 @@ import com.gridgame.common.Constants
 import com.gridgame.common.model.Direction
 import com.gridgame.common.model.Item
 import com.gridgame.common.model.Player
-import com.gridgame.common.model.Projectile
 import com.gridgame.common.model.WorldData
 import com.gridgame.common.observability.Attrs
 import com.gridgame.common.observability.Metrics
@@ -13,10 +12,17 @@ import com.gridgame.common.observability.Tracing
 import com.gridgame.common.protocol._
 import io.netty.bootstrap.Bootstrap
 import io.netty.bootstrap.ServerBootstrap
-import io.netty.buffer.Unpooled
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.ByteBufAllocator
 import io.netty.channel._
 import io.netty.channel.WriteBufferWaterMark
+import io.netty.channel.epoll.Epoll
+import io.netty.channel.epoll.EpollChannelOption
+import io.netty.channel.epoll.EpollDatagramChannel
+import io.netty.channel.epoll.EpollEventLoopGroup
+import io.netty.channel.epoll.EpollServerSocketChannel
 import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.DatagramChannel
 import io.netty.channel.socket.DatagramPacket
 import io.netty.channel.socket.SocketChannel
 import io.netty.channel.socket.nio.NioDatagramChannel
@@ -35,7 +41,7 @@ import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicInteger
 import scala.jdk.CollectionConverters._
 
-class GameServer(port: Int, val worldFile: String = "") {
+class GameServer(port: Int, val worldFile: String = "", nativeTransport: Boolean = Constants.NATIVE_TRANSPORT_ENABLED) {
   // Global state: all connected players regardless of lobby/game
   private val connectedPlayers = new ConcurrentHashMap[UUID, Player]()
   // Channel -> UUID mapping for disconnect handling
@@ -60,10 +66,22 @@ class GameServer(port: Int, val worldFile: String = "") {
 
   val packetValidator = new PacketValidator()
   val authDatabase = new AuthDatabase()
+  // Match results and ELO are persisted off the game-ending thread (replays any crash journal here)
+  val matchWriter = new MatchWriteBehind(authDatabase)
   val lobbyManager = new LobbyManager()
   val lobbyHandler = new LobbyHandler(this, lobbyManager)
   val rankedQueue = new RankedQueue(this)
   private val gameInstances = new ConcurrentHashMap[Short, GameInstance]()
+  // Sessions that negotiated bundled UDP (AuthCapability.UDP_BUNDLES) -> pending bundle
+  private val udpBundles = new ConcurrentHashMap[UUID, UdpBundle]()
+  // Shared tick engine for all game instances (replaces per-instance executors)
+  val tickScheduler = new TickScheduler()
+  // Per-map bot navigation grids, shared by every instance on the same map
+  val navigation = new NavigationService()
+  // Base worlds loaded once per map file and shared by its instances
+  val worlds = new WorldCache()
+  // bcrypt login/signup runs here instead of on the Netty event loops
+  private val authExecutor = new AuthExecutor()
 
   private val cleanupExecutor: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor()
   private val sequenceNumber = new AtomicInteger(0)
@@ -72,10 +90,14 @@ class GameServer(port: Int, val worldFile: String = "") {
   // Netty components
   private val sslCtx = TlsProvider.serverContext()
 
-  private var bossGroup: NioEventLoopGroup = _
-  private var workerGroup: NioEventLoopGroup = _
+  private var bossGroup: EventLoopGroup = _
+  private var workerGroup: EventLoopGroup = _
   private var tcpServerChannel: Channel = _
+  // Primary UDP socket; with native transport, udpChannels holds one SO_REUSEPORT socket per worker loop
   private var udpChannel: Channel = _
+  private var udpChannels: Array[Channel] = Array.empty
+  // Player -> the UDP socket their datagrams arrive on, so replies go out through the same socket and loop
+  private val udpOwners = new ConcurrentHashMap[UUID, Channel]()
 
   // Async gauges — read these atomically on each metric scrape
   private val meter = Telemetry.meter("com.gridgame.server")
@@ -107,22 +129,51 @@ class GameServer(port: Int, val worldFile: String = "") {
     .buildWithCallback { obs =>
       obs.record(sessionTokens.size().toLong, io.opentelemetry.api.common.Attributes.empty())
     }
+  private val authQueueDepthGauge = meter.gaugeBuilder("gridgame.auth.queue.depth")
+    .setDescription("Auth requests waiting for an auth worker")
+    .setUnit("{request}")
+    .ofLongs()
+    .buildWithCallback { obs =>
+      obs.record(authExecutor.queueDepth.toLong, io.opentelemetry.api.common.Attributes.empty())
+    }
+  private val matchWriteQueueGauge = meter.gaugeBuilder("gridgame.db.write_behind.queue.depth")
+    .setDescription("Finished matches waiting for the write-behind group commit")
+    .setUnit("{match}")
+    .ofLongs()
+    .buildWithCallback { obs =>
+      obs.record(matchWriter.queueDepth.toLong, io.opentelemetry.api.common.Attributes.empty())
+    }
+  private val authActiveGauge = meter.gaugeBuilder("gridgame.auth.active")
+    .setDescription("Auth requests currently being processed")
+    .setUnit("{request}")
+    .ofLongs()
+    .buildWithCallback { obs =>
+      obs.record(authExecutor.activeCount.toLong, io.opentelemetry.api.common.Attributes.empty())
+    }
 
   def start(): Unit = {
     running = true
 
     println(s"Game server starting on port $port (lobby mode)")
 
-    // Start Netty
-    bossGroup = new NioEventLoopGroup(1)
-    workerGroup = new NioEventLoopGroup()
+    // Start Netty: native epoll (Linux) when requested and available, NIO otherwise
+    val native = nativeTransport && Epoll.isAvailable
+    if (nativeTransport && !native) {
+      println(s"Native epoll transport unavailable (${Epoll.unavailabilityCause().getMessage}), using NIO")
+    }
+    bossGroup = if (native) new EpollEventLoopGroup(1) else new NioEventLoopGroup(1)
+    workerGroup = if (native) new EpollEventLoopGroup() else new NioEventLoopGroup()
+    val serverChannelClass: Class[_ <: ServerChannel] =
+      if (native) classOf[EpollServerSocketChannel] else classOf[NioServerSocketChannel]
+    val datagramChannelClass: Class[_ <: Channel] =
+      if (native) classOf[EpollDatagramChannel] else classOf[NioDatagramChannel]
 
     val server = this
 
     // TCP Server
     val tcpBootstrap = new ServerBootstrap()
     tcpBootstrap.group(bossGroup, workerGroup)
-      .channel(classOf[NioServerSocketChannel])
+      .channel(serverChannelClass)
       .childHandler(new ChannelInitializer[SocketChannel] {
         override def initChannel(ch: SocketChannel): Unit = {
           ch.pipeline()
@@ -140,16 +191,24 @@ class GameServer(port: Int, val worldFile: String = "") {
     tcpServerChannel = tcpBootstrap.bind(port).sync().channel()
     println(s"TCP server listening on port $port")
 
-    // UDP Server
+    // UDP Server. With native transport, bind one SO_REUSEPORT socket per loop so the kernel
+    // spreads client flows across worker threads instead of funnelling them through one loop.
     val udpBootstrap = new Bootstrap()
     udpBootstrap.group(workerGroup)
-      .channel(classOf[NioDatagramChannel])
+      .channel(datagramChannelClass)
       .option[java.lang.Integer](ChannelOption.SO_SNDBUF, 1024 * 1024)
       .option[java.lang.Integer](ChannelOption.SO_RCVBUF, 1024 * 1024)
-      .handler(new GameServerUdpHandler(server))
+      .handler(new ChannelInitializer[DatagramChannel] {
+        override def initChannel(ch: DatagramChannel): Unit = {
+          ch.pipeline().addLast(new GameServerUdpHandler(server))
+        }
+      })
+    if (native) udpBootstrap.option[java.lang.Boolean](EpollChannelOption.SO_REUSEPORT, true)
 
-    udpChannel = udpBootstrap.bind(port).sync().channel()
-    println(s"UDP server listening on port $port")
+    val udpSocketCount = if (native) Constants.UDP_REUSEPORT_SOCKETS else 1
+    udpChannels = Array.fill(udpSocketCount)(udpBootstrap.bind(port).sync().channel())
+    udpChannel = udpChannels(0)
+    println(s"UDP server listening on port $port (${if (native) s"epoll, $udpSocketCount SO_REUSEPORT sockets" else "nio"})")
 
     // Schedule cleanup
     cleanupExecutor.scheduleAtFixedRate(
@@ -181,21 +240,20 @@ class GameServer(port: Int, val worldFile: String = "") {
         val ch = raw.asInstanceOf[Channel]
         if (ch.isActive) {
           val payload = packet.serialize()
-          val data = if (token != null) PacketSigner.sign(payload, token) else padToPacketSize(payload)
-          ch.writeAndFlush(Unpooled.wrappedBuffer(data))
+          ch.writeAndFlush(encodeSigned(ch.alloc(), payload, token))
           Metrics.packetsSent.add(1L, pktAttrs)
-          Metrics.bandwidthBytes.add(data.length.toLong, Attrs.DirOut)
+          Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirOut)
         }
       }
     } else {
       val addr = player.getUdpAddress
       if (addr != null && udpChannel != null) {
+        val udp = udpChannelFor(player.getId)
         val payload = packet.serialize()
-        val data = if (token != null) PacketSigner.sign(payload, token) else padToPacketSize(payload)
-        val dgram = new DatagramPacket(Unpooled.wrappedBuffer(data), addr)
-        udpChannel.writeAndFlush(dgram)
+        val dgram = new DatagramPacket(encodeSigned(udp.alloc(), payload, token), addr)
+        udp.writeAndFlush(dgram)
         Metrics.packetsSent.add(1L, pktAttrs)
-        Metrics.bandwidthBytes.add(data.length.toLong, Attrs.DirOut)
+        Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirOut)
       }
     }
   }
@@ -205,10 +263,9 @@ class GameServer(port: Int, val worldFile: String = "") {
     if (channel != null && channel.isActive) {
       val payload = packet.serialize()
       val token = channelToToken.get(channel)
-      val data = if (token != null) PacketSigner.sign(payload, token) else padToPacketSize(payload)
-      channel.writeAndFlush(Unpooled.wrappedBuffer(data))
+      channel.writeAndFlush(encodeSigned(channel.alloc(), payload, token))
       Metrics.packetsSent.add(1L, Attrs.packet(packet.getType))
-      Metrics.bandwidthBytes.add(data.length.toLong, Attrs.DirOut)
+      Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirOut)
     }
   }
 
@@ -234,25 +291,25 @@ class GameServer(port: Int, val worldFile: String = "") {
   /** Send pre-serialized packet bytes to a player. Serialization is done once by the caller. */
   def sendRawToPlayer(data: Array[Byte], isTcp: Boolean, player: Player): Unit = {
     val token = sessionTokens.get(player.getId)
-    val signed = if (token != null) PacketSigner.sign(data, token) else padToPacketSize(data)
     val pktAttrs = rawSendAttrs(data, isTcp)
     if (isTcp) {
       val raw = player.getTcpChannel
       if (raw != null) {
         val ch = raw.asInstanceOf[Channel]
         if (ch.isActive) {
-          ch.writeAndFlush(Unpooled.wrappedBuffer(signed))
+          ch.writeAndFlush(encodeSigned(ch.alloc(), data, token))
           Metrics.packetsSent.add(1L, pktAttrs)
-          Metrics.bandwidthBytes.add(signed.length.toLong, Attrs.DirOut)
+          Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirOut)
         }
       }
     } else {
       val addr = player.getUdpAddress
       if (addr != null && udpChannel != null) {
-        val dgram = new DatagramPacket(Unpooled.wrappedBuffer(signed), addr)
-        udpChannel.writeAndFlush(dgram)
+        val udp = udpChannelFor(player.getId)
+        val dgram = new DatagramPacket(encodeSigned(udp.alloc(), data, token), addr)
+        udp.writeAndFlush(dgram)
         Metrics.packetsSent.add(1L, pktAttrs)
-        Metrics.bandwidthBytes.add(signed.length.toLong, Attrs.DirOut)
+        Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirOut)
       }
     }
   }
@@ -260,25 +317,36 @@ class GameServer(port: Int, val worldFile: String = "") {
   /** Buffered send: write without flushing. Call flushPlayer() or flushUdpChannel() after a batch. */
   def sendRawToPlayerBuffered(data: Array[Byte], isTcp: Boolean, player: Player): Unit = {
     val token = sessionTokens.get(player.getId)
-    val signed = if (token != null) PacketSigner.sign(data, token) else padToPacketSize(data)
+    if (!isTcp && token != null) {
+      val bundle = udpBundles.get(player.getId)
+      if (bundle != null) {
+        // Negotiated session: pack into this tick's bundle, signed once on seal
+        bundle.synchronized {
+          if (bundle.add(data)) sealUdpBundle(player, bundle, token)
+        }
+        Metrics.packetsSent.add(1L, rawSendAttrs(data, isTcp))
+        return
+      }
+    }
     val pktAttrs = rawSendAttrs(data, isTcp)
     if (isTcp) {
       val raw = player.getTcpChannel
       if (raw != null) {
         val ch = raw.asInstanceOf[Channel]
         if (ch.isActive) {
-          ch.write(Unpooled.wrappedBuffer(signed))
+          ch.write(encodeSigned(ch.alloc(), data, token))
           Metrics.packetsSent.add(1L, pktAttrs)
-          Metrics.bandwidthBytes.add(signed.length.toLong, Attrs.DirOut)
+          Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirOut)
         }
       }
     } else {
       val addr = player.getUdpAddress
       if (addr != null && udpChannel != null) {
-        val dgram = new DatagramPacket(Unpooled.wrappedBuffer(signed), addr)
-        udpChannel.write(dgram)
+        val udp = udpChannelFor(player.getId)
+        val dgram = new DatagramPacket(encodeSigned(udp.alloc(), data, token), addr)
+        udp.write(dgram)
         Metrics.packetsSent.add(1L, pktAttrs)
-        Metrics.bandwidthBytes.add(signed.length.toLong, Attrs.DirOut)
+        Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirOut)
       }
     }
   }
@@ -292,17 +360,69 @@ class GameServer(port: Int, val worldFile: String = "") {
     }
   }
 
-  /** Flush the server UDP channel after buffered writes. */
+  /** Sign and write a player's pending UDP bundle (if any). Call before flushUdpChannel(). */
+  def flushUdpBundle(player: Player): Unit = {
+    val bundle = udpBundles.get(player.getId)
+    if (bundle == null) return
+    val token = sessionTokens.get(player.getId)
+    bundle.synchronized {
+      if (token == null) bundle.reset()
+      else if (!bundle.isEmpty) sealUdpBundle(player, bundle, token)
+    }
+  }
+
+  // Caller holds the bundle's monitor
+  private def sealUdpBundle(player: Player, bundle: UdpBundle, token: Array[Byte]): Unit = {
+    val addr = player.getUdpAddress
+    if (addr != null && udpChannel != null) {
+      val udp = udpChannelFor(player.getId)
+      val len = bundle.size * Constants.PACKET_PAYLOAD_SIZE + Constants.HMAC_SIZE
+      val out = udp.alloc().directBuffer(len)
+      PacketSigner.signBundleInto(bundle.bytes, bundle.size, token, out.nioBuffer(0, len))
+      out.writerIndex(len)
+      udp.write(new DatagramPacket(out, addr))
+      Metrics.bandwidthBytes.add(len.toLong, Attrs.DirOut)
+    }
+    bundle.reset()
+  }
+
+  /** Flush the server UDP socket(s) after buffered writes. */
   def flushUdpChannel(): Unit = {
-    if (udpChannel != null) udpChannel.flush()
+    val channels = udpChannels
+    var i = 0
+    while (i < channels.length) {
+      channels(i).flush()
+      i += 1
+    }
   }
 
-  /** Pad a 64-byte payload to 80 bytes (for pre-auth packets without HMAC). */
-  private def padToPacketSize(payload: Array[Byte]): Array[Byte] = {
-    if (payload.length == Constants.PACKET_SIZE) return payload
-    val padded = new Array[Byte](Constants.PACKET_SIZE)
-    System.arraycopy(payload, 0, padded, 0, Math.min(payload.length, Constants.PACKET_PAYLOAD_SIZE))
-    padded
+  /** The UDP socket a player's datagrams arrive on (primary socket until their first one). */
+  private def udpChannelFor(playerId: UUID): Channel = {
+    val owner = udpOwners.get(playerId)
+    if (owner != null) owner else udpChannel
+  }
+
+  /** Record which SO_REUSEPORT socket the kernel hashed a player's flow to. */
+  private[server] def noteUdpOwner(playerId: UUID, channel: Channel): Unit = {
+    if (udpChannels.length > 1 && (udpOwners.get(playerId) ne channel)) udpOwners.put(playerId, channel)
+  }
+
+  /**
+   * Sign a 64-byte payload straight into a pooled direct buffer from alloc, or zero-pad it to
+   * 80 bytes for pre-auth packets without a token. The channel write releases the buffer.
+   */
+  private def encodeSigned(alloc: ByteBufAllocator, payload: Array[Byte], token: Array[Byte]): ByteBuf = {
+    val out = alloc.directBuffer(Constants.PACKET_SIZE)
+    if (token != null) {
+      PacketSigner.signInto(payload, token, out.nioBuffer(0, Constants.PACKET_SIZE))
+      out.writerIndex(Constants.PACKET_SIZE)
+    } else {
+      val len = if (payload.length == Constants.PACKET_SIZE) Constants.PACKET_SIZE
+        else Math.min(payload.length, Constants.PACKET_PAYLOAD_SIZE)
+      out.writeBytes(payload, 0, len)
+      out.writeZero(Constants.PACKET_SIZE - len)
+    }
+    out
   }
 
   def getNextSequenceNumber: Int = sequenceNumber.getAndIncrement() & 0x7FFFFFFF
@@ -328,7 +448,7 @@ class GameServer(port: Int, val worldFile: String = "") {
     // No-op in lobby mode; instance handles it
   }
 
-  def broadcastProjectileSpawn(projectile: Projectile): Unit = {
+  def broadcastProjectileSpawn(slot: Int): Unit = {
     // No-op in lobby mode; instance handles it
   }
 
@@ -398,89 +518,8 @@ class GameServer(port: Int, val worldFile: String = "") {
           val playerId = packet.getPlayerId
           val lobby = lobbyManager.getPlayerLobby(playerId)
           if (lobby != null && lobby.gameInstance != null && lobby.status == LobbyStatus.IN_GAME) {
-            val instance = lobby.gameInstance
-            val shouldBroadcast = instance.handler.processPacket(packet, tcpCh, udpSender)
-
-            if (shouldBroadcast) {
-              val packetToBroadcast = packet.getType match {
-                case PacketType.PLAYER_UPDATE =>
-                  val updatePacket = packet.asInstanceOf[PlayerUpdatePacket]
-                  val player = instance.registry.get(updatePacket.getPlayerId)
-                  if (player != null) {
-                    // Reject position updates from frozen players
-                    val pos = if (player.isFrozen) player.getPosition else updatePacket.getPosition
-
-                    // Handle phased flag from client — enforce server-side cooldown
-                    val clientFlags = updatePacket.getEffectFlags
-                    if ((clientFlags & 0x08) != 0 && !player.isPhased) {
-                      val charDef = com.gridgame.common.model.CharacterDef.get(player.getCharacterId)
-                      val now = System.currentTimeMillis()
-                      // Check which ability grants phase/dash and enforce its cooldown
-                      val (phaseDuration, cooldownMs) = charDef.qAbility.castBehavior match {
-                        case com.gridgame.common.model.PhaseShiftBuff(d) => (d, charDef.qAbility.cooldownMs)
-                        case com.gridgame.common.model.DashBuff(_, d, _) => (d, charDef.qAbility.cooldownMs)
-                        case _ => charDef.eAbility.castBehavior match {
-                          case com.gridgame.common.model.PhaseShiftBuff(d) => (d, charDef.eAbility.cooldownMs)
-                          case com.gridgame.common.model.DashBuff(_, d, _) => (d, charDef.eAbility.cooldownMs)
-                          case _ => (0, 0)
-                        }
-                      }
-                      if (phaseDuration > 0) {
-                        // Use 80% of cooldown as server tolerance (matches fire rate validation)
-                        val lastPhaseEnd = player.getPhasedUntil
-                        if (lastPhaseEnd == 0L || now >= lastPhaseEnd + (cooldownMs * 0.9).toLong) {
-                          player.setPhasedUntil(now + phaseDuration)
-                        }
-                      }
-                    }
-
-                    val flags = (if (player.hasShield) 0x01 else 0) |
-                                (if (player.hasGemBoost) 0x02 else 0) |
-                                (if (player.isFrozen) 0x04 else 0) |
-                                (if (player.isPhased) 0x08 else 0)
-                    new PlayerUpdatePacket(
-                      updatePacket.getSequenceNumber,
-                      updatePacket.getPlayerId,
-                      updatePacket.getTimestamp,
-                      pos,
-                      updatePacket.getColorRGB,
-                      player.getHealth,
-                      updatePacket.getChargeLevel,
-                      flags,
-                      player.getCharacterId,
-                      player.getTeamId
-                    )
-                  } else {
-                    packet
-                  }
-                case PacketType.PLAYER_JOIN =>
-                  val joinPacket = packet.asInstanceOf[PlayerJoinPacket]
-                  val player = instance.registry.get(joinPacket.getPlayerId)
-                  if (player != null) {
-                    new PlayerJoinPacket(
-                      joinPacket.getSequenceNumber,
-                      joinPacket.getPlayerId,
-                      joinPacket.getTimestamp,
-                      joinPacket.getPosition,
-                      joinPacket.getColorRGB,
-                      joinPacket.getPlayerName,
-                      player.getHealth,
-                      player.getCharacterId,
-                      player.getTeamId
-                    )
-                  } else {
-                    packet
-                  }
-                case _ => packet
-              }
-              // Broadcast to instance players only, excluding sender
-              val data = packetToBroadcast.serialize()
-              instance.registry.getAll.asScala.foreach { p =>
-                if (!p.getId.equals(packet.getPlayerId)) {
-                  sendRawToPlayer(data, packetToBroadcast.getType.tcp, p)
-                }
-              }
-            }
+            // Applied on the instance's tick thread (see dispatchInstancePacket)
+            lobby.gameInstance.enqueueInput(packet, tcpCh, udpSender)
           }
       }
     } catch {
@@ -493,6 +532,104 @@ class GameServer(port: Int, val worldFile: String = "") {
     }
   }
 
+  /**
+   * Apply a queued in-game packet to its instance and rebroadcast it if the handler accepted it.
+   * Called from GameInstance at the start of a tick, on the instance's TickScheduler worker.
+   */
+  private[server] def dispatchInstancePacket(instance: GameInstance, packet: Packet, tcpCh: Channel, udpSender: InetSocketAddress): Unit = {
+    val shouldBroadcast = instance.handler.processPacket(packet, tcpCh, udpSender)
+
+    if (shouldBroadcast) {
+      val packetToBroadcast = packet.getType match {
+        case PacketType.PLAYER_UPDATE =>
+          val updatePacket = packet.asInstanceOf[PlayerUpdatePacket]
+          val player = instance.registry.get(updatePacket.getPlayerId)
+          if (player != null) {
+            // Reject position updates from frozen players
+            val pos = if (player.isFrozen) player.getPosition else updatePacket.getPosition
+
+            // Handle phased flag from client — enforce server-side cooldown
+            val clientFlags = updatePacket.getEffectFlags
+            if ((clientFlags & 0x08) != 0 && !player.isPhased) {
+              val charDef = com.gridgame.common.model.CharacterDef.get(player.getCharacterId)
+              val now = System.currentTimeMillis()
+              // Check which ability grants phase/dash and enforce its cooldown
+              val (phaseDuration, cooldownMs) = charDef.qAbility.castBehavior match {
+                case com.gridgame.common.model.PhaseShiftBuff(d) => (d, charDef.qAbility.cooldownMs)
+                case com.gridgame.common.model.DashBuff(_, d, _) => (d, charDef.qAbility.cooldownMs)
+                case _ => charDef.eAbility.castBehavior match {
+                  case com.gridgame.common.model.PhaseShiftBuff(d) => (d, charDef.eAbility.cooldownMs)
+                  case com.gridgame.common.model.DashBuff(_, d, _) => (d, charDef.eAbility.cooldownMs)
+                  case _ => (0, 0)
+                }
+              }
+              if (phaseDuration > 0) {
+                // Use 80% of cooldown as server tolerance (matches fire rate validation)
+                val lastPhaseEnd = player.getPhasedUntil
+                if (lastPhaseEnd == 0L || now >= lastPhaseEnd + (cooldownMs * 0.9).toLong) {
+                  player.setPhasedUntil(now + phaseDuration)
+                }
+              }
+            }
+
+            val flags = (if (player.hasShield) 0x01 else 0) |
+                        (if (player.hasGemBoost) 0x02 else 0) |
+                        (if (player.isFrozen) 0x04 else 0) |
+                        (if (player.isPhased) 0x08 else 0)
+            new PlayerUpdatePacket(
+              updatePacket.getSequenceNumber,
+              updatePacket.getPlayerId,
+              updatePacket.getTimestamp,
+              pos,
+              updatePacket.getColorRGB,
+              player.getHealth,
+              updatePacket.getChargeLevel,
+              flags,
+              player.getCharacterId,
+              player.getTeamId
+            )
+          } else {
+            packet
+          }
+        case PacketType.PLAYER_JOIN =>
+          val joinPacket = packet.asInstanceOf[PlayerJoinPacket]
+          val player = instance.registry.get(joinPacket.getPlayerId)
+          if (player != null) {
+            new PlayerJoinPacket(
+              joinPacket.getSequenceNumber,
+              joinPacket.getPlayerId,
+              joinPacket.getTimestamp,
+              joinPacket.getPosition,
+              joinPacket.getColorRGB,
+              joinPacket.getPlayerName,
+              player.getHealth,
+              player.getCharacterId,
+              player.getTeamId
+            )
+          } else {
+            packet
+          }
+        case _ => packet
+      }
+      // Broadcast to instance players only, excluding sender
+      val data = packetToBroadcast.serialize()
+      val sendTo: Player => Unit = { p =>
+        if (!p.getId.equals(packet.getPlayerId)) {
+          sendRawToPlayer(data, packetToBroadcast.getType.tcp, p)
+        }
+      }
+      packetToBroadcast match {
+        case _: PlayerUpdatePacket if Constants.PLAYER_SNAPSHOTS_ENABLED =>
+          // State applied above; viewers get it in the next player snapshot
+        case update: PlayerUpdatePacket =>
+          // Movement only matters to players who can see it (area of interest)
+          instance.forEachViewer(update.getPosition.getX.toFloat, update.getPosition.getY.toFloat)(sendTo)
+        case _ =>
+          instance.registry.forEachPlayer(sendTo)
+      }
+    }
+  }
+
   private def handleGlobalConnect(packet: PlayerJoinPacket, tcpCh: Channel): Unit = {
     val playerId = packet.getPlayerId
     val existingPlayer = connectedPlayers.get(playerId)
@@ -518,13 +655,15 @@ class GameServer(port: Int, val worldFile: String = "") {
     // Check if player is in a lobby that's in-game; if so, register in instance
     val lobby = lobbyManager.getPlayerLobby(playerId)
     if (lobby != null && lobby.gameInstance != null && lobby.status == LobbyStatus.IN_GAME) {
-      val instance = lobby.gameInstance
-      val player = connectedPlayers.get(playerId)
-      instance.handler.processPacket(packet, tcpCh, null)
+      lobby.gameInstance.enqueueInput(packet, tcpCh, null)
     }
   }
 
-  private def handleAuthRequest(packet: AuthRequestPacket, tcpCh: Channel): Unit = Tracing.span("auth.request", io.opentelemetry.api.common.Attributes.of(Attrs.Action, if (packet.getAction == AuthAction.SIGNUP) "signup" else "login")) {
+  /**
+   * Runs on the event loop: cheap checks only, then hands bcrypt and the account DB to the auth
+   * executor. A saturated executor gets an immediate "busy" response instead of a queued stall.
+   */
+  private def handleAuthRequest(packet: AuthRequestPacket, tcpCh: Channel): Unit = {
     val username = packet.getUsername
     val password = packet.getPassword
     val isSignup = packet.getAction == AuthAction.SIGNUP
@@ -541,21 +680,52 @@ class GameServer(port: Int, val worldFile: String = "") {
       return
     }
 
-    if (isSignup) {
-      if (password.length < 6) {
-        println(s"Auth: Signup failed - '$username' (password too short)")
-        recordChannelAuthFailure(tcpCh)
-        Metrics.authAttempts.add(1L, Attrs.AuthSignupFail)
-        val response = new AuthResponsePacket(getNextSequenceNumber, false, null, "Password must be 6+ chars")
-        sendPacketViaChannel(response, tcpCh)
-        return
+    if (isSignup && password.length < 6) {
+      println(s"Auth: Signup failed - '$username' (password too short)")
+      recordChannelAuthFailure(tcpCh)
+      Metrics.authAttempts.add(1L, Attrs.AuthSignupFail)
+      val response = new AuthResponsePacket(getNextSequenceNumber, false, null, "Password must be 6+ chars")
+      sendPacketViaChannel(response, tcpCh)
+      return
+    }
+
+    val accepted = authExecutor.submit(new Runnable {
+      def run(): Unit = {
+        Metrics.authQueueWait.record((System.nanoTime() - startNs) / 1e6,
+          io.opentelemetry.api.common.Attributes.of(Attrs.Action, if (isSignup) "signup" else "login"))
+        // Client gave up while queued: skip the bcrypt work and don't bind a session to a dead channel
+        if (tcpCh.isActive) {
+          try completeAuthRequest(packet, tcpCh, remoteAddr, startNs)
+          catch {
+            case e: Exception =>
+              System.err.println(s"Auth: Error processing request for '$username': ${e.getMessage}")
+          }
+        }
       }
+    })
+    if (!accepted) {
+      println(s"Auth: Executor saturated, rejecting '$username' ($remoteAddr)")
+      Metrics.authAttempts.add(1L, if (isSignup) Attrs.AuthSignupBusy else Attrs.AuthLoginBusy)
+      val response = new AuthResponsePacket(getNextSequenceNumber, false, null, "Server busy, try again")
+      sendPacketViaChannel(response, tcpCh)
+    }
+  }
+
+  /** Runs on the auth executor: bcrypt + account DB, then writes the result to the client's channel. */
+  private def completeAuthRequest(packet: AuthRequestPacket, tcpCh: Channel, remoteAddr: InetAddress, startNs: Long): Unit = Tracing.span("auth.request", io.opentelemetry.api.common.Attributes.of(Attrs.Action, if (packet.getAction == AuthAction.SIGNUP) "signup" else "login")) {
+    val username = packet.getUsername
+    val password = packet.getPassword
+    val isSignup = packet.getAction == AuthAction.SIGNUP
+
+    if (isSignup) {
       val registered = authDatabase.register(username, password)
       if (registered) {
         val uuid = authDatabase.getOrCreateUUID(username)
         println(s"Auth: New account registered - '$username' (${uuid.toString.substring(0, 8)})")
         playerTcpAddresses.put(uuid, remoteAddr)
         val token = generateSessionToken(uuid, tcpCh)
+        negotiateUdpBundles(uuid, packet)
+        loadAccount(uuid)
         Metrics.authAttempts.add(1L, Attrs.AuthSignupSuccess)
         val response = new AuthResponsePacket(getNextSequenceNumber, true, uuid, "Account created")
         sendPacketViaChannel(response, tcpCh)
@@ -576,6 +746,8 @@ class GameServer(port: Int, val worldFile: String = "") {
         println(s"Auth: Login successful - '$username' (${uuid.toString.substring(0, 8)})")
         playerTcpAddresses.put(uuid, remoteAddr)
         val token = generateSessionToken(uuid, tcpCh)
+        negotiateUdpBundles(uuid, packet)
+        loadAccount(uuid)
         Metrics.authAttempts.add(1L, Attrs.AuthLoginSuccess)
         val response = new AuthResponsePacket(getNextSequenceNumber, true, uuid, "Login successful")
         sendPacketViaChannel(response, tcpCh)
@@ -593,6 +765,19 @@ class GameServer(port: Int, val worldFile: String = "") {
     Metrics.authDuration.record((System.nanoTime() - startNs) / 1e6, io.opentelemetry.api.common.Attributes.of(Attrs.Action, if (isSignup) "signup" else "login"))
   }
 
+  /** Cache a fresh session's account, evicting it again if the session closed while it loaded. */
+  private def loadAccount(playerId: UUID): Unit = {
+    authDatabase.loadAccount(playerId)
+    // handleDisconnect (or the timeout sweep) may already have run its evictPlayer before the insert
+    if (!sessionTokens.containsKey(playerId)) authDatabase.evictPlayer(playerId)
+  }
+
+  /** Enable bundled UDP for this session if the client advertised support; older clients keep 80-byte frames. */
+  private def negotiateUdpBundles(playerId: UUID, packet: AuthRequestPacket): Unit = {
+    if (packet.supportsUdpBundles) udpBundles.put(playerId, new UdpBundle())
+    else udpBundles.remove(playerId)
+  }
+
   private def handleMatchHistoryRequest(packet: MatchHistoryPacket, tcpCh: Channel): Unit = {
     if (packet.getAction != MatchHistoryAction.QUERY) return
 
@@ -657,7 +842,11 @@ class GameServer(port: Int, val worldFile: String = "") {
       rank += 1
     }
 
-    val endPacket = new LeaderboardPacket(getNextSequenceNumber, playerId, LeaderboardAction.END)
+    // The requester's exact position, even outside the top entries (O(log n) on the index)
+    val endPacket = new LeaderboardPacket(
+      getNextSequenceNumber, playerId, Packet.getCurrentTimestamp, LeaderboardAction.END,
+      playerRank = authDatabase.getLeaderboardRank(playerId)
+    )
     sendPacketViaChannel(endPacket, tcpCh)
   }
 
@@ -769,8 +958,7 @@ class GameServer(port: Int, val worldFile: String = "") {
           val response = new HeartbeatPacket(getNextSequenceNumber, playerId)
           val payload = response.serialize()
           val token = sessionTokens.get(playerId)
-          val data = if (token != null) PacketSigner.sign(payload, token) else padToPacketSize(payload)
-          ch.writeAndFlush(Unpooled.wrappedBuffer(data))
+          ch.writeAndFlush(encodeSigned(ch.alloc(), payload, token))
         }
       }
       // Also update in the game instance if they're in one
@@ -852,9 +1040,12 @@ class GameServer(port: Int, val worldFile: String = "") {
     val playerId = channelToPlayer.remove(channel)
     if (playerId != null) {
       sessionTokens.remove(playerId)
+      udpBundles.remove(playerId)
+      udpOwners.remove(playerId)
       tokenCreationTime.remove(playerId)
       playerTcpAddresses.remove(playerId)
       lastQueryTime.remove(playerId)
+      authDatabase.evictPlayer(playerId)
       packetValidator.removePlayer(playerId)
       lobbyHandler.cleanupPlayer(playerId)
       val player = connectedPlayers.remove(playerId)
@@ -895,11 +1086,7 @@ class GameServer(port: Int, val worldFile: String = "") {
     Metrics.matchDuration.record(lobby.durationMinutes.toDouble * 60.0, modeAttrs)
     lobby.status = LobbyStatus.FINISHED
 
-    // Stop the instance (shutdownNow() interrupts worker threads including the
-    // current thread when called from syncTimer). Clear the interrupt flag so
-    // subsequent JDBC operations in saveMatch aren't disrupted.
     instance.stop()
-    Thread.interrupted()
 
     // Broadcast GAME_OVER
     val zeroUUID = new UUID(0L, 0L)
@@ -950,30 +1137,33 @@ class GameServer(port: Int, val worldFile: String = "") {
       }
     }
 
-    // Persist match results (exclude bots)
+    // Persist match results and ranked ELO (exclude bots) through the write-behind queue, then
+    // push fresh stats to each human once committed so the post-match scoreboard can show the
+    // ELO delta without forcing the client to manually re-query match history.
     val humanResults = matchResults.filter { case (pid, _, _, _) => !BotManager.isBotUUID(pid) }.toSeq
-    authDatabase.saveMatch(lobby.mapIndex, lobby.durationMinutes, humanResults, lobby.matchType)
-
-    // Update ELO for ranked matches (exclude bots) and push fresh stats to each
-    // human so the post-match scoreboard can show the ELO delta without forcing
-    // the client to manually re-query match history.
-    if (lobby.isRanked && humanResults.size >= 2) {
-      val eloDeltas = updateRankedElo(humanResults)
-      eloDeltas.foreach { case (uuid, (oldElo, newElo)) =>
-        val player = connectedPlayers.get(uuid)
-        if (player != null) {
-          val (totalKills, totalDeaths, matchesPlayed, wins, _) = authDatabase.getPlayerStats(uuid)
-          val statsPacket = new MatchHistoryPacket(
-            getNextSequenceNumber, uuid, Packet.getCurrentTimestamp,
-            MatchHistoryAction.STATS,
-            totalKills = totalKills, totalDeaths = totalDeaths,
-            matchesPlayed = matchesPlayed, wins = wins,
-            elo = newElo.toShort, oldElo = oldElo.toShort
-          )
-          sendPacketToPlayer(statsPacket, player)
+    val eloWrites = scala.collection.mutable.ArrayBuffer[(String, Int)]()
+    val eloDeltas =
+      if (lobby.isRanked && humanResults.size >= 2) updateRankedElo(humanResults, eloWrites)
+      else Map.empty[UUID, (Int, Int)]
+    matchWriter.submit(lobby.mapIndex, lobby.durationMinutes, humanResults, lobby.matchType, eloWrites.toSeq,
+      new Runnable {
+        def run(): Unit = {
+          eloDeltas.foreach { case (uuid, (oldElo, newElo)) =>
+            val player = connectedPlayers.get(uuid)
+            if (player != null) {
+              val (totalKills, totalDeaths, matchesPlayed, wins, _) = authDatabase.getPlayerStats(uuid)
+              val statsPacket = new MatchHistoryPacket(
+                getNextSequenceNumber, uuid, Packet.getCurrentTimestamp,
+                MatchHistoryAction.STATS,
+                totalKills = totalKills, totalDeaths = totalDeaths,
+                matchesPlayed = matchesPlayed, wins = wins,
+                elo = newElo.toShort, oldElo = oldElo.toShort
+              )
+              sendPacketToPlayer(statsPacket, player)
+            }
+          }
         }
-      }
-    }
+      })
 
     // Send SCORE_END
     val scoreEndPacket = new GameEventPacket(
@@ -990,20 +1180,24 @@ class GameServer(port: Int, val worldFile: String = "") {
   }
 
   /**
-   * Apply ELO updates for a finished ranked match.
-   * Returns a map of playerId -> (oldElo, newElo) so callers can notify clients.
-   * Returns an empty map if the match had fewer than 2 humans.
+   * Compute ELO updates for a finished ranked match, appending (username, newElo) to eloWrites
+   * for the write-behind queue. Returns a map of playerId -> (oldElo, newElo) so callers can
+   * notify clients. Returns an empty map if the match had fewer than 2 humans.
    */
-  private def updateRankedElo(results: Seq[(UUID, Int, Int, Byte)]): Map[UUID, (Int, Int)] = {
+  private def updateRankedElo(results: Seq[(UUID, Int, Int, Byte)],
+                              eloWrites: scala.collection.mutable.ArrayBuffer[(String, Int)]): Map[UUID, (Int, Int)] = {
     val n = results.size
     if (n < 2) return Map.empty
 
     val kAdjusted = 32.0 / (n - 1)
 
-    // Get current ELOs
-    val elos = results.map { case (uuid, _, _, _) =>
-      uuid -> authDatabase.getEloByUUID(uuid)
+    // Get current ELOs (a rating still queued for write wins over the DB's)
+    val usernames = results.map { case (uuid, _, _, _) =>
+      uuid -> authDatabase.getUsernameByUUID(uuid)
     }.toMap
+    val elos = usernames.map { case (uuid, username) =>
+      uuid -> (if (username != null) matchWriter.currentElo(username) else 1000)
+    }
 
     val deltas = scala.collection.mutable.Map.empty[UUID, (Int, Int)]
 
@@ -1022,9 +1216,9 @@ class GameServer(port: Int, val worldFile: String = "") {
       }
 
       val newElo = Math.max(0, (myElo + Math.round(delta)).toInt)
-      val username = authDatabase.getUsernameByUUID(uuid)
+      val username = usernames(uuid)
       if (username != null) {
-        authDatabase.updateElo(username, newElo)
+        eloWrites += ((username, newElo))
         println(s"RankedELO: ${username} $myElo -> $newElo (delta=${Math.round(delta)})")
       }
       Metrics.eloDelta.record(Math.round(delta).toDouble, io.opentelemetry.api.common.Attributes.empty())
@@ -1045,9 +1239,12 @@ class GameServer(port: Int, val worldFile: String = "") {
 
         // Clean up session state (fixes leak)
         sessionTokens.remove(playerId)
+        udpBundles.remove(playerId)
+        udpOwners.remove(playerId)
         tokenCreationTime.remove(playerId)
         playerTcpAddresses.remove(playerId)
         lastQueryTime.remove(playerId)
+        authDatabase.evictPlayer(playerId)
         packetValidator.removePlayer(playerId)
         playerLocks.remove(playerId)
 
@@ -1090,6 +1287,8 @@ class GameServer(port: Int, val worldFile: String = "") {
           if (currentCreation != null && now - currentCreation > Constants.SESSION_TOKEN_LIFETIME_MS) {
             tokenCreationTime.remove(playerId)
             sessionTokens.remove(playerId)
+            udpBundles.remove(playerId)
+            udpOwners.remove(playerId)
             playerTcpAddresses.remove(playerId)
             Metrics.sessionsExpired.add(1L, io.opentelemetry.api.common.Attributes.empty())
 
@@ -1126,6 +1325,10 @@ class GameServer(port: Int, val worldFile: String = "") {
 
     // Stop all game instances
     gameInstances.values().asScala.foreach(_.stop())
+    tickScheduler.shutdown()
+    authExecutor.shutdown()
+    // Commit every queued match before the DB closes
+    matchWriter.stop()
 
     try {
       if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -1140,7 +1343,7 @@ class GameServer(port: Int, val worldFile: String = "") {
     authDatabase.close()
 
     if (tcpServerChannel != null) tcpServerChannel.close().sync()
-    if (udpChannel != null) udpChannel.close().sync()
+    udpChannels.foreach(_.close().sync())
     if (bossGroup != null) bossGroup.shutdownGracefully()
     if (workerGroup != null) workerGroup.shutdownGracefully()
 
@@ -1171,19 +1374,16 @@ class GameServerTcpHandler(server: GameServer) extends SimpleChannelInboundHandl
       return
     }
 
-    val data = new Array[Byte](Constants.PACKET_SIZE)
-    msg.readBytes(data)
-    Metrics.bandwidthBytes.add(data.length.toLong, Attrs.DirIn)
+    // Verify and deserialize in place over the frame; nothing is copied out of the ByteBuf
+    val base = msg.readerIndex()
+    msg.skipBytes(Constants.PACKET_SIZE)
+    Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirIn)
 
     try {
       // Peek at packet type byte
-      val packetTypeId = data(0)
-      val payload = if (packetTypeId == PacketType.AUTH_REQUEST.id) {
-        // AUTH_REQUEST has no session token yet — extract first 64 bytes
-        val p = new Array[Byte](Constants.PACKET_PAYLOAD_SIZE)
-        System.arraycopy(data, 0, p, 0, Constants.PACKET_PAYLOAD_SIZE)
-        p
-      } else {
+      val packetTypeId = msg.getByte(base)
+      // AUTH_REQUEST has no session token yet — its payload is just the first 64 bytes
+      if (packetTypeId != PacketType.AUTH_REQUEST.id) {
         // Look up session token via channel
         val token = server.channelToToken.get(ctx.channel())
         if (token != null) {
@@ -1198,14 +1398,12 @@ class GameServerTcpHandler(server: GameServer) extends SimpleChannelInboundHandl
               return
             }
           }
-          val verified = PacketSigner.verify(data, token)
-          if (verified == null) {
+          if (!PacketSigner.verify(msg.nioBuffer(base, Constants.PACKET_SIZE), token)) {
             System.err.println("TCP: HMAC verification failed, dropping packet")
             Metrics.packetsDropped.add(1L, Attrs.ReasonHmacFail)
             Metrics.hmacFailures.add(1L, io.opentelemetry.api.common.Attributes.of(Attrs.Transport, "tcp"))
             return
           }
-          verified
         } else {
           // No token yet (pre-auth) — ONLY allow AUTH_REQUEST
           // All other packet types require authentication
@@ -1214,7 +1412,7 @@ class GameServerTcpHandler(server: GameServer) extends SimpleChannelInboundHandl
           return
         }
       }
-      val packet = PacketSerializer.deserialize(payload)
+      val packet = PacketSerializer.deserialize(msg.nioBuffer(base, Constants.PACKET_PAYLOAD_SIZE))
       // Rate limit packets
       if (packetTypeId == PacketType.AUTH_REQUEST.id) {
         // Pre-auth: rate limit by channel (no player ID available yet)
@@ -1279,16 +1477,14 @@ class GameServerUdpHandler(server: GameServer) extends SimpleChannelInboundHandl
       return
     }
 
-    val data = new Array[Byte](Constants.PACKET_SIZE)
-    buf.readBytes(data)
-    Metrics.bandwidthBytes.add(data.length.toLong, Attrs.DirIn)
+    // Verify and deserialize in place over the datagram; nothing is copied out of the ByteBuf
+    val base = buf.readerIndex()
+    buf.skipBytes(Constants.PACKET_SIZE)
+    Metrics.bandwidthBytes.add(Constants.PACKET_SIZE.toLong, Attrs.DirIn)
 
     try {
       // Extract UUID from bytes [5-20] to look up session token
-      val uuidBuf = java.nio.ByteBuffer.wrap(data, 5, 16).order(java.nio.ByteOrder.BIG_ENDIAN)
-      val msb = uuidBuf.getLong()
-      val lsb = uuidBuf.getLong()
-      val playerId = new UUID(msb, lsb)
+      val playerId = new UUID(buf.getLong(base + 5), buf.getLong(base + 13))
       val token = server.sessionTokens.get(playerId)
 
       // Require HMAC for all UDP packets (no pre-auth UDP allowed)
@@ -1326,21 +1522,20 @@ class GameServerUdpHandler(server: GameServer) extends SimpleChannelInboundHandl
         return
       }
 
-      val verified = PacketSigner.verify(data, token)
-      if (verified == null) {
+      if (!PacketSigner.verify(buf.nioBuffer(base, Constants.PACKET_SIZE), token)) {
         System.err.println("UDP: HMAC verification failed, dropping packet")
         Metrics.packetsDropped.add(1L, Attrs.ReasonHmacFail)
         Metrics.hmacFailures.add(1L, io.opentelemetry.api.common.Attributes.of(Attrs.Transport, "udp"))
         return
       }
-      val payload = verified
-      val packet = PacketSerializer.deserialize(payload)
+      val packet = PacketSerializer.deserialize(buf.nioBuffer(base, Constants.PACKET_PAYLOAD_SIZE))
       // Replay protection: reject duplicate/out-of-order UDP sequence numbers
       if (!server.packetValidator.validateSequence(playerId, packet.getSequenceNumber, isUdp = true)) {
         Metrics.replayRejected.add(1L, io.opentelemetry.api.common.Attributes.of(Attrs.Transport, "udp"))
         Metrics.packetsDropped.add(1L, Attrs.ReasonReplay)
         return
       }
+      server.noteUdpOwner(playerId, ctx.channel())
       server.handleIncomingPacket(packet, null, msg.sender())
     } catch {
       case e: Exception =>
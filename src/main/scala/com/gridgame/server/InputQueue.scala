@@ -0,0 +1,56 @@
+package com.gridgame.server
+
+import com.gridgame.common.protocol.Packet
+import io.netty.channel.Channel
+
+import java.net.InetSocketAddress
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+/** A decoded client input waiting to be applied on the instance's tick thread. */
+final case class InputCommand(packet: Packet, tcpChannel: Channel, udpSender: InetSocketAddress)
+
+/**
+ * Lock-free multi-producer / single-consumer input queue owned by a GameInstance.
+ * Netty event loops offer commands; the instance's TickScheduler worker drains them at the
+ * start of each tick, so all Player and ProjectileManager mutation happens on one thread.
+ */
+class InputQueue(capacity: Int) {
+  private val queue = new ConcurrentLinkedQueue[InputCommand]()
+  // ConcurrentLinkedQueue.size() is O(n); track depth separately for the capacity check
+  private val depth = new AtomicInteger(0)
+
+  /** Returns false if the queue is full and the command was dropped. */
+  def offer(cmd: InputCommand): Boolean = {
+    if (depth.incrementAndGet() > capacity) {
+      depth.decrementAndGet()
+      return false
+    }
+    queue.offer(cmd)
+    true
+  }
+
+  /**
+   * Apply every command queued before this call. Commands that arrive while draining wait
+   * for the next tick, so a flood of input can't stall the simulation.
+   */
+  def drain(apply: InputCommand => Unit): Int = {
+    val n = depth.get()
+    var i = 0
+    while (i < n) {
+      val cmd = queue.poll()
+      if (cmd == null) return i
+      depth.decrementAndGet()
+      apply(cmd)
+      i += 1
+    }
+    n
+  }
+
+  def size: Int = depth.get()
+
+  def clear(): Unit = {
+    queue.clear()
+    depth.set(0)
+  }
+}
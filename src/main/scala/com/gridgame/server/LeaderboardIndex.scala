@@ -0,0 +1,158 @@
+package com.gridgame.server
+
+import java.util.UUID
+
+/**
+ * In-memory leaderboard: every account ordered by ELO (descending, ties by username), kept in an
+ * order-statistic treap so rank lookups and ELO changes are O(log n) and top-N is O(log n + N).
+ * Loaded once from the DB at startup, then updated by AuthDatabase as accounts, matches and
+ * ratings are committed.
+ */
+class LeaderboardIndex {
+  private final class Node(val username: String, val uuid: UUID, var elo: Int, var wins: Int, var matchesPlayed: Int) {
+    val priority: Int = random.nextInt()
+    var left: Node = _
+    var right: Node = _
+    var size: Int = 1
+  }
+
+  private val random = new java.util.Random()
+  private val byUsername = new java.util.HashMap[String, Node]()
+  private val byUuid = new java.util.HashMap[UUID, Node]()
+  private var root: Node = _
+
+  /** Add (or replace) an account's entry. */
+  def put(username: String, uuid: UUID, elo: Int, wins: Int, matchesPlayed: Int): Unit = synchronized {
+    val key = username.toLowerCase
+    val existing = byUsername.get(key)
+    if (existing != null) {
+      root = remove(root, existing)
+      if (existing.uuid != null) byUuid.remove(existing.uuid)
+    }
+    val node = new Node(key, uuid, elo, wins, matchesPlayed)
+    byUsername.put(key, node)
+    if (uuid != null) byUuid.put(uuid, node)
+    root = insert(root, node)
+  }
+
+  /** Re-rank an account after an ELO change. */
+  def updateElo(username: String, elo: Int): Unit = synchronized {
+    val node = byUsername.get(username.toLowerCase)
+    if (node != null && node.elo != elo) {
+      root = remove(root, node)
+      node.elo = elo
+      node.left = null
+      node.right = null
+      node.size = 1
+      root = insert(root, node)
+    }
+  }
+
+  /** Count a committed match for a player; order is unaffected (it only depends on ELO). */
+  def recordResult(playerUUID: UUID, rank: Int): Unit = synchronized {
+    val node = byUuid.get(playerUUID)
+    if (node != null) {
+      node.matchesPlayed += 1
+      if (rank == 1) node.wins += 1
+    }
+  }
+
+  /** 1-based leaderboard position of the account, or 0 if unknown. */
+  def rankOf(playerUUID: UUID): Int = synchronized {
+    val target = byUuid.get(playerUUID)
+    if (target == null) return 0
+    var rank = 0
+    var t = root
+    while (t != null) {
+      val c = compare(target, t)
+      if (c < 0) {
+        t = t.left
+      } else {
+        rank += sizeOf(t.left) + 1
+        if (c == 0) return rank
+        t = t.right
+      }
+    }
+    0
+  }
+
+  /** The first limit entries as (username, elo, wins, matchesPlayed), highest ELO first. */
+  def top(limit: Int): Seq[(String, Int, Int, Int)] = synchronized {
+    val out = scala.collection.mutable.ArrayBuffer[(String, Int, Int, Int)]()
+    collect(root, limit, out)
+    out.toSeq
+  }
+
+  def size: Int = synchronized { byUsername.size() }
+
+  private def collect(t: Node, limit: Int, out: scala.collection.mutable.ArrayBuffer[(String, Int, Int, Int)]): Unit = {
+    if (t == null || out.size >= limit) return
+    collect(t.left, limit, out)
+    if (out.size < limit) {
+      out += ((t.username, t.elo, t.wins, t.matchesPlayed))
+      collect(t.right, limit, out)
+    }
+  }
+
+  // Higher ELO first, then username ascending
+  private def compare(a: Node, b: Node): Int = {
+    if (a.elo != b.elo) Integer.compare(b.elo, a.elo) else a.username.compareTo(b.username)
+  }
+
+  private def sizeOf(t: Node): Int = if (t == null) 0 else t.size
+
+  private def update(t: Node): Unit = t.size = sizeOf(t.left) + sizeOf(t.right) + 1
+
+  private def insert(t: Node, node: Node): Node = {
+    if (t == null) return node
+    if (node.priority > t.priority) {
+      split(t, node)
+      node
+    } else {
+      if (compare(node, t) < 0) t.left = insert(t.left, node) else t.right = insert(t.right, node)
+      update(t)
+      t
+    }
+  }
+
+  /** Split t around pivot's key into pivot.left (smaller) and pivot.right (larger). */
+  private def split(t: Node, pivot: Node): Unit = {
+    if (t == null) {
+      pivot.left = null
+      pivot.right = null
+    } else if (compare(t, pivot) < 0) {
+      split(t.right, pivot)
+      t.right = pivot.left
+      update(t)
+      pivot.left = t
+    } else {
+      split(t.left, pivot)
+      t.left = pivot.right
+      update(t)
+      pivot.right = t
+    }
+    update(pivot)
+  }
+
+  private def remove(t: Node, node: Node): Node = {
+    if (t == null) return null
+    if (t eq node) return merge(t.left, t.right)
+    if (compare(node, t) < 0) t.left = remove(t.left, node) else t.right = remove(t.right, node)
+    update(t)
+    t
+  }
+
+  private def merge(a: Node, b: Node): Node = {
+    if (a == null) return b
+    if (b == null) return a
+    if (a.priority > b.priority) {
+      a.right = merge(a.right, b)
+      update(a)
+      a
+    } else {
+      b.left = merge(a, b.left)
+      update(b)
+      b
+    }
+  }
+}
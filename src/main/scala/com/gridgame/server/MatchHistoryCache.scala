@@ -0,0 +1,51 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+import com.gridgame.common.observability.Attrs
+import com.gridgame.common.observability.Metrics
+
+import java.util.UUID
+
+/**
+ * Most recent match history per player, newest first, as returned by AuthDatabase.getMatchHistory:
+ * (matchId, mapIndex, durationMinutes, playedAt, kills, deaths, rank, playerCount, matchType).
+ * Filled lazily on the first query, then kept current by prepending each committed result, so
+ * repeat views of the account screen never re-run the history query.
+ *
+ * A fill races with commits (the query runs on a reader, outside the writer lock), so fills carry
+ * the commit stamp taken before the query and are dropped if any result was applied since.
+ */
+class MatchHistoryCache(val depth: Int = 20, capacity: Int = Constants.HISTORY_CACHE_CAPACITY) {
+  type Entry = (Long, Int, Int, Long, Int, Int, Int, Int, Int)
+
+  private val byUuid = new java.util.HashMap[UUID, Vector[Entry]]() // guarded by this
+  private var applied = 0L // guarded by this
+
+  /** Take before querying the DB; pass to fill. */
+  def stamp: Long = synchronized { applied }
+
+  /** The cached history (at most depth entries), or null (counted as a miss). */
+  def get(uuid: UUID): Seq[Entry] = {
+    val history = synchronized { byUuid.get(uuid) }
+    Metrics.cacheLookups.add(1L, if (history != null) Attrs.CacheHistoryHit else Attrs.CacheHistoryMiss)
+    history
+  }
+
+  /** Cache a freshly queried history unless a result was applied after stamp was taken. */
+  def fill(uuid: UUID, stamp: Long, history: Seq[Entry]): Unit = synchronized {
+    if (applied == stamp && (byUuid.size() < capacity || byUuid.containsKey(uuid))) {
+      byUuid.put(uuid, history.take(depth).toVector)
+    }
+  }
+
+  /** Write-through for a committed result. Skips entries a concurrent fill already picked up. */
+  def prepend(uuid: UUID, entry: Entry): Unit = synchronized {
+    applied += 1
+    val history = byUuid.get(uuid)
+    if (history != null && !history.exists(_._1 == entry._1)) byUuid.put(uuid, (entry +: history).take(depth))
+  }
+
+  def evict(uuid: UUID): Unit = synchronized { byUuid.remove(uuid) }
+
+  def size: Int = synchronized { byUuid.size() }
+}
@@ -0,0 +1,257 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+import com.gridgame.common.observability.Metrics
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.UUID
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/** One finished match as persisted by the write-behind pipeline: match row, results and new ELOs. */
+final case class MatchWrite(
+    writeId: String,
+    mapIndex: Int,
+    durationMinutes: Int,
+    matchType: Byte,
+    playedAt: Long,
+    results: Seq[(UUID, Int, Int, Byte)],
+    eloUpdates: Seq[(String, Int)]
+)
+
+/**
+ * Write-behind pipeline for match results and ELO updates. submit appends the match to a local
+ * journal (a plain write, no fsync, so it survives a process crash) and queues it; a dedicated
+ * writer thread group-commits everything queued into one SQLite transaction. Journaled matches
+ * that never committed are replayed on startup; replays are idempotent by writeId. The committed
+ * prefix of the journal is dropped as it grows, so a restart replays only uncommitted matches.
+ *
+ * New ratings stay visible through currentElo until their batch commits, so back-to-back ranked
+ * matches never read a stale ELO. A full queue makes submit wait for the writer (back-pressure),
+ * counted in gridgame.db.write_behind.full.
+ */
+class MatchWriteBehind(db: AuthDatabase, journalPath: String = MatchWriteBehind.resolveJournalPath()) {
+  // journalStart: the match's logical journal offset, or -1 if its append failed
+  private class Pending(val write: MatchWrite, val onCommitted: Runnable, val journalStart: Long)
+
+  private val queue = new ArrayBlockingQueue[Pending](Constants.WRITE_BEHIND_QUEUE_CAPACITY)
+  // username (lowercase) -> ELO queued but not yet committed
+  private val pendingElo = new ConcurrentHashMap[String, Integer]()
+
+  // Journal offsets are logical (they keep counting across compactions): physical byte 0 of the
+  // file is fileStart, and the file ends at journalEnd. uncommitted holds the start offset of
+  // every journaled match not yet in the DB, so everything before its first entry is committed.
+  private val journalLock = new Object()
+  private var journal: FileChannel = _ // guarded by journalLock
+  private var fileStart = 0L           // guarded by journalLock
+  private var journalEnd = 0L          // guarded by journalLock
+  private val uncommitted = new java.util.TreeSet[java.lang.Long]() // guarded by journalLock
+  @volatile private var running = true
+
+  replayJournal()
+  journal = openJournal()
+
+  private val writerThread = new Thread(new Runnable {
+    def run(): Unit = writerLoop()
+  }, "match-write-behind")
+  writerThread.setDaemon(true)
+  writerThread.start()
+
+  /** Journal and queue a match. onCommitted runs on the writer thread once it is in the DB. */
+  def submit(mapIndex: Int, durationMinutes: Int, results: Seq[(UUID, Int, Int, Byte)], matchType: Byte,
+             eloUpdates: Seq[(String, Int)], onCommitted: Runnable): Unit = {
+    val write = MatchWrite(UUID.randomUUID().toString, mapIndex, durationMinutes, matchType,
+      System.currentTimeMillis(), results, eloUpdates)
+    eloUpdates.foreach { case (username, elo) => pendingElo.put(username.toLowerCase, Integer.valueOf(elo)) }
+    val line = (MatchWriteBehind.encode(write) + "\n").getBytes(StandardCharsets.UTF_8)
+    val start = journalLock.synchronized {
+      try {
+        val buf = ByteBuffer.wrap(line)
+        while (buf.hasRemaining) journal.write(buf)
+        val at = journalEnd
+        journalEnd += line.length
+        uncommitted.add(java.lang.Long.valueOf(at))
+        at
+      } catch {
+        case e: Exception =>
+          System.err.println(s"MatchWriteBehind: Journal append failed (match still queued): ${e.getMessage}")
+          // Resync with whatever part of the line reached the file
+          try journalEnd = fileStart + journal.size() catch { case _: Exception => }
+          -1L
+      }
+    }
+    val pending = new Pending(write, onCommitted, start)
+    if (!queue.offer(pending)) {
+      Metrics.dbWriteBehindFull.add(1L)
+      System.err.println("MatchWriteBehind: Queue full, waiting for the writer")
+      queue.put(pending)
+    }
+  }
+
+  /** ELO for username, preferring a rating that is still queued over the DB's. */
+  def currentElo(username: String): Int = {
+    val pending = pendingElo.get(username.toLowerCase)
+    if (pending != null) pending.intValue() else db.getElo(username)
+  }
+
+  def queueDepth: Int = queue.size()
+
+  /** Stop accepting work, commit everything queued, then close the journal. */
+  def stop(): Unit = {
+    // No interrupt: the writer notices within one poll timeout, and an interrupt could land mid-JDBC
+    running = false
+    try {
+      writerThread.join(TimeUnit.SECONDS.toMillis(10))
+    } catch {
+      case _: InterruptedException => Thread.currentThread().interrupt()
+    }
+    journalLock.synchronized {
+      try journal.close() catch { case _: Exception => }
+    }
+  }
+
+  private def writerLoop(): Unit = {
+    val batch = new java.util.ArrayList[Pending](Constants.WRITE_BEHIND_MAX_BATCH)
+    while (running || !queue.isEmpty) {
+      try {
+        if (batch.isEmpty) {
+          val first = if (running) queue.poll(1, TimeUnit.SECONDS) else queue.poll()
+          if (first != null) {
+            batch.add(first)
+            queue.drainTo(batch, Constants.WRITE_BEHIND_MAX_BATCH - 1)
+          }
+        }
+        if (!batch.isEmpty) {
+          commit(batch)
+          batch.clear()
+        }
+      } catch {
+        case _: InterruptedException =>
+          Thread.currentThread().interrupt()
+          return
+        case e: Exception =>
+          // Keep the batch and retry; its matches are still in the journal if we never get there
+          System.err.println(s"MatchWriteBehind: Group commit of ${batch.size()} matches failed, retrying: ${e.getMessage}")
+          if (!running) return
+          try Thread.sleep(1000) catch { case _: InterruptedException => }
+      }
+    }
+  }
+
+  private def commit(batch: java.util.ArrayList[Pending]): Unit = {
+    val writes = new java.util.ArrayList[MatchWrite](batch.size())
+    batch.forEach(p => writes.add(p.write))
+    db.commitMatchBatch(writes)
+    Metrics.dbWriteBehindBatch.record(batch.size().toLong)
+
+    batch.forEach { p =>
+      p.write.eloUpdates.foreach { case (username, elo) => pendingElo.remove(username.toLowerCase, Integer.valueOf(elo)) }
+    }
+    journalLock.synchronized {
+      batch.forEach(p => if (p.journalStart >= 0) uncommitted.remove(java.lang.Long.valueOf(p.journalStart)))
+      compactJournal()
+    }
+    batch.forEach { p =>
+      if (p.onCommitted != null) {
+        try p.onCommitted.run() catch {
+          case e: Exception => System.err.println(s"MatchWriteBehind: Commit callback failed: ${e.getMessage}")
+        }
+      }
+    }
+  }
+
+  /**
+   * Drop the committed prefix of the journal (caller holds journalLock). A fully committed journal
+   * is truncated in place; otherwise, once the prefix reaches WRITE_BEHIND_COMPACT_BYTES, the
+   * uncommitted tail is copied to a new file that atomically replaces the journal.
+   */
+  private def compactJournal(): Unit = {
+    val committedEnd = if (uncommitted.isEmpty) journalEnd else uncommitted.first().longValue()
+    if (committedEnd == fileStart) return
+    try {
+      if (committedEnd == journalEnd) {
+        journal.truncate(0)
+        fileStart = journalEnd
+      } else if (committedEnd - fileStart >= Constants.WRITE_BEHIND_COMPACT_BYTES) {
+        val path = Paths.get(journalPath)
+        val tail = ByteBuffer.allocate((journalEnd - committedEnd).toInt)
+        val in = FileChannel.open(path, StandardOpenOption.READ)
+        try {
+          val from = committedEnd - fileStart
+          while (tail.hasRemaining && in.read(tail, from + tail.position()) > 0) {}
+        } finally {
+          in.close()
+        }
+        tail.flip()
+        val tmp = Paths.get(journalPath + ".tmp")
+        Files.write(tmp, java.util.Arrays.copyOf(tail.array(), tail.limit()))
+        journal.close()
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        journal = openJournal()
+        fileStart = committedEnd
+        journalEnd = fileStart + journal.size()
+      }
+    } catch {
+      case e: Exception =>
+        System.err.println(s"MatchWriteBehind: Journal compaction failed: ${e.getMessage}")
+        if (!journal.isOpen) journal = openJournal()
+    }
+  }
+
+  private def openJournal(): FileChannel = {
+    FileChannel.open(Paths.get(journalPath),
+      StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+  }
+
+  /** Commit matches left in the journal by a crash. Malformed (torn) lines are skipped. */
+  private def replayJournal(): Unit = {
+    val path = Paths.get(journalPath)
+    if (!Files.exists(path)) return
+    val writes = new java.util.ArrayList[MatchWrite]()
+    Files.readAllLines(path, StandardCharsets.UTF_8).forEach { line =>
+      val write = MatchWriteBehind.decode(line)
+      if (write != null) writes.add(write)
+    }
+    if (!writes.isEmpty) {
+      db.commitMatchBatch(writes)
+      println(s"MatchWriteBehind: Replayed ${writes.size()} journaled matches")
+    }
+    Files.write(path, Array.emptyByteArray)
+  }
+}
+
+object MatchWriteBehind {
+  def resolveJournalPath(): String = AuthDatabase.resolvePath("match_writes.journal")
+
+  // writeId|mapIndex|duration|matchType|playedAt|uuid,kills,deaths,rank;...|username,elo;...
+  private[server] def encode(w: MatchWrite): String = {
+    val results = w.results.map { case (uuid, kills, deaths, rank) => s"$uuid,$kills,$deaths,$rank" }.mkString(";")
+    val elo = w.eloUpdates.map { case (username, newElo) => s"$username,$newElo" }.mkString(";")
+    s"${w.writeId}|${w.mapIndex}|${w.durationMinutes}|${w.matchType}|${w.playedAt}|$results|$elo"
+  }
+
+  private[server] def decode(line: String): MatchWrite = {
+    try {
+      val parts = line.split("\\|", -1)
+      if (parts.length != 7) return null
+      val results = parts(5).split(";").filter(_.nonEmpty).map { r =>
+        val f = r.split(",")
+        (UUID.fromString(f(0)), f(1).toInt, f(2).toInt, f(3).toByte)
+      }.toSeq
+      val elo = parts(6).split(";").filter(_.nonEmpty).map { e =>
+        val f = e.split(",")
+        (f(0), f(1).toInt)
+      }.toSeq
+      MatchWrite(parts(0), parts(1).toInt, parts(2).toInt, parts(3).toByte, parts(4).toLong, results, elo)
+    } catch {
+      case _: Exception => null
+    }
+  }
+}
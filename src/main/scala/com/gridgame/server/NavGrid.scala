@@ -0,0 +1,296 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+import com.gridgame.common.model.WorldData
+
+/**
+ * Walkability snapshot of a map plus an LRU of BFS distance fields toward goal regions (4-neighbor
+ * steps, cells indexed y * width + x like WorldData's layers). Goals are coarse: a field's sources
+ * are every cell of one NAV_GOAL_REGION_CELLS square, so targets moving inside a region share its
+ * field. Following a field downhill from any cell is a shortest path into its region, so a path
+ * query is a lookup of the four neighbors; the last few cells are left to a local search.
+ *
+ * A shared grid is never repaired: its fields are immutable once published and any instance may
+ * read them. An instance whose tiles change forks a private grid, with a smaller cache, and
+ * repairs its fields in place (single-threaded) as cells open or close.
+ */
+final class NavGrid private (val width: Int, val height: Int, walkable: Array[Long], capacity: Int) {
+  private val cells = width * height
+  val regionSize: Int = Constants.NAV_GOAL_REGION_CELLS
+  private val regionCols = (width + regionSize - 1) / regionSize
+  // goal region -> distance field, least recently used first
+  private val fields = new java.util.LinkedHashMap[Integer, Array[Int]](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: java.util.Map.Entry[Integer, Array[Int]]): Boolean =
+      size() > capacity
+  }
+
+  // Repair scratch, only ever allocated on forked grids
+  private lazy val seen = new Array[Int](cells)
+  private lazy val lost = new Array[Int](cells)
+  private lazy val affected = new Array[Int](cells)
+  private lazy val seeds = new Array[Long](cells)
+  private lazy val repairQueue = new Array[Int](cells)
+  private var generation = 0
+
+  def isWalkable(cell: Int): Boolean = (walkable(cell >>> 6) & (1L << cell)) != 0L
+
+  /** Goal region containing cell (x, y), for field. */
+  def regionOf(x: Int, y: Int): Int = (y / regionSize) * regionCols + x / regionSize
+
+  /**
+   * Distance field toward region (0 on its cells, UNREACHABLE where there is no path), built and
+   * cached on first use. queue is the caller's scratch, at least width * height long. Don't
+   * modify the result.
+   */
+  def field(region: Int, queue: Array[Int]): Array[Int] = {
+    val key = Integer.valueOf(region)
+    val cached = fields.synchronized { fields.get(key) }
+    if (cached != null) return cached
+    val built = build(region, queue)
+    fields.synchronized {
+      val raced = fields.get(key)
+      if (raced != null) raced
+      else {
+        fields.put(key, built)
+        built
+      }
+    }
+  }
+
+  /**
+   * Private copy of this grid, repairable through setWalkable. Only the most recently used
+   * NAV_FORKED_FIELD_CAPACITY fields are copied; the rest are rebuilt if asked for again.
+   */
+  def fork(): NavGrid = {
+    val copy = new NavGrid(width, height, walkable.clone(), Constants.NAV_FORKED_FIELD_CAPACITY)
+    fields.synchronized {
+      var skip = fields.size() - Constants.NAV_FORKED_FIELD_CAPACITY
+      fields.forEach { (region, dist) =>
+        if (skip > 0) skip -= 1 else copy.fields.put(region, dist.clone())
+      }
+    }
+    copy
+  }
+
+  /** Open or close one cell and repair every cached field. Forked grids only, from one thread. */
+  def setWalkable(cell: Int, value: Boolean): Unit = {
+    if (isWalkable(cell) == value) return
+    if (value) walkable(cell >>> 6) |= (1L << cell) else walkable(cell >>> 6) &= ~(1L << cell)
+    fields.values().forEach(dist => if (value) lower(dist, cell) else raise(dist, cell))
+  }
+
+  private def build(region: Int, queue: Array[Int]): Array[Int] = {
+    val dist = new Array[Int](cells)
+    java.util.Arrays.fill(dist, NavGrid.UNREACHABLE)
+    // Every cell of the region is a source, walkable or not (e.g. a phased player standing in a wall)
+    val x0 = (region % regionCols) * regionSize
+    val y0 = (region / regionCols) * regionSize
+    var tail = 0
+    var y = y0
+    while (y < Math.min(y0 + regionSize, height)) {
+      var x = x0
+      while (x < Math.min(x0 + regionSize, width)) {
+        dist(y * width + x) = 0
+        queue(tail) = y * width + x
+        tail += 1
+        x += 1
+      }
+      y += 1
+    }
+    var head = 0
+    while (head < tail) {
+      val c = queue(head)
+      head += 1
+      tail = relax(dist, c, queue, tail)
+    }
+    dist
+  }
+
+  /** Lower c's walkable neighbors to dist(c) + 1, appending each one improved to queue. Returns the new tail. */
+  private def relax(dist: Array[Int], c: Int, queue: Array[Int], tail0: Int): Int = {
+    val d = dist(c) + 1
+    val x = c % width
+    var tail = tail0
+    if (x > 0 && d < dist(c - 1) && isWalkable(c - 1)) {
+      dist(c - 1) = d
+      queue(tail) = c - 1
+      tail += 1
+    }
+    if (x < width - 1 && d < dist(c + 1) && isWalkable(c + 1)) {
+      dist(c + 1) = d
+      queue(tail) = c + 1
+      tail += 1
+    }
+    if (c >= width && d < dist(c - width) && isWalkable(c - width)) {
+      dist(c - width) = d
+      queue(tail) = c - width
+      tail += 1
+    }
+    if (c + width < cells && d < dist(c + width) && isWalkable(c + width)) {
+      dist(c + width) = d
+      queue(tail) = c + width
+      tail += 1
+    }
+    tail
+  }
+
+  /** Smallest neighbor distance + 1 over neighbors with a path, or UNREACHABLE. */
+  private def bestThroughNeighbor(dist: Array[Int], c: Int): Int = {
+    val x = c % width
+    var best = NavGrid.UNREACHABLE
+    if (x > 0 && dist(c - 1) < best) best = dist(c - 1)
+    if (x < width - 1 && dist(c + 1) < best) best = dist(c + 1)
+    if (c >= width && dist(c - width) < best) best = dist(c - width)
+    if (c + width < cells && dist(c + width) < best) best = dist(c + width)
+    if (best == NavGrid.UNREACHABLE) best else best + 1
+  }
+
+  /** A cell opened: give it its best neighbor distance and spread any improvement outward. */
+  private def lower(dist: Array[Int], cell: Int): Unit = {
+    val d = bestThroughNeighbor(dist, cell)
+    if (d >= dist(cell)) return
+    dist(cell) = d
+    val queue = repairQueue
+    queue(0) = cell
+    var head = 0
+    var tail = 1
+    while (head < tail) {
+      val c = queue(head)
+      head += 1
+      tail = relax(dist, c, queue, tail)
+    }
+  }
+
+  /**
+   * A cell closed. Cells whose every shortest path ran through it lose their distance: find them
+   * level by level outward (a cell is lost when no neighbor one step closer survives), reset them,
+   * then re-seed each from its surviving neighbors and propagate in distance order.
+   */
+  private def raise(dist: Array[Int], cell: Int): Unit = {
+    val old = dist(cell)
+    if (old == 0 || old == NavGrid.UNREACHABLE) return // the goal region stays a source
+    dist(cell) = NavGrid.UNREACHABLE
+    if (generation == Int.MaxValue) {
+      java.util.Arrays.fill(seen, 0)
+      java.util.Arrays.fill(lost, 0)
+      generation = 0
+    }
+    generation += 1
+    val gen = generation
+    val queue = repairQueue
+
+    // Candidates are queued in nondecreasing distance, so every cell one step closer is decided first
+    var head = 0
+    var tail = enqueueChildren(dist, cell, old, queue, 0, gen)
+    var lostCount = 0
+    while (head < tail) {
+      val c = queue(head)
+      head += 1
+      if (!hasSurvivingParent(dist, c, gen)) {
+        lost(c) = gen
+        affected(lostCount) = c
+        lostCount += 1
+        tail = enqueueChildren(dist, c, dist(c), queue, tail, gen)
+      }
+    }
+    if (lostCount == 0) return
+
+    var i = 0
+    while (i < lostCount) {
+      dist(affected(i)) = NavGrid.UNREACHABLE
+      i += 1
+    }
+    // Seed only from surviving neighbors (all seeds computed before any is written back)
+    var seedCount = 0
+    i = 0
+    while (i < lostCount) {
+      val c = affected(i)
+      val d = bestThroughNeighbor(dist, c)
+      if (d != NavGrid.UNREACHABLE) {
+        seeds(seedCount) = (d.toLong << 32) | c
+        seedCount += 1
+      }
+      i += 1
+    }
+    i = 0
+    while (i < seedCount) {
+      dist(seeds(i).toInt) = (seeds(i) >>> 32).toInt
+      i += 1
+    }
+    java.util.Arrays.sort(seeds, 0, seedCount)
+
+    // Two-queue Dijkstra: sorted seeds merged with the FIFO, both in nondecreasing distance
+    var si = 0
+    head = 0
+    tail = 0
+    while (si < seedCount || head < tail) {
+      val c =
+        if (head < tail && (si >= seedCount || dist(queue(head)) <= (seeds(si) >>> 32).toInt)) {
+          head += 1
+          queue(head - 1)
+        } else {
+          si += 1
+          seeds(si - 1).toInt
+        }
+      tail = relax(dist, c, queue, tail)
+    }
+  }
+
+  /** Queue c's unseen neighbors at distance d + 1 (cells that may have routed through c). */
+  private def enqueueChildren(dist: Array[Int], c: Int, d: Int, queue: Array[Int], tail0: Int, gen: Int): Int = {
+    val next = d + 1
+    val x = c % width
+    var tail = tail0
+    if (x > 0 && dist(c - 1) == next && seen(c - 1) != gen) {
+      seen(c - 1) = gen
+      queue(tail) = c - 1
+      tail += 1
+    }
+    if (x < width - 1 && dist(c + 1) == next && seen(c + 1) != gen) {
+      seen(c + 1) = gen
+      queue(tail) = c + 1
+      tail += 1
+    }
+    if (c >= width && dist(c - width) == next && seen(c - width) != gen) {
+      seen(c - width) = gen
+      queue(tail) = c - width
+      tail += 1
+    }
+    if (c + width < cells && dist(c + width) == next && seen(c + width) != gen) {
+      seen(c + width) = gen
+      queue(tail) = c + width
+      tail += 1
+    }
+    tail
+  }
+
+  private def hasSurvivingParent(dist: Array[Int], c: Int, gen: Int): Boolean = {
+    val parent = dist(c) - 1
+    val x = c % width
+    (x > 0 && dist(c - 1) == parent && lost(c - 1) != gen) ||
+      (x < width - 1 && dist(c + 1) == parent && lost(c + 1) != gen) ||
+      (c >= width && dist(c - width) == parent && lost(c - width) != gen) ||
+      (c + width < cells && dist(c + width) == parent && lost(c + width) != gen)
+  }
+}
+
+object NavGrid {
+  val UNREACHABLE: Int = Int.MaxValue
+
+  def fromWorld(world: WorldData): NavGrid = {
+    val width = world.width
+    val height = world.height
+    val bits = new Array[Long]((width * height + 63) >>> 6)
+    var y = 0
+    while (y < height) {
+      var x = 0
+      while (x < width) {
+        val i = y * width + x
+        if (world.isWalkable(x, y)) bits(i >>> 6) |= (1L << i)
+        x += 1
+      }
+      y += 1
+    }
+    new NavGrid(width, height, bits, Constants.NAV_FIELD_CACHE_CAPACITY)
+  }
+}
@@ -0,0 +1,84 @@
+package com.gridgame.server
+
+import com.gridgame.common.model.WorldData
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Navigation grids for every map in play, one per map, shared by all instances running it. Bots
+ * in every instance read (and warm) the same goal fields until their own tiles change.
+ */
+class NavigationService {
+  private val grids = new ConcurrentHashMap[String, NavGrid]()
+
+  /** The shared grid for worldFile, built from world on first use. world must be unmodified. */
+  def shared(worldFile: String, world: WorldData): NavGrid = {
+    grids.computeIfAbsent(s"$worldFile:${world.width}x${world.height}", _ => NavGrid.fromWorld(world))
+  }
+}
+
+/**
+ * One instance's navigation. Starts on the map's shared grid; the first tile change that alters
+ * walkability forks a private grid, which later changes repair incrementally. Changes may be
+ * reported from any thread and are applied by sync on the bot tick, the only reader.
+ */
+final class Navigator(service: NavigationService, instance: GameInstance) {
+  // Changed cells as (x << 32 | y), applied on the next sync
+  private val pending = new ConcurrentLinkedQueue[java.lang.Long]()
+  private var world: WorldData = _
+  private var grid: NavGrid = _
+  private var forked = false
+  private var queue: Array[Int] = _
+
+  def tileChanged(x: Int, y: Int): Unit = {
+    pending.add(java.lang.Long.valueOf((x.toLong << 32) | (y.toLong & 0xFFFFFFFFL)))
+  }
+
+  /** Bind to the instance's world and apply reported tile changes. Call at the start of a bot tick. */
+  def sync(): Unit = {
+    val w = instance.world
+    if (w == null) return
+    if (w ne world) bind(w)
+    var packed = pending.poll()
+    while (packed != null) {
+      val x = (packed.longValue() >> 32).toInt
+      val y = packed.longValue().toInt
+      if (x >= 0 && x < w.width && y >= 0 && y < w.height) {
+        val cell = y * w.width + x
+        val walkable = w.isWalkable(x, y)
+        if (grid.isWalkable(cell) != walkable) {
+          if (!forked) {
+            grid = grid.fork()
+            forked = true
+          }
+          grid.setWalkable(cell, walkable)
+        }
+      }
+      packed = pending.poll()
+    }
+  }
+
+  /**
+   * Distance field toward the goal region containing (x, y) over this instance's walkability
+   * (see NavGrid), or null out of bounds or before sync.
+   */
+  def field(x: Int, y: Int): Array[Int] = {
+    if (grid == null || x < 0 || x >= grid.width || y < 0 || y >= grid.height) return null
+    grid.field(grid.regionOf(x, y), queue)
+  }
+
+  private def bind(w: WorldData): Unit = {
+    world = w
+    queue = new Array[Int](w.width * w.height)
+    if (w.base != null) {
+      // The base is never changed, so it seeds the shared grid; replay the overlay's changes so far
+      grid = service.shared(instance.worldFile, w.base)
+      forked = false
+      w.forEachOverride((x, y, _) => tileChanged(x, y))
+    } else {
+      grid = NavGrid.fromWorld(w).fork()
+      forked = true
+    }
+  }
+}
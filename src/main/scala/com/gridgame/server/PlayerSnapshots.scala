@@ -0,0 +1,205 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+import com.gridgame.common.model.Player
+import com.gridgame.common.protocol.EntityHandles
+import com.gridgame.common.protocol.Packet
+import com.gridgame.common.protocol.PlayerSnapshotPacket
+import com.gridgame.common.protocol.SnapshotField
+import com.gridgame.common.protocol.SnapshotFrame
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.UUID
+
+/**
+ * Per-viewer delta-compressed player state for one GameInstance. Each snapshot carries only the
+ * fields that changed since the newest snapshot the viewer acked, so an idle player costs nothing
+ * and a moving one costs four bytes. Lost snapshots need no resend: the next one is still diffed
+ * against the last ack. Runs on the instance's tick thread only, including ack().
+ */
+class PlayerSnapshots(instance: GameInstance) {
+  private val capacity = Constants.MAX_SNAPSHOT_SLOTS
+  private val historyMask = Constants.SNAPSHOT_HISTORY - 1
+  private val partBytes = PlayerSnapshotPacket.ENTRY_BYTES
+
+  private val slotOwners = new Array[UUID](capacity)
+  private val slotByPlayer = new java.util.HashMap[UUID, Integer]()
+  private val current = new SnapshotFrame(capacity)
+  private val viewers = new java.util.HashMap[UUID, ViewerState]()
+
+  // Encode scratch: one 36-byte section per part, worst case one full entry per part
+  private val parts = ByteBuffer.allocate(capacity * partBytes).order(ByteOrder.BIG_ENDIAN)
+  private val partEntries = new Array[Int](capacity)
+
+  private class ViewerState {
+    val ring: Array[SnapshotFrame] = Array.fill(Constants.SNAPSHOT_HISTORY)(new SnapshotFrame(capacity))
+    var nextSeq: Int = 0
+    var ackedSeq: Int = -1
+    var lastFlagRefreshAt: Long = 0L
+  }
+
+  /** Record a client ack. Older or duplicate acks are ignored. */
+  def ack(playerId: UUID, snapshotSeq: Int): Unit = {
+    val v = viewers.get(playerId)
+    if (v == null) return
+    val diff = (snapshotSeq - v.ackedSeq) & 0xFFFF
+    if (v.ackedSeq < 0 || (diff != 0 && diff < 0x8000)) v.ackedSeq = snapshotSeq
+  }
+
+  /** Capture every player's state and send each viewer its delta. Caller flushes afterwards. */
+  def tick(now: Long): Unit = {
+    capture()
+    instance.registry.forEachPlayer { viewer =>
+      if (viewer.getUdpAddress != null) {
+        var v = viewers.get(viewer.getId)
+        if (v == null) {
+          v = new ViewerState
+          viewers.put(viewer.getId, v)
+        }
+        try {
+          sendTo(viewer, v, now)
+        } catch {
+          case e: Exception =>
+            System.err.println(s"PlayerSnapshots: send to ${viewer.getId.toString.substring(0, 8)} failed: ${e.getMessage}")
+        }
+      }
+    }
+    viewers.keySet().removeIf(id => !instance.registry.contains(id))
+  }
+
+  def clear(): Unit = {
+    viewers.clear()
+    slotByPlayer.clear()
+    java.util.Arrays.fill(slotOwners.asInstanceOf[Array[AnyRef]], null)
+    current.clear()
+  }
+
+  private def capture(): Unit = {
+    // Release slots of players that left; a reused slot is re-bound on clients by IDENTITY
+    var slot = 0
+    while (slot < capacity) {
+      val owner = slotOwners(slot)
+      if (owner != null && !instance.registry.contains(owner)) {
+        slotOwners(slot) = null
+        slotByPlayer.remove(owner)
+      }
+      slot += 1
+    }
+    java.util.Arrays.fill(current.present, false)
+    instance.registry.forEachPlayer { p =>
+      val s = slotFor(p.getId)
+      val handle = instance.registry.handles.handleOf(p.getId)
+      if (s >= 0 && handle != EntityHandles.NONE) {
+        val pos = p.getPosition
+        current.set(s, handle, pos.getX, pos.getY, p.getHealth, instance.playerFlags(p),
+          p.getChargeLevel, p.getColorRGB, p.getCharacterId, p.getTeamId)
+      }
+    }
+  }
+
+  private def slotFor(playerId: UUID): Int = {
+    val existing = slotByPlayer.get(playerId)
+    if (existing != null) return existing.intValue()
+    var slot = 0
+    while (slot < capacity) {
+      if (slotOwners(slot) == null) {
+        slotOwners(slot) = playerId
+        slotByPlayer.put(playerId, Integer.valueOf(slot))
+        return slot
+      }
+      slot += 1
+    }
+    -1
+  }
+
+  private def sendTo(viewer: Player, v: ViewerState, now: Long): Unit = {
+    val seq = v.nextSeq
+    val frame = v.ring(seq & historyMask)
+    var base: SnapshotFrame = null
+    if (v.ackedSeq >= 0) {
+      val candidate = v.ring(v.ackedSeq & historyMask)
+      // The acked frame may have been overwritten if the viewer fell SNAPSHOT_HISTORY behind
+      if (candidate.seq == v.ackedSeq && (candidate ne frame)) base = candidate
+    }
+    if (base == null) v.ackedSeq = -1
+
+    val selfSlot = slotByPlayer.get(viewer.getId)
+    val viewerPos = viewer.getPosition
+    val radius = Constants.AOI_RADIUS_CELLS
+    frame.clear()
+    var slot = 0
+    while (slot < capacity) {
+      if (current.present(slot)) {
+        val isSelf = selfSlot != null && selfSlot.intValue() == slot
+        if (isSelf || !Constants.AOI_ENABLED ||
+            (Math.abs(current.x(slot) - viewerPos.getX) <= radius && Math.abs(current.y(slot) - viewerPos.getY) <= radius)) {
+          frame.copySlot(current, slot)
+          // The client owns its own movement; only echo it alongside other self changes
+          if (isSelf && base != null && base.present(slot) && base.handles(slot) == frame.handles(slot)) {
+            frame.x(slot) = base.x(slot)
+            frame.y(slot) = base.y(slot)
+          }
+        }
+      }
+      slot += 1
+    }
+
+    val refreshFlags = now - v.lastFlagRefreshAt >= Constants.SNAPSHOT_FLAG_REFRESH_MS
+    parts.clear()
+    var partCount = 0
+    var partStart = 0
+    var entries = 0
+    slot = 0
+    while (slot < capacity) {
+      var mask = frame.diffMask(slot, base)
+      if (refreshFlags && frame.present(slot) && frame.flags(slot) != 0) mask |= SnapshotField.FLAGS
+      if (mask != 0) {
+        val size = SnapshotFrame.entrySize(mask)
+        if (entries == 0 || parts.position() - partStart + size > partBytes) {
+          if (entries > 0) {
+            partEntries(partCount - 1) = entries
+            entries = 0
+          }
+          partStart = partCount * partBytes
+          java.util.Arrays.fill(parts.array(), partStart, partStart + partBytes, 0.toByte)
+          parts.position(partStart)
+          partCount += 1
+        }
+        frame.encodeEntry(parts, slot, mask, base)
+        entries += 1
+      }
+      slot += 1
+    }
+    if (partCount == 0) {
+      // Nothing changed since the ack: send nothing and keep the sequence number
+      frame.seq = -1
+      return
+    }
+    partEntries(partCount - 1) = entries
+    frame.seq = seq
+    v.nextSeq = (seq + 1) & 0xFFFF
+    if (v.nextSeq == PlayerSnapshotPacket.NO_BASELINE) v.nextSeq = 0
+    if (refreshFlags) v.lastFlagRefreshAt = now
+
+    val baselineSeq = if (base != null) base.seq else PlayerSnapshotPacket.NO_BASELINE
+    val timestamp = Packet.getCurrentTimestamp
+    val bytes = parts.array()
+    var i = 0
+    while (i < partCount) {
+      val packet = new PlayerSnapshotPacket(
+        instance.server.getNextSequenceNumber,
+        viewer.getId,
+        timestamp,
+        seq,
+        baselineSeq,
+        i,
+        partCount,
+        partEntries(i),
+        java.util.Arrays.copyOfRange(bytes, i * partBytes, (i + 1) * partBytes)
+      )
+      instance.server.sendRawToPlayerBuffered(packet.serialize(), false, viewer)
+      i += 1
+    }
+  }
+}
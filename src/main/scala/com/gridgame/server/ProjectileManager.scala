@@ -1,32 +1,87 @@
 package com.gridgame.server
 
+import com.gridgame.common.Constants
 import com.gridgame.common.model.Player
-import com.gridgame.common.model.Projectile
 import com.gridgame.common.model.ProjectileDef
 import com.gridgame.common.model.WorldData
+import com.gridgame.common.protocol.EntityHandles
 import com.gridgame.common.protocol.ProjectileAction
 import com.gridgame.common.protocol.ProjectilePacket
 
 import java.util.UUID
-import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.atomic.AtomicInteger
-import scala.collection.mutable.ArrayBuffer
-import scala.jdk.CollectionConverters._
-
-sealed trait ProjectileEvent
-case class ProjectileMoved(projectile: Projectile) extends ProjectileEvent
-case class ProjectileHit(projectile: Projectile, targetId: UUID) extends ProjectileEvent
-case class ProjectileKill(projectile: Projectile, targetId: UUID) extends ProjectileEvent
-case class ProjectileAoEHit(projectile: Projectile, targetId: UUID) extends ProjectileEvent
-case class ProjectileAoEKill(projectile: Projectile, targetId: UUID) extends ProjectileEvent
-case class ProjectileDespawned(projectile: Projectile) extends ProjectileEvent
-case class ProjectileAoE(projectile: Projectile) extends ProjectileEvent
 
+/**
+ * Server-side projectile simulation. Projectiles live in a struct-of-arrays pool indexed by slot:
+ * primitive columns for position, velocity, range and replication state, a per-slot pierce bitset
+ * over the registry's player handles, and a free list so slots are reused instead of allocated per spawn.
+ * The live slots are kept dense in `active`, so the tick walks contiguous arrays with no boxing
+ * or hashing. Capacity follows MAX_PROJECTILES_PER_PLAYER x the highest handle seen.
+ *
+ * tick() reports what happened through a preallocated event ring (kind, slot, target handle) that
+ * the caller reads in place with eventKind/eventSlot/eventTargetId, so a steady-state tick
+ * allocates nothing here.
+ *
+ * Movement is swept (see sweep) but follows the same wall, ricochet and range rules as
+ * Projectile.advanceSubStep, the client's simulation; keep the two in sync. Single-threaded: only the instance's tick thread may call into it (gauge aside).
+ */
 class ProjectileManager(registry: ClientRegistry, isTeammate: (UUID, UUID) => Boolean = (_, _) => false) {
-  private val projectiles = new ConcurrentHashMap[Int, Projectile]()
-  private val nextId = new AtomicInteger(1)
-  // Per-player active projectile count (avoids O(n) iteration on every spawn)
-  private val playerProjectileCount = new ConcurrentHashMap[UUID, AtomicInteger]()
+  import ProjectileManager._
+
+  private var capacity = Constants.MAX_PROJECTILES_PER_PLAYER * 8
+  private var ids = new Array[Int](capacity)
+  private var owners = new Array[UUID](capacity)
+  private var ownerHandles = new Array[Int](capacity)
+  private var xs = new Array[Float](capacity)
+  private var ys = new Array[Float](capacity)
+  private var dxs = new Array[Float](capacity)
+  private var dys = new Array[Float](capacity)
+  private var speeds = new Array[Float](capacity)          // |(dx, dy)|, cached to avoid per-step sqrt
+  private var speedMultipliers = new Array[Float](capacity)
+  private var distances = new Array[Float](capacity)
+  private var maxRanges = new Array[Double](capacity)
+  private var types = new Array[Byte](capacity)
+  private var chargeLevels = new Array[Int](capacity)
+  private var colors = new Array[Int](capacity)
+  private var flags = new Array[Int](capacity)
+  private var bounces = new Array[Int](capacity)
+  private var ticksSinceCorrection = new Array[Int](capacity)
+  private var hitCounts = new Array[Int](capacity)
+  // Pierce bitset: maskWords longs per slot, bit = player handle
+  private var maskWords = 1
+  private var hitMasks = new Array[Long](capacity)
+
+  // Dense list of live slots (activePos is each slot's index in it, for O(1) swap-remove)
+  private var active = new Array[Int](capacity)
+  private var activePos = new Array[Int](capacity)
+  private var activeCount = 0
+  private var highWater = 0
+  private var freeSlots = new Array[Int](capacity)
+  private var freeCount = 0
+  // Slots ended this tick; returned to the free list by releaseRetired() once events are handled
+  private var retired = new Array[Int](capacity)
+  private var retiredCount = 0
+
+  private var nextId = 1
+
+  // Scratch results of earliestHit / traverse (tick thread only)
+  private var hitT = 0f
+  private var wallAxis = 0
+  private var wallCellX = 0
+  private var wallCellY = 0
+  private var wallBounces = false
+
+  // Event ring for the current tick: parallel columns, reset at the start of each tick
+  private var eventKinds = new Array[Byte](capacity * 2)
+  private var eventSlots = new Array[Int](capacity * 2)
+  private var eventTargets = new Array[Int](capacity * 2) // player handle, -1 if none
+  private var eventCount = 0
+
+  // The registry's entity handle (dense, never reused within the instance) indexes per-player
+  // projectile counts, the pierce bitset and this tick's handle -> Player table. Those cover
+  // handles below handleLimit.
+  private var handleLimit = 1
+  private var ownerCounts = new Array[Int](8)
+  private var handlePlayers = new Array[Player](8)
 
   // Async gauge: projectiles in flight. Held as AutoCloseable so the callback can be
   // unregistered when the instance ends — otherwise the gauge keeps reporting stale
@@ -37,315 +92,729 @@ class ProjectileManager(registry: ClientRegistry, isTeammate: (UUID, UUID) => Bo
     .setUnit("{projectile}")
     .ofLongs()
     .buildWithCallback { obs =>
-      obs.record(projectiles.size().toLong, io.opentelemetry.api.common.Attributes.empty())
+      obs.record(activeCount.toLong, io.opentelemetry.api.common.Attributes.empty())
     }
 
-  /** Pre-filtered snapshot of alive, hittable players rebuilt once per tick.
-   *  Uses a pre-allocated array to avoid per-tick allocation. */
+  /** Pre-filtered snapshot of alive, hittable players rebuilt once per tick, with their handles
+   *  and cell positions. Uses pre-allocated arrays to avoid per-tick allocation. */
   private var hittablePlayers: Array[Player] = new Array[Player](64)
+  private var hittableHandles: Array[Int] = new Array[Int](64)
+  private var hittableXs: Array[Int] = new Array[Int](64)
+  private var hittableYs: Array[Int] = new Array[Int](64)
   private var hittableCount: Int = 0
-  /** Spatial grid for efficient nearby-player lookups during collision detection.
-   *  Uses a pre-allocated HashMap that is cleared each tick instead of reallocated. */
-  private val gridCellSize = 4
-  private val gridCells = new java.util.HashMap[Long, ArrayBuffer[Player]]()
-  private val activeKeys = new ArrayBuffer[Long]()
-
-  private def gridKey(cx: Int, cy: Int): Long = (cx.toLong << 32) | (cy.toLong & 0xFFFFFFFFL)
-
-  private def rebuildGrid(allPlayers: java.util.Collection[Player]): Unit = {
-    // Clear previous tick's data without reallocating the HashMap
-    var i = 0
-    while (i < activeKeys.length) {
-      val buf = gridCells.get(activeKeys(i))
-      if (buf != null) buf.clear()
-      i += 1
-    }
-    activeKeys.clear()
+  /** Dense grid over the hittable players for collision and AoE radius queries. */
+  private val hitGrid = new CellGrid(4)
+
+  /** Every player (alive or not) for area-of-interest broadcasts, bucketed in a coarse grid whose
+   *  cell size equals the interest radius, so any query only has to look at its 3x3 neighborhood. */
+  private var viewerPlayers: Array[Player] = new Array[Player](64)
+  private var viewerXs: Array[Int] = new Array[Int](64)
+  private var viewerYs: Array[Int] = new Array[Int](64)
+  private var viewerCount: Int = 0
+  private val viewerGrid = new CellGrid(Constants.AOI_RADIUS_CELLS)
+
+  private def rebuildGrid(allPlayers: java.util.Collection[Player], world: WorldData): Unit = {
+    java.util.Arrays.fill(handlePlayers.asInstanceOf[Array[AnyRef]], 0, handleLimit, null)
 
-    // Also build the flat hittable array (reuse pre-allocated buffer)
     var count = 0
+    var viewers = 0
     val iter = allPlayers.iterator()
     while (iter.hasNext) {
       val player = iter.next()
-      if (!player.isDead && !player.hasShield && !player.isPhased) {
-        // Grow array if needed
+      val handle = handleFor(player.getId)
+      if (handle != EntityHandles.NONE) handlePlayers(handle) = player
+      val pos = player.getPosition
+      // Grow arrays if needed
+      if (viewers >= viewerPlayers.length) {
+        val n = viewerPlayers.length * 2
+        viewerPlayers = java.util.Arrays.copyOf(viewerPlayers, n)
+        viewerXs = java.util.Arrays.copyOf(viewerXs, n)
+        viewerYs = java.util.Arrays.copyOf(viewerYs, n)
+      }
+      viewerPlayers(viewers) = player
+      viewerXs(viewers) = pos.getX
+      viewerYs(viewers) = pos.getY
+      viewers += 1
+      if (handle != EntityHandles.NONE && !player.isDead && !player.hasShield && !player.isPhased) {
         if (count >= hittablePlayers.length) {
-          val newArr = new Array[Player](hittablePlayers.length * 2)
-          System.arraycopy(hittablePlayers, 0, newArr, 0, count)
-          hittablePlayers = newArr
+          val n = hittablePlayers.length * 2
+          hittablePlayers = java.util.Arrays.copyOf(hittablePlayers, n)
+          hittableHandles = java.util.Arrays.copyOf(hittableHandles, n)
+          hittableXs = java.util.Arrays.copyOf(hittableXs, n)
+          hittableYs = java.util.Arrays.copyOf(hittableYs, n)
         }
         hittablePlayers(count) = player
+        hittableHandles(count) = handle
+        hittableXs(count) = pos.getX
+        hittableYs(count) = pos.getY
         count += 1
-        val pos = player.getPosition
-        val cx = pos.getX / gridCellSize
-        val cy = pos.getY / gridCellSize
-        val k = gridKey(cx, cy)
-        var cell = gridCells.get(k)
-        if (cell == null) {
-          cell = new ArrayBuffer[Player](4)
-          gridCells.put(k, cell)
-        }
-        if (cell.isEmpty) activeKeys += k
-        cell += player
       }
     }
+    // Drop references to players that left since the last rebuild
+    java.util.Arrays.fill(hittablePlayers.asInstanceOf[Array[AnyRef]], count, math.max(count, hittableCount), null)
+    java.util.Arrays.fill(viewerPlayers.asInstanceOf[Array[AnyRef]], viewers, math.max(viewers, viewerCount), null)
     hittableCount = count
+    viewerCount = viewers
+    hitGrid.rebuild(hittableXs, hittableYs, count, world.width, world.height)
+    viewerGrid.rebuild(viewerXs, viewerYs, viewers, world.width, world.height)
   }
 
-  /** Iterate players in the 3x3 neighborhood of the given world position.
-   *  Calls `fn` for each nearby player. No allocation per call. */
-  @inline private def forEachNearby(x: Float, y: Float)(fn: Player => Unit): Unit = {
-    val cx = (x / gridCellSize).toInt
-    val cy = (y / gridCellSize).toInt
-    var dy = -1
-    while (dy <= 1) {
-      var dx = -1
-      while (dx <= 1) {
-        val cell = gridCells.get(gridKey(cx + dx, cy + dy))
-        if (cell != null) {
-          var i = 0
-          while (i < cell.length) {
-            fn(cell(i))
-            i += 1
+  /**
+   * Handle of the first player the segment (x0, y0) + t * (ux, uy), t in [0, length], passes within
+   * hitRadius of (segment vs circle around the player's cell center), or -1; sets hitT. Only looks
+   * at grid cells under the segment's bounding box. Skips the owner, players already pierced and
+   * teammates. Plain loops rather than a callback so the search allocates nothing.
+   */
+  private def earliestHit(slot: Int, x0: Float, y0: Float, ux: Float, uy: Float, length: Float, hitRadius: Float): Int = {
+    if (hitGrid.size == 0) return -1
+    val x1 = x0 + ux * length
+    val y1 = y0 + uy * length
+    val ownerId = owners(slot)
+    val ownerHandle = ownerHandles(slot)
+    val radiusSq = hitRadius * hitRadius
+    var target = -1
+    var best = Float.MaxValue
+    // Player centers sit at cell + 0.5, hence the extra cell on the low side
+    val maxCx = hitGrid.columnOf(math.max(x0, x1) + hitRadius)
+    val maxCy = hitGrid.rowOf(math.max(y0, y1) + hitRadius)
+    var cy = hitGrid.rowOf(math.min(y0, y1) - hitRadius - 1f)
+    while (cy <= maxCy) {
+      var cx = hitGrid.columnOf(math.min(x0, x1) - hitRadius - 1f)
+      while (cx <= maxCx) {
+        val cell = hitGrid.cell(cx, cy)
+        var k = hitGrid.start(cell)
+        val end = k + hitGrid.count(cell)
+        while (k < end) {
+          val i = hitGrid.entry(k)
+          k += 1
+          val handle = hittableHandles(i)
+          if (handle != ownerHandle && !hasHit(slot, handle)) {
+            // |f + t*u|^2 = r^2 with f = start - center and |u| = 1
+            val fx = x0 - (hittableXs(i) + 0.5f)
+            val fy = y0 - (hittableYs(i) + 0.5f)
+            val c = fx * fx + fy * fy - radiusSq
+            val t = if (c <= 0f) 0f else {
+              val b = fx * ux + fy * uy
+              val disc = b * b - c
+              if (b >= 0f || disc < 0f) -1f else -b - math.sqrt(disc).toFloat
+            }
+            if (t >= 0f && t <= length && t < best && !isTeammate(ownerId, hittablePlayers(i).getId)) {
+              best = t
+              target = handle
+            }
           }
         }
-        dx += 1
+        cx += 1
       }
-      dy += 1
+      cy += 1
     }
+    hitT = best
+    target
   }
 
-  /** Iterate players within a configurable radius using the spatial grid.
-   *  Expands the grid cell search to cover the given radius. */
+  /** Iterate hittable (alive, unshielded, unphased) players in the grid cells covering radius
+   *  around the given position. Callers apply their own exact distance test. */
   def forEachNearbyPlayer(x: Float, y: Float, radius: Float)(fn: Player => Unit): Unit = {
-    val cellRadius = (radius / gridCellSize).toInt + 1
-    val cx = (x / gridCellSize).toInt
-    val cy = (y / gridCellSize).toInt
-    var dy = -cellRadius
-    while (dy <= cellRadius) {
-      var dx = -cellRadius
-      while (dx <= cellRadius) {
-        val cell = gridCells.get(gridKey(cx + dx, cy + dy))
-        if (cell != null) {
-          var i = 0
-          while (i < cell.length) {
-            fn(cell(i))
-            i += 1
-          }
+    if (hitGrid.size == 0) return
+    val x1 = hitGrid.columnOf(x + radius)
+    val y1 = hitGrid.rowOf(y + radius)
+    var cy = hitGrid.rowOf(y - radius - 1f)
+    while (cy <= y1) {
+      var cx = hitGrid.columnOf(x - radius - 1f)
+      while (cx <= x1) {
+        val cell = hitGrid.cell(cx, cy)
+        var k = hitGrid.start(cell)
+        val end = k + hitGrid.count(cell)
+        while (k < end) {
+          fn(hittablePlayers(hitGrid.entry(k)))
+          k += 1
         }
-        dx += 1
+        cx += 1
       }
-      dy += 1
+      cy += 1
     }
   }
 
-  private val MAX_PROJECTILES_PER_PLAYER = 30
+  /** Iterate players whose area of interest (viewport plus margin) covers the given position.
+   *  Reflects positions as of the last tick's grid rebuild. */
+  def forEachViewer(x: Float, y: Float)(fn: Player => Unit): Unit = {
+    if (viewerGrid.size == 0) return
+    val radius = Constants.AOI_RADIUS_CELLS
+    val x1 = viewerGrid.columnOf(x + radius)
+    val y1 = viewerGrid.rowOf(y + radius)
+    var cy = viewerGrid.rowOf(y - radius)
+    while (cy <= y1) {
+      var cx = viewerGrid.columnOf(x - radius)
+      while (cx <= x1) {
+        val cell = viewerGrid.cell(cx, cy)
+        var k = viewerGrid.start(cell)
+        val end = k + viewerGrid.count(cell)
+        while (k < end) {
+          val player = viewerPlayers(viewerGrid.entry(k))
+          k += 1
+          // Exact test on the current position; the bucket is from the last rebuild
+          val pos = player.getPosition
+          if (math.abs(pos.getX - x) <= radius && math.abs(pos.getY - y) <= radius) fn(player)
+        }
+        cx += 1
+      }
+      cy += 1
+    }
+  }
 
-  def spawnProjectile(ownerId: UUID, x: Int, y: Int, dx: Float, dy: Float, colorRGB: Int, chargeLevel: Int = 0, projectileType: Byte = com.gridgame.common.model.ProjectileType.NORMAL): Projectile = {
+  /** Spawn a projectile one cell ahead of (x, y). Returns its slot, or -1 if the owner is at the per-player cap. */
+  def spawnProjectile(ownerId: UUID, x: Int, y: Int, dx: Float, dy: Float, colorRGB: Int, chargeLevel: Int = 0, projectileType: Byte = com.gridgame.common.model.ProjectileType.NORMAL): Int = {
     // Enforce per-player active projectile cap to prevent memory exhaustion (O(1) check)
-    val counter = playerProjectileCount.computeIfAbsent(ownerId, _ => new AtomicInteger(0))
-    if (counter.get() >= MAX_PROJECTILES_PER_PLAYER) return null
-
-    val id = nextId.getAndIncrement() & 0x7FFFFFFF // Ensure positive IDs after overflow
+    val owner = handleFor(ownerId)
+    if (owner == EntityHandles.NONE || ownerCounts(owner) >= Constants.MAX_PROJECTILES_PER_PLAYER) return -1
+
+    val slot = allocateSlot()
+    val pDef = ProjectileDef.get(projectileType)
+    ids(slot) = nextId
+    nextId = (nextId + 1) & 0x7FFFFFFF // Ensure positive IDs after overflow
+    owners(slot) = ownerId
+    ownerHandles(slot) = owner
     // Spawn the projectile one cell ahead in the velocity direction
-    val spawnX = x.toFloat + dx
-    val spawnY = y.toFloat + dy
-    val projectile = new Projectile(id, ownerId, spawnX, spawnY, dx, dy, colorRGB, chargeLevel, projectileType)
-    projectiles.put(id, projectile)
-    counter.incrementAndGet()
-    projectile
+    xs(slot) = x.toFloat + dx
+    ys(slot) = y.toFloat + dy
+    dxs(slot) = dx
+    dys(slot) = dy
+    speeds(slot) = math.sqrt(dx * dx + dy * dy).toFloat
+    speedMultipliers(slot) = pDef.effectiveSpeed(chargeLevel)
+    distances(slot) = 0f
+    maxRanges(slot) = pDef.effectiveMaxRange(chargeLevel)
+    types(slot) = projectileType
+    chargeLevels(slot) = chargeLevel
+    colors(slot) = colorRGB
+    flags(slot) = 0
+    bounces(slot) = pDef.ricochetCount
+    ticksSinceCorrection(slot) = 0
+    clearHits(slot)
+
+    activePos(slot) = activeCount
+    active(activeCount) = slot
+    activeCount += 1
+    ownerCounts(owner) += 1
+    slot
   }
 
-  def tick(world: WorldData): Seq[ProjectileEvent] = {
-    val events = ArrayBuffer[ProjectileEvent]()
-    val toRemove = ArrayBuffer[Int]()
+  /** Advance every projectile one tick. Returns the number of events recorded in the event ring. */
+  def tick(world: WorldData): Int = {
+    eventCount = 0
+    releaseRetired()
 
-    rebuildGrid(registry.getPlayerValues)
+    rebuildGrid(registry.getPlayerValues, world)
 
-    projectiles.values().asScala.foreach { projectile =>
-      val owner = registry.get(projectile.ownerId)
+    // Slots retired mid-loop are swap-removed from `active` afterwards, so this walk stays stable
+    val n = activeCount
+    var k = 0
+    while (k < n) {
+      val slot = active(k)
+      k += 1
+      val owner = handlePlayers(ownerHandles(slot))
       val steps = if (owner != null && owner.hasGemBoost) 2 else 1
-      var resolved = false
-      val pDef = ProjectileDef.get(projectile.projectileType)
-
-      // Sub-step movement so projectiles can't skip over non-walkable tiles.
-      val movePerTick = math.sqrt(projectile.dx * projectile.dx + projectile.dy * projectile.dy).toFloat * projectile.speedMultiplier
-      val subSteps = math.ceil(movePerTick / 0.5f).toInt.max(1)
-      val fraction = 1.0f / subSteps
-
-      var step = 0
-      while (step < steps && !resolved) {
-        var sub = 0
-        while (sub < subSteps && !resolved) {
-          projectile.moveStep(fraction)
-
-          val maxRange = pDef.effectiveMaxRange(projectile.chargeLevel)
-          if (projectile.getDistanceTraveled >= maxRange) {
-            // Boomerang: reverse direction at max range instead of despawning
-            if (pDef.boomerang && !projectile.isReturning) {
-              projectile.reverseDirection()
-              projectile.setReturning(true)
-              projectile.resetDistanceTraveled()
-              projectile.hitPlayers.clear() // can hit players again on return
-            } else {
-              toRemove += projectile.id
-              // AoE on max range (e.g. geyser, snare mine)
-              pDef.aoeOnMaxRange.foreach { aoe =>
-                events ++= applyAoEDamage(projectile, aoe.radius, aoe.damage, null, aoe.freezeDurationMs, aoe.rootDurationMs)
-              }
-              if (pDef.isExplosive) {
-                events += ProjectileAoE(projectile)
-              } else {
-                events += ProjectileDespawned(projectile)
-              }
-              resolved = true
-            }
-          } else if (projectile.isOutOfBounds(world)) {
-            toRemove += projectile.id
-            if (pDef.isExplosive) {
-              events += ProjectileAoE(projectile)
-            } else {
-              events += ProjectileDespawned(projectile)
-            }
-            resolved = true
-          } else if (projectile.hitsNonWalkable(world) && (!pDef.passesThroughWalls || projectile.hitsFence(world))) {
-            // Ricochet: bounce off walls instead of despawning
-            if (projectile.remainingBounces > 0 && !projectile.hitsFence(world)) {
-              projectile.ricochet(world)
-              // Don't resolve — projectile continues
-            } else {
-              toRemove += projectile.id
-              if (pDef.isExplosive) {
-                events += ProjectileAoE(projectile)
-              } else {
-                events += ProjectileDespawned(projectile)
-              }
-              resolved = true
-            }
-          } else {
-            var hitPlayer: Player = null
-            forEachNearby(projectile.getX, projectile.getY) { player =>
-              if (projectile.hitsPlayer(player) && !isTeammate(projectile.ownerId, player.getId)) {
-                hitPlayer = player
-              }
-            }
-
-            if (hitPlayer != null) {
-              // Explosive projectiles that explode on player hit (e.g. rocket)
-              if (pDef.explodesOnPlayerHit) {
-                toRemove += projectile.id
-                events += ProjectileAoE(projectile)
-                resolved = true
-              } else {
-                val damage = pDef.effectiveDamage(projectile.chargeLevel, projectile.getDistanceTraveled)
-                val newHealth = hitPlayer.synchronized {
-                  val h = hitPlayer.getHealth - damage
-                  hitPlayer.setHealth(h)
-                  h
-                }
-                // Pierce: track hit player and continue if pierce count not exhausted
-                projectile.hitPlayers += hitPlayer.getId
-                val canPierce = pDef.pierceCount > 0 && projectile.hitPlayers.size < pDef.pierceCount
-
-                if (!canPierce) {
-                  toRemove += projectile.id
-                }
-                if (newHealth <= 0) {
-                  events += ProjectileKill(projectile, hitPlayer.getId)
-                } else {
-                  events += ProjectileHit(projectile, hitPlayer.getId)
-                }
-
-                // AoE splash damage to nearby players (excluding the direct hit target)
-                pDef.aoeOnHit.foreach { aoe =>
-                  events ++= applyAoEDamage(projectile, aoe.radius, aoe.damage, hitPlayer.getId, aoe.freezeDurationMs, aoe.rootDurationMs)
-                }
-
-                if (!canPierce) {
-                  resolved = true
-                }
-              }
-            }
-          }
-          sub += 1
-        }
-        step += 1
-      }
+      val pDef = ProjectileDef.get(types(slot))
+      // Clients simulate one step per tick; extra gem-boost steps need an authoritative correction
+      if (steps > 1) flags(slot) |= FLAG_CORRECTION_PENDING
 
+      val resolved = sweep(slot, world, pDef, speeds(slot) * speedMultipliers(slot) * steps)
       if (!resolved) {
-        events += ProjectileMoved(projectile)
+        emit(EVENT_MOVED, slot, -1)
       }
     }
 
-    // Remove despawned/hit projectiles and decrement per-player counters
-    toRemove.foreach { id =>
-      val removed = projectiles.remove(id)
-      if (removed != null) {
-        val cnt = playerProjectileCount.get(removed.ownerId)
-        if (cnt != null) cnt.decrementAndGet()
-      }
+    // Drop retired slots from the live list and decrement per-player counters
+    var r = 0
+    while (r < retiredCount) {
+      val slot = retired(r)
+      val pos = activePos(slot)
+      val last = active(activeCount - 1)
+      active(pos) = last
+      activePos(last) = pos
+      activeCount -= 1
+      ownerCounts(ownerHandles(slot)) -= 1
+      r += 1
     }
 
-    events.toSeq
+    eventCount
   }
 
-  def getProjectile(id: Int): Projectile = projectiles.get(id)
+  /** Return slots retired by the last tick to the free list. Call once their events are handled. */
+  def releaseRetired(): Unit = {
+    var r = 0
+    while (r < retiredCount) {
+      val slot = retired(r)
+      owners(slot) = null
+      flags(slot) = 0
+      freeSlots(freeCount) = slot
+      freeCount += 1
+      r += 1
+    }
+    retiredCount = 0
+  }
+
+  // ---------- Event ring (valid until the next tick) ----------
+
+  def eventKind(i: Int): Byte = eventKinds(i)
+  def eventSlot(i: Int): Int = eventSlots(i)
+  /** The event's target player, or null for events without one. */
+  def eventTargetId(i: Int): UUID = {
+    val handle = eventTargets(i)
+    if (handle >= 0) registry.handles.resolve(handle) else null
+  }
 
-  def removeProjectile(id: Int): Unit = projectiles.remove(id)
+  private def emit(kind: Byte, slot: Int, targetHandle: Int): Unit = {
+    if (eventCount == eventKinds.length) {
+      // Rare: more events than twice the pool in one tick. Grow once; steady state reuses it
+      val n = eventKinds.length * 2
+      eventKinds = java.util.Arrays.copyOf(eventKinds, n)
+      eventSlots = java.util.Arrays.copyOf(eventSlots, n)
+      eventTargets = java.util.Arrays.copyOf(eventTargets, n)
+    }
+    eventKinds(eventCount) = kind
+    eventSlots(eventCount) = slot
+    eventTargets(eventCount) = targetHandle
+    eventCount += 1
+  }
 
-  def getAll: Seq[Projectile] = projectiles.values().asScala.toSeq
+  // ---------- Slot accessors (valid for live slots and for event slots until releaseRetired) ----------
+
+  def id(slot: Int): Int = ids(slot)
+  def ownerId(slot: Int): UUID = owners(slot)
+  def x(slot: Int): Float = xs(slot)
+  def y(slot: Int): Float = ys(slot)
+  def dx(slot: Int): Float = dxs(slot)
+  def dy(slot: Int): Float = dys(slot)
+  def colorRGB(slot: Int): Int = colors(slot)
+  def chargeLevel(slot: Int): Int = chargeLevels(slot)
+  def projectileType(slot: Int): Byte = types(slot)
+  def distanceTraveled(slot: Int): Float = distances(slot)
+  def isReturning(slot: Int): Boolean = (flags(slot) & FLAG_RETURNING) != 0
+  def remainingBounces(slot: Int): Int = bounces(slot)
+
+  /** Advance the slot's correction clock by one tick. Returns true (and resets it) when a MOVE correction is due. */
+  def pollCorrection(slot: Int, intervalTicks: Int): Boolean = {
+    ticksSinceCorrection(slot) += 1
+    if ((flags(slot) & FLAG_CORRECTION_PENDING) != 0 || ticksSinceCorrection(slot) >= intervalTicks) {
+      flags(slot) &= ~FLAG_CORRECTION_PENDING
+      ticksSinceCorrection(slot) = 0
+      true
+    } else false
+  }
 
-  def size: Int = projectiles.size()
+  def size: Int = activeCount
 
   /** Release all state and unregister the active-projectiles gauge callback. */
   def close(): Unit = {
     try projectilesActiveGauge.close() catch { case _: Throwable => () }
-    projectiles.clear()
-    playerProjectileCount.clear()
-    gridCells.clear()
-    activeKeys.clear()
+    java.util.Arrays.fill(owners.asInstanceOf[Array[AnyRef]], null)
+    activeCount = 0
+    highWater = 0
+    freeCount = 0
+    retiredCount = 0
+    eventCount = 0
+    java.util.Arrays.fill(handlePlayers.asInstanceOf[Array[AnyRef]], null)
+    java.util.Arrays.fill(ownerCounts, 0)
+    handleLimit = 1
+    hitGrid.clear()
+    viewerGrid.clear()
     hittableCount = 0
+    viewerCount = 0
     java.util.Arrays.fill(hittablePlayers.asInstanceOf[Array[AnyRef]], null)
+    java.util.Arrays.fill(viewerPlayers.asInstanceOf[Array[AnyRef]], null)
   }
 
-  /** Deal AoE damage to all players within radius of the projectile, excluding excludeId (the direct-hit target). */
-  private def applyAoEDamage(projectile: Projectile, radius: Float, damage: Int, excludeId: UUID, freezeDurationMs: Int = 0, rootDurationMs: Int = 0): Seq[ProjectileEvent] = {
-    val events = ArrayBuffer[ProjectileEvent]()
-    val px = projectile.getX
-    val py = projectile.getY
-    // Use pre-filtered hittable array (already excludes dead/shielded/phased)
-    val players = hittablePlayers
-    val len = hittableCount
-    var i = 0
-    while (i < len) {
-      val player = players(i)
-      i += 1
-      if (!player.getId.equals(projectile.ownerId) &&
-          (excludeId == null || !player.getId.equals(excludeId)) &&
-          !isTeammate(projectile.ownerId, player.getId)) {
-        val pos = player.getPosition
-        val dx = px - (pos.getX + 0.5f)
-        val dy = py - (pos.getY + 0.5f)
-        if (dx * dx + dy * dy <= radius * radius) {
-          val newHealth = player.synchronized {
-            val h = player.getHealth - damage
-            player.setHealth(h)
+  // ---------- Swept movement ----------
+
+  /**
+   * Move the slot's projectile length world units along its velocity, resolving walls and fences
+   * by DDA tile traversal (Amanatides-Woo), then players by segment-vs-circle tests over the path
+   * up to the first wall, so cost scales with tiles crossed and nothing can tunnel. Ricochets and
+   * the boomerang turn continue with the remaining length. Records the projectile's events and
+   * returns true once it has ended.
+   *
+   * Wall, ricochet and range rules match Projectile.advanceSubStep (the client's sub-stepped
+   * simulation); the server is just exact where sub-steps can cut corners, and asks for a MOVE
+   * correction whenever the path turns.
+   */
+  private def sweep(slot: Int, world: WorldData, pDef: ProjectileDef, length: Float): Boolean = {
+    // The start cell is only reached here by a spawn inside a wall (later positions were already checked)
+    val startX = math.floor(xs(slot)).toInt
+    val startY = math.floor(ys(slot)).toInt
+    if (startX < 0 || startX >= world.width || startY < 0 || startY >= world.height) return end(slot, pDef, expired = false)
+    if (blocks(world, pDef, startX, startY)) {
+      if (bounces(slot) > 0 && !world.isFence(startX, startY)) {
+        ricochet(slot, world, startX, startY)
+        flags(slot) |= FLAG_CORRECTION_PENDING
+      } else {
+        return end(slot, pDef, expired = false)
+      }
+    }
+
+    var left = length
+    var first = true
+    while (left > 0f || first) {
+      first = false
+      val speed = speeds(slot)
+      val ux = if (speed > 0f) dxs(slot) / speed else 0f
+      val uy = if (speed > 0f) dys(slot) / speed else 0f
+      val rangeLeft = math.max(maxRanges(slot) - distances(slot), 0.0).toFloat
+      // Cut the segment at max range; reaching the cut counts as reaching the range, whatever float rounding says
+      val rangeCut = speed > 0f && rangeLeft <= left
+      val segment = if (speed > 0f) math.min(left, rangeLeft) else 0f
+
+      val stop = if (segment > 0f) traverse(world, pDef, xs(slot), ys(slot), ux, uy, segment, bounces(slot) > 0) else { wallAxis = 0; 0f }
+      val x0 = xs(slot)
+      val y0 = ys(slot)
+
+      // Players along [0, stop], in path order, until the projectile is used up
+      if (!pDef.passesThroughPlayers) {
+        var hitHandle = earliestHit(slot, x0, y0, ux, uy, stop, pDef.hitRadius)
+        while (hitHandle >= 0) {
+          val hx = x0 + ux * hitT
+          val hy = y0 + uy * hitT
+          if (pDef.explodesOnPlayerHit) {
+            // Explosive projectiles that explode on player hit (e.g. rocket)
+            moveTo(slot, hx, hy, hitT)
+            retire(slot)
+            emit(EVENT_AOE, slot, -1)
+            return true
+          }
+          val hitPlayer = handlePlayers(hitHandle)
+          val damage = pDef.effectiveDamage(chargeLevels(slot), distances(slot) + hitT)
+          val newHealth = {
+            val h = hitPlayer.getHealth - damage
+            hitPlayer.setHealth(h)
             h
           }
-          if (freezeDurationMs > 0) {
-            player.tryFreeze(freezeDurationMs)
+          // Pierce: track hit player and continue if pierce count not exhausted
+          markHit(slot, hitHandle)
+          val canPierce = pDef.pierceCount > 0 && hitCounts(slot) < pDef.pierceCount
+          if (!canPierce) {
+            moveTo(slot, hx, hy, hitT)
+            retire(slot)
           }
-          if (rootDurationMs > 0) {
-            player.tryRoot(rootDurationMs)
+          emit(if (newHealth <= 0) EVENT_KILL else EVENT_HIT, slot, hitHandle)
+
+          // AoE splash damage to nearby players (excluding the direct hit target)
+          if (pDef.aoeOnHit.isDefined) {
+            val aoe = pDef.aoeOnHit.get
+            applyAoEDamage(slot, hx, hy, aoe.radius, aoe.damage, hitHandle, aoe.freezeDurationMs, aoe.rootDurationMs)
           }
-          if (newHealth <= 0) {
-            events += ProjectileAoEKill(projectile, player.getId)
-          } else {
-            events += ProjectileAoEHit(projectile, player.getId)
+          if (!canPierce) return true
+          hitHandle = earliestHit(slot, x0, y0, ux, uy, stop, pDef.hitRadius)
+        }
+      }
+
+      moveTo(slot, x0 + ux * stop, y0 + uy * stop, stop)
+      left -= stop
+
+      if (wallAxis != 0) {
+        if (!wallBounces) return end(slot, pDef, expired = false)
+        // Ricochet: bounce off walls instead of despawning
+        deflect(slot, wallAxis, wallCellX, wallCellY)
+      } else if (rangeCut || distances(slot) >= maxRanges(slot)) {
+        if (pDef.boomerang && (flags(slot) & FLAG_RETURNING) == 0) {
+          // Boomerang: reverse direction at max range instead of despawning
+          dxs(slot) = -dxs(slot)
+          dys(slot) = -dys(slot)
+          flags(slot) |= FLAG_RETURNING | FLAG_CORRECTION_PENDING
+          distances(slot) = 0f
+          clearHits(slot) // can hit players again on return
+        } else {
+          return end(slot, pDef, expired = true)
+        }
+      } else if (speed == 0f) {
+        left = 0f
+      }
+    }
+    false
+  }
+
+  /**
+   * Walk the tiles crossed by (x0, y0) + t * (ux, uy) for t in (0, length]. Returns the t at which
+   * the path enters a blocking tile (setting wallAxis, wallCellX/Y and wallBounces), or length with
+   * wallAxis = 0 if it stays clear.
+   */
+  private def traverse(world: WorldData, pDef: ProjectileDef, x0: Float, y0: Float, ux: Float, uy: Float,
+                       length: Float, canBounce: Boolean): Float = {
+    var cx = math.floor(x0).toInt
+    var cy = math.floor(y0).toInt
+    val stepX = if (ux > 0f) 1 else if (ux < 0f) -1 else 0
+    val stepY = if (uy > 0f) 1 else if (uy < 0f) -1 else 0
+    val deltaX = if (stepX != 0) math.abs(1f / ux) else Float.MaxValue
+    val deltaY = if (stepY != 0) math.abs(1f / uy) else Float.MaxValue
+    var maxX = if (stepX > 0) (cx + 1 - x0) / ux else if (stepX < 0) (x0 - cx) / -ux else Float.MaxValue
+    var maxY = if (stepY > 0) (cy + 1 - y0) / uy else if (stepY < 0) (y0 - cy) / -uy else Float.MaxValue
+    while (true) {
+      val t = math.min(maxX, maxY)
+      if (t > length) {
+        wallAxis = 0
+        return length
+      }
+      var axis = 0
+      if (maxX <= t) { cx += stepX; maxX += deltaX; axis |= AXIS_X }
+      if (maxY <= t) { cy += stepY; maxY += deltaY; axis |= AXIS_Y }
+      if (cx < 0 || cx >= world.width || cy < 0 || cy >= world.height) {
+        setWall(axis, cx, cy, bounces = false)
+        return t
+      }
+      if (blocks(world, pDef, cx, cy)) {
+        setWall(axis, cx, cy, canBounce && !world.isFence(cx, cy))
+        return t
+      }
+    }
+    length
+  }
+
+  private def setWall(axis: Int, cellX: Int, cellY: Int, bounces: Boolean): Unit = {
+    wallAxis = axis
+    wallCellX = cellX
+    wallCellY = cellY
+    wallBounces = bounces
+  }
+
+  /** A tile stops the projectile unless it passes through walls (fences always stop it). */
+  private def blocks(world: WorldData, pDef: ProjectileDef, cellX: Int, cellY: Int): Boolean =
+    world.blocksProjectiles(cellX, cellY) && (!pDef.passesThroughWalls || world.isFence(cellX, cellY))
+
+  private def moveTo(slot: Int, x: Float, y: Float, travelled: Float): Unit = {
+    xs(slot) = x
+    ys(slot) = y
+    distances(slot) += travelled
+  }
+
+  /** Retire the slot and record how it ended: range AoE if expired, then an explosion or a despawn. */
+  private def end(slot: Int, pDef: ProjectileDef, expired: Boolean): Boolean = {
+    retire(slot)
+    // AoE on max range (e.g. geyser, snare mine)
+    if (expired && pDef.aoeOnMaxRange.isDefined) {
+      val aoe = pDef.aoeOnMaxRange.get
+      applyAoEDamage(slot, xs(slot), ys(slot), aoe.radius, aoe.damage, -1, aoe.freezeDurationMs, aoe.rootDurationMs)
+    }
+    emit(if (pDef.isExplosive) EVENT_AOE else EVENT_DESPAWNED, slot, -1)
+    true
+  }
+
+  /**
+   * Bounce off the wall tile (cellX, cellY) that the path entered across axis: snap back to the
+   * walkable side and turn 90° away from a side wall, or reverse at a corner (Projectile.ricochet's rules).
+   */
+  private def deflect(slot: Int, axis: Int, cellX: Int, cellY: Int): Unit = {
+    bounces(slot) -= 1
+    val dx = dxs(slot)
+    val dy = dys(slot)
+    if ((axis & AXIS_X) != 0) xs(slot) = if (dx > 0) cellX.toFloat - 0.01f else (cellX + 1).toFloat + 0.01f
+    if ((axis & AXIS_Y) != 0) ys(slot) = if (dy > 0) cellY.toFloat - 0.01f else (cellY + 1).toFloat + 0.01f
+    if (axis == (AXIS_X | AXIS_Y)) {
+      dxs(slot) = -dx
+      dys(slot) = -dy
+    } else {
+      turnOffWall(slot, vertical = axis == AXIS_X)
+    }
+    speeds(slot) = math.sqrt(dxs(slot) * dxs(slot) + dys(slot) * dys(slot)).toFloat
+    flags(slot) |= FLAG_CORRECTION_PENDING
+  }
+
+  /** 90° turn away from a vertical (or horizontal) wall. */
+  private def turnOffWall(slot: Int, vertical: Boolean): Unit = {
+    val dx = dxs(slot)
+    val dy = dys(slot)
+    if (vertical == ((dx > 0) == (dy > 0))) {
+      dxs(slot) = -dy; dys(slot) = dx
+    } else {
+      dxs(slot) = dy; dys(slot) = -dx
+    }
+  }
+
+  /** Bounce out of a wall the projectile is already inside, inferring the wall side from its neighbors (Projectile.ricochet). */
+  private def ricochet(slot: Int, world: WorldData, curX: Int, curY: Int): Unit = {
+    bounces(slot) -= 1
+    val dx = dxs(slot)
+    val dy = dys(slot)
+
+    // Determine which wall was hit by checking which adjacent cell
+    // (behind us on each axis) is walkable
+    val fromX = if (dx > 0) curX - 1 else if (dx < 0) curX + 1 else curX
+    val fromY = if (dy > 0) curY - 1 else if (dy < 0) curY + 1 else curY
+    val hitX = fromX != curX && world.isWalkable(fromX, curY)
+    val hitY = fromY != curY && world.isWalkable(curX, fromY)
+
+    if (hitX && hitY) {
+      // Corner: reverse both
+      dxs(slot) = -dx
+      dys(slot) = -dy
+    } else if (hitX) {
+      // Snap back to walkable side of the vertical wall, then turn 90° away from it
+      xs(slot) = if (dx > 0) curX.toFloat - 0.01f else (curX + 1).toFloat + 0.01f
+      turnOffWall(slot, vertical = true)
+    } else if (hitY) {
+      // Snap back to walkable side of the horizontal wall, then turn 90° away from it
+      ys(slot) = if (dy > 0) curY.toFloat - 0.01f else (curY + 1).toFloat + 0.01f
+      turnOffWall(slot, vertical = false)
+    } else {
+      // Fallback: reverse both
+      dxs(slot) = -dx
+      dys(slot) = -dy
+    }
+    speeds(slot) = math.sqrt(dxs(slot) * dxs(slot) + dys(slot) * dys(slot)).toFloat
+  }
+
+  // ---------- Pierce bitset ----------
+
+  private def hasHit(slot: Int, handle: Int): Boolean =
+    (hitMasks(slot * maskWords + (handle >>> 6)) & (1L << (handle & 63))) != 0
+
+  private def markHit(slot: Int, handle: Int): Unit = {
+    hitMasks(slot * maskWords + (handle >>> 6)) |= 1L << (handle & 63)
+    hitCounts(slot) += 1
+  }
+
+  private def clearHits(slot: Int): Unit = {
+    java.util.Arrays.fill(hitMasks, slot * maskWords, (slot + 1) * maskWords, 0L)
+    hitCounts(slot) = 0
+  }
+
+  // ---------- Slots, handles and capacity ----------
+
+  private def retire(slot: Int): Unit = {
+    retired(retiredCount) = slot
+    retiredCount += 1
+  }
+
+  private def allocateSlot(): Int = {
+    if (freeCount > 0) {
+      freeCount -= 1
+      freeSlots(freeCount)
+    } else {
+      // Normally covered by ensureCapacity on handle assignment; grow anyway rather than fail
+      if (highWater >= capacity) growSlots(capacity * 2)
+      highWater += 1
+      highWater - 1
+    }
+  }
+
+  /**
+   * The player's registry handle (assigned if the registry hasn't yet), or EntityHandles.NONE once
+   * the instance's handles are exhausted. Grows per-player tables and slot capacity to cover it.
+   */
+  private def handleFor(playerId: UUID): Int = {
+    val handle = registry.handles.assign(playerId)
+    if (handle >= handleLimit) coverHandle(handle)
+    handle
+  }
+
+  private def coverHandle(handle: Int): Unit = {
+    handleLimit = handle + 1
+    if (handle >= ownerCounts.length) {
+      var size = ownerCounts.length
+      while (size <= handle) size *= 2
+      ownerCounts = java.util.Arrays.copyOf(ownerCounts, size)
+      handlePlayers = java.util.Arrays.copyOf(handlePlayers, size)
+    }
+    if (handleLimit > maskWords * 64) growMasks((handleLimit + 63) >>> 6)
+    val needed = handleLimit * Constants.MAX_PROJECTILES_PER_PLAYER
+    if (needed > capacity) growSlots(math.max(needed, capacity * 2))
+  }
+
+  private def growSlots(newCapacity: Int): Unit = {
+    ids = java.util.Arrays.copyOf(ids, newCapacity)
+    owners = java.util.Arrays.copyOf(owners, newCapacity)
+    ownerHandles = java.util.Arrays.copyOf(ownerHandles, newCapacity)
+    xs = java.util.Arrays.copyOf(xs, newCapacity)
+    ys = java.util.Arrays.copyOf(ys, newCapacity)
+    dxs = java.util.Arrays.copyOf(dxs, newCapacity)
+    dys = java.util.Arrays.copyOf(dys, newCapacity)
+    speeds = java.util.Arrays.copyOf(speeds, newCapacity)
+    speedMultipliers = java.util.Arrays.copyOf(speedMultipliers, newCapacity)
+    distances = java.util.Arrays.copyOf(distances, newCapacity)
+    maxRanges = java.util.Arrays.copyOf(maxRanges, newCapacity)
+    types = java.util.Arrays.copyOf(types, newCapacity)
+    chargeLevels = java.util.Arrays.copyOf(chargeLevels, newCapacity)
+    colors = java.util.Arrays.copyOf(colors, newCapacity)
+    flags = java.util.Arrays.copyOf(flags, newCapacity)
+    bounces = java.util.Arrays.copyOf(bounces, newCapacity)
+    ticksSinceCorrection = java.util.Arrays.copyOf(ticksSinceCorrection, newCapacity)
+    hitCounts = java.util.Arrays.copyOf(hitCounts, newCapacity)
+    hitMasks = java.util.Arrays.copyOf(hitMasks, newCapacity * maskWords)
+    active = java.util.Arrays.copyOf(active, newCapacity)
+    activePos = java.util.Arrays.copyOf(activePos, newCapacity)
+    freeSlots = java.util.Arrays.copyOf(freeSlots, newCapacity)
+    retired = java.util.Arrays.copyOf(retired, newCapacity)
+    capacity = newCapacity
+  }
+
+  /** Widen every slot's pierce bitset to newWords longs. */
+  private def growMasks(newWords: Int): Unit = {
+    val masks = new Array[Long](capacity * newWords)
+    var slot = 0
+    while (slot < capacity) {
+      System.arraycopy(hitMasks, slot * maskWords, masks, slot * newWords, maskWords)
+      slot += 1
+    }
+    hitMasks = masks
+    maskWords = newWords
+  }
+
+  /** Deal AoE damage to all players within radius of (px, py), excluding excludeHandle (the direct-hit target, or -1). */
+  private def applyAoEDamage(slot: Int, px: Float, py: Float, radius: Float, damage: Int, excludeHandle: Int,
+                             freezeDurationMs: Int, rootDurationMs: Int): Unit = {
+    if (hitGrid.size == 0) return
+    val ownerId = owners(slot)
+    val ownerHandle = ownerHandles(slot)
+    // Radius query over the hittable grid (already excludes dead/shielded/phased)
+    val x1 = hitGrid.columnOf(px + radius)
+    val y1 = hitGrid.rowOf(py + radius)
+    var cy = hitGrid.rowOf(py - radius - 1f)
+    while (cy <= y1) {
+      var cx = hitGrid.columnOf(px - radius - 1f)
+      while (cx <= x1) {
+        val cell = hitGrid.cell(cx, cy)
+        var k = hitGrid.start(cell)
+        val end = k + hitGrid.count(cell)
+        while (k < end) {
+          val i = hitGrid.entry(k)
+          k += 1
+          val handle = hittableHandles(i)
+          val dx = px - (hittableXs(i) + 0.5f)
+          val dy = py - (hittableYs(i) + 0.5f)
+          if (dx * dx + dy * dy <= radius * radius && handle != ownerHandle && handle != excludeHandle &&
+              !isTeammate(ownerId, hittablePlayers(i).getId)) {
+            val player = hittablePlayers(i)
+            val newHealth = {
+              val h = player.getHealth - damage
+              player.setHealth(h)
+              h
+            }
+            if (freezeDurationMs > 0) {
+              player.tryFreeze(freezeDurationMs)
+            }
+            if (rootDurationMs > 0) {
+              player.tryRoot(rootDurationMs)
+            }
+            emit(if (newHealth <= 0) EVENT_AOE_KILL else EVENT_AOE_HIT, slot, handle)
           }
         }
+        cx += 1
       }
+      cy += 1
     }
-    events.toSeq
   }
 }
+
+object ProjectileManager {
+  // Event kinds recorded by tick()
+  val EVENT_MOVED: Byte = 0
+  val EVENT_HIT: Byte = 1
+  val EVENT_KILL: Byte = 2
+  val EVENT_AOE_HIT: Byte = 3
+  val EVENT_AOE_KILL: Byte = 4
+  val EVENT_DESPAWNED: Byte = 5
+  val EVENT_AOE: Byte = 6
+
+  private val FLAG_RETURNING = 0x1
+  private val FLAG_CORRECTION_PENDING = 0x2
+  // Axes crossed when a swept path enters a wall tile
+  private val AXIS_X = 0x1
+  private val AXIS_Y = 0x2
+}
@@ -9,26 +9,29 @@ object ServerMain {
     Telemetry.init("grid-game-server")
 
     var port = Constants.SERVER_PORT
+    var nativeTransport = Constants.NATIVE_TRANSPORT_ENABLED
 
-    // Parse arguments: [port]
+    // Parse arguments: [port] [--native-transport]
     println(s"Arguments received: ${args.mkString(", ")}")
     for (arg <- args) {
       println(s"Processing arg: '$arg'")
       if (arg.startsWith("--world=")) {
         println(s"Note: --world argument is ignored in lobby mode. Maps are selected per-lobby.")
+      } else if (arg == "--native-transport") {
+        nativeTransport = true
       } else {
         try {
           port = arg.toInt
         } catch {
           case _: NumberFormatException =>
             System.err.println(s"Invalid argument: $arg")
-            System.err.println("Usage: ServerMain [port]")
+            System.err.println("Usage: ServerMain [port] [--native-transport]")
             System.exit(1)
         }
       }
     }
 
-    val server = new GameServer(port)
+    val server = new GameServer(port, nativeTransport = nativeTransport)
 
     Runtime.getRuntime.addShutdownHook(new Thread(new Runnable {
       def run(): Unit = {
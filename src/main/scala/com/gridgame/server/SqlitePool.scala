@@ -0,0 +1,79 @@
+package com.gridgame.server
+
+import java.sql.Connection
+import java.sql.DriverManager
+import java.sql.PreparedStatement
+import java.util.concurrent.ArrayBlockingQueue
+
+/**
+ * SQLite access layer: WAL journal, one writer connection and a fixed set of read-only
+ * connections, each with its own prepared-statement cache. Under WAL, readers see a consistent
+ * snapshot and don't block on the writer (or each other), so only writes serialize.
+ */
+class SqlitePool(dbPath: String, readers: Int) {
+  Class.forName("org.sqlite.JDBC")
+
+  /** A connection plus its prepared statements, keyed by SQL text. Used by one thread at a time. */
+  final class PooledConnection(val connection: Connection) {
+    private val statements = new java.util.HashMap[String, PreparedStatement]()
+
+    /** Cached statement for sql with parameters cleared. Don't close it; close its ResultSets. */
+    def prepare(sql: String): PreparedStatement = {
+      var stmt = statements.get(sql)
+      if (stmt == null) {
+        stmt = connection.prepareStatement(sql)
+        statements.put(sql, stmt)
+      } else {
+        stmt.clearParameters()
+      }
+      stmt
+    }
+
+    private[SqlitePool] def close(): Unit = {
+      statements.values().forEach(s => try s.close() catch { case _: Exception => })
+      statements.clear()
+      if (!connection.isClosed) connection.close()
+    }
+  }
+
+  // Opened first: switching to WAL is persistent in the file, so readers open in WAL mode
+  private val writer: PooledConnection = open(readOnly = false)
+  private val idleReaders = new ArrayBlockingQueue[PooledConnection](readers.max(1))
+  private val allReaders: Seq[PooledConnection] = (0 until readers.max(1)).map(_ => open(readOnly = true))
+  allReaders.foreach(idleReaders.add)
+
+  private def open(readOnly: Boolean): PooledConnection = {
+    val conn = DriverManager.getConnection(s"jdbc:sqlite:$dbPath")
+    conn.setAutoCommit(true)
+    val stmt = conn.createStatement()
+    try {
+      if (!readOnly) {
+        stmt.execute("PRAGMA journal_mode=WAL")
+        stmt.execute("PRAGMA synchronous=NORMAL") // Durable at checkpoints; safe against corruption under WAL
+      } else {
+        stmt.execute("PRAGMA query_only=ON")
+      }
+      stmt.execute("PRAGMA busy_timeout=5000")
+    } finally {
+      stmt.close()
+    }
+    new PooledConnection(conn)
+  }
+
+  /** Run body on the writer connection. Writes (and write transactions) serialize here. */
+  def write[T](body: PooledConnection => T): T = writer.synchronized {
+    body(writer)
+  }
+
+  /** Run body on an idle reader, waiting for one if all are busy. Don't nest read calls. */
+  def read[T](body: PooledConnection => T): T = {
+    val conn = idleReaders.take()
+    try body(conn)
+    finally idleReaders.put(conn)
+  }
+
+  def close(): Unit = {
+    writer.synchronized { writer.close() }
+    allReaders.foreach(_.close())
+  }
+}
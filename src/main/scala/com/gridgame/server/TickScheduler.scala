@@ -0,0 +1,116 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+import com.gridgame.common.observability.Attrs
+import com.gridgame.common.observability.Metrics
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import scala.util.control.NonFatal
+
+/**
+ * Server-wide tick engine. A fixed pool of worker threads (sized to cores) each own a shard
+ * of game instances and step them on one fixed timestep of PROJECTILE_SPEED_MS. An instance
+ * always runs on the same worker, so its phases never race each other.
+ */
+class TickScheduler(workerCount: Int = Constants.TICK_WORKER_THREADS) {
+  private val tickMs: Long = Constants.PROJECTILE_SPEED_MS.toLong
+  private val shardTickAttrs = Attrs.tickPhase("shard")
+
+  private class Shard(index: Int) {
+    val instances = new CopyOnWriteArrayList[GameInstance]()
+    val executor: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory {
+      def newThread(r: Runnable): Thread = {
+        val t = new Thread(r, s"tick-worker-$index")
+        t.setDaemon(true)
+        t
+      }
+    })
+
+    executor.scheduleAtFixedRate(new Runnable {
+      def run(): Unit = runShard()
+    }, tickMs, tickMs, TimeUnit.MILLISECONDS)
+
+    private def runShard(): Unit = {
+      val shardStart = System.nanoTime()
+      val now = System.currentTimeMillis()
+      val iter = instances.iterator()
+      while (iter.hasNext) {
+        val instance = iter.next()
+        val start = System.nanoTime()
+        try {
+          instance.tick(now)
+        } catch {
+          case NonFatal(e) =>
+            System.err.println(s"TickScheduler: instance ${instance.gameId} tick error: ${e.getMessage}")
+          case t: Throwable =>
+            // An Error escaping here would cancel this worker's schedule and silently freeze every
+            // instance on it, so drop only the instance that threw
+            System.err.println(s"TickScheduler: instance ${instance.gameId} failed fatally, dropping it: $t")
+            t.printStackTrace()
+            drop(instance)
+        }
+        val elapsedMs = (System.nanoTime() - start) / 1e6
+        if (elapsedMs > tickMs) instance.reportOverrun(elapsedMs, tickMs)
+      }
+      val shardMs = (System.nanoTime() - shardStart) / 1e6
+      Metrics.tickDuration.record(shardMs, shardTickAttrs)
+      // Every instance on this worker is now late, even if none overran on its own
+      if (shardMs > tickMs) Metrics.tickOverruns.add(1L, shardTickAttrs)
+    }
+
+    private def drop(instance: GameInstance): Unit = {
+      if (instances.remove(instance)) registered.decrementAndGet()
+      try instance.stop() catch {
+        case t: Throwable => System.err.println(s"TickScheduler: instance ${instance.gameId} stop failed: $t")
+      }
+    }
+  }
+
+  private val shards: Array[Shard] = Array.tabulate(workerCount.max(1))(i => new Shard(i))
+  private val registered = new AtomicInteger(0)
+
+  println(s"TickScheduler: Started ${shards.length} workers (${tickMs}ms step)")
+
+  /** Assign an instance to the least-loaded worker. */
+  def register(instance: GameInstance): Unit = shards.synchronized {
+    var best = shards(0)
+    var i = 1
+    while (i < shards.length) {
+      if (shards(i).instances.size() < best.instances.size()) best = shards(i)
+      i += 1
+    }
+    best.instances.add(instance)
+    registered.incrementAndGet()
+  }
+
+  def unregister(instance: GameInstance): Unit = shards.synchronized {
+    var i = 0
+    while (i < shards.length) {
+      if (shards(i).instances.remove(instance)) registered.decrementAndGet()
+      i += 1
+    }
+  }
+
+  def instanceCount: Int = registered.get()
+
+  def shutdown(): Unit = {
+    shards.foreach { s =>
+      s.executor.shutdown()
+      s.instances.clear()
+    }
+    shards.foreach { s =>
+      try {
+        if (!s.executor.awaitTermination(2, TimeUnit.SECONDS)) s.executor.shutdownNow()
+      } catch {
+        case _: InterruptedException =>
+          s.executor.shutdownNow()
+          Thread.currentThread().interrupt()
+      }
+    }
+  }
+}
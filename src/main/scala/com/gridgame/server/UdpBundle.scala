@@ -0,0 +1,34 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+
+/**
+ * Per-session accumulator for buffered server->client UDP payloads. Payloads from one tick are
+ * packed back to back and signed once (PacketSigner.signBundle) when the bundle fills or the
+ * instance flushes. Only used for sessions that advertised AuthCapability.UDP_BUNDLES.
+ */
+class UdpBundle {
+  private val buffer = new Array[Byte](Constants.UDP_BUNDLE_MAX_PAYLOADS * Constants.PACKET_PAYLOAD_SIZE)
+  private var count = 0
+
+  /** Append a 64-byte payload. Returns true if the bundle is now full and should be sealed. */
+  def add(payload: Array[Byte]): Boolean = {
+    val offset = count * Constants.PACKET_PAYLOAD_SIZE
+    val len = Math.min(payload.length, Constants.PACKET_PAYLOAD_SIZE)
+    System.arraycopy(payload, 0, buffer, offset, len)
+    if (len < Constants.PACKET_PAYLOAD_SIZE) {
+      java.util.Arrays.fill(buffer, offset + len, offset + Constants.PACKET_PAYLOAD_SIZE, 0.toByte)
+    }
+    count += 1
+    count >= Constants.UDP_BUNDLE_MAX_PAYLOADS
+  }
+
+  def isEmpty: Boolean = count == 0
+
+  def size: Int = count
+
+  /** Pending payload bytes; valid up to size * PACKET_PAYLOAD_SIZE. */
+  def bytes: Array[Byte] = buffer
+
+  def reset(): Unit = { count = 0 }
+}
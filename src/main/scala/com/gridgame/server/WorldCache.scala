@@ -0,0 +1,35 @@
+package com.gridgame.server
+
+import com.gridgame.common.model.WorldData
+import com.gridgame.common.world.WorldLoader
+
+/**
+ * Base worlds shared by every instance on the same map file: loaded on the first acquire and
+ * dropped when the last instance releases it. Instances play on base.overlay(), never the base.
+ */
+class WorldCache {
+  private final class Entry(val world: WorldData) {
+    var refs = 0
+  }
+
+  private val entries = new java.util.HashMap[String, Entry]()
+
+  /** The base world for worldFile, loading it if no instance holds it. Pair with release. */
+  def acquire(worldFile: String): WorldData = synchronized {
+    var entry = entries.get(worldFile)
+    if (entry == null) {
+      entry = new Entry(WorldLoader.load(worldFile))
+      entries.put(worldFile, entry)
+    }
+    entry.refs += 1
+    entry.world
+  }
+
+  def release(worldFile: String): Unit = synchronized {
+    val entry = entries.get(worldFile)
+    if (entry != null) {
+      entry.refs -= 1
+      if (entry.refs <= 0) entries.remove(worldFile)
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.gridgame.common.world
+
+import com.gridgame.common.model.Position
+import com.gridgame.common.model.Tile
+import com.gridgame.common.model.WorldData
+import org.junit.Test
+import org.junit.Assert._
+
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.ByteBuffer
+
+class GridMapTest {
+
+  private def sampleWorld(): WorldData = {
+    val width = 40
+    val height = 25
+    val tiles: Array[Array[Tile]] = Array.fill(height, width)(Tile.Grass)
+    for (x <- 0 until width) {
+      tiles(0)(x) = Tile.Wall
+      tiles(height - 1)(x) = Tile.Wall
+    }
+    for (y <- 5 until 20) tiles(y)(17) = Tile.Water
+    tiles(12)(30) = Tile.Fence
+    tiles(3)(3) = Tile.Tree
+    new WorldData("Sample Map", width, height, tiles, Seq(new Position(2, 2), new Position(37, 22)), "night")
+  }
+
+  private def compile(world: WorldData): Array[Byte] = {
+    val bytes = new ByteArrayOutputStream()
+    val out = new DataOutputStream(bytes)
+    GridMap.write(world, 1234, 0x5EED, out)
+    out.flush()
+    bytes.toByteArray
+  }
+
+  @Test
+  def testRoundTrip(): Unit = {
+    val world = sampleWorld()
+    val read = GridMap.read(ByteBuffer.wrap(compile(world)))
+    assertNotNull(read)
+    assertEquals(world.name, read.name)
+    assertEquals(world.background, read.background)
+    assertEquals(world.width, read.width)
+    assertEquals(world.height, read.height)
+    assertEquals(world.spawnPoints, read.spawnPoints)
+    for (y <- 0 until world.height; x <- 0 until world.width) {
+      assertEquals(s"tile ($x, $y)", world.getTile(x, y), read.getTile(x, y))
+      assertEquals(s"walkable ($x, $y)", world.isWalkable(x, y), read.isWalkable(x, y))
+      assertEquals(s"fence ($x, $y)", world.isFence(x, y), read.isFence(x, y))
+    }
+  }
+
+  @Test
+  def testMatchesSource(): Unit = {
+    val buf = ByteBuffer.wrap(compile(sampleWorld()))
+    assertTrue(GridMap.matchesSource(buf, 1234, 0x5EED))
+    assertFalse(GridMap.matchesSource(buf, 1234, 0x5EEE))
+    assertFalse(GridMap.matchesSource(buf, 1235, 0x5EED))
+    assertTrue(GridMap.matchesSourceLength(buf, 1234))
+    assertFalse(GridMap.matchesSourceLength(buf, 1235))
+  }
+
+  @Test
+  def testTruncatedInputReturnsNull(): Unit = {
+    val bytes = compile(sampleWorld())
+    var length = 0
+    while (length < bytes.length) {
+      assertNull(s"truncated to $length bytes", GridMap.read(ByteBuffer.wrap(java.util.Arrays.copyOf(bytes, length))))
+      length += 1
+    }
+  }
+
+  @Test
+  def testWrongMagicOrVersionReturnsNull(): Unit = {
+    val magic = compile(sampleWorld())
+    magic(0) = 'X'.toByte
+    assertNull(GridMap.read(ByteBuffer.wrap(magic)))
+
+    val version = compile(sampleWorld())
+    version(5) = (GridMap.VERSION + 1).toByte
+    assertNull(GridMap.read(ByteBuffer.wrap(version)))
+  }
+
+  @Test
+  def testCorruptBodyReturnsNull(): Unit = {
+    val world = sampleWorld()
+    val bytes = compile(world)
+    // The run section is the tail: run count, then 5-byte (id, length) runs
+    val runs = ByteBuffer.wrap(bytes).getInt(bytes.length - runBytes(world) - 4)
+
+    val unknownTile = bytes.clone()
+    unknownTile(bytes.length - runs * 5) = 0xFF.toByte
+    assertNull(GridMap.read(ByteBuffer.wrap(unknownTile)))
+
+    val overlongRun = bytes.clone()
+    ByteBuffer.wrap(overlongRun).putInt(bytes.length - 4, Int.MaxValue)
+    assertNull(GridMap.read(ByteBuffer.wrap(overlongRun)))
+
+    val badWidth = bytes.clone()
+    ByteBuffer.wrap(badWidth).putInt(6, -1)
+    assertNull(GridMap.read(ByteBuffer.wrap(badWidth)))
+
+    val badSpawnCount = bytes.clone()
+    ByteBuffer.wrap(badSpawnCount).putInt(spawnCountOffset(world), Int.MaxValue)
+    assertNull(GridMap.read(ByteBuffer.wrap(badSpawnCount)))
+  }
+
+  private def runBytes(world: WorldData): Int = {
+    var runs = 0
+    var prev = -1
+    for (y <- 0 until world.height; x <- 0 until world.width) {
+      val id = world.tileId(x, y)
+      if (id != prev) runs += 1
+      prev = id
+    }
+    runs * 5
+  }
+
+  private def spawnCountOffset(world: WorldData): Int = {
+    // Header, then name and background as u16 length + UTF-8
+    22 + 2 + world.name.getBytes("UTF-8").length + 2 + world.background.getBytes("UTF-8").length
+  }
+}
@@ -0,0 +1,93 @@
+package com.gridgame.server
+
+import com.gridgame.common.model.Tile
+import com.gridgame.common.model.WorldData
+import org.junit.Test
+import org.junit.Assert._
+
+class NavGridTest {
+
+  private val Width = 32
+  private val Height = 24
+
+  private def walledWorld(seed: Long, wallChance: Double): WorldData = {
+    val world = WorldData.createEmpty(Width, Height)
+    val rng = new scala.util.Random(seed)
+    for (y <- 0 until Height; x <- 0 until Width) {
+      if (rng.nextDouble() < wallChance) world.setTile(x, y, Tile.Wall)
+    }
+    world
+  }
+
+  /** A fork with the given regions' fields cached, so setWalkable has to repair them. */
+  private def warmFork(world: WorldData, regions: Seq[Int]): NavGrid = {
+    val shared = NavGrid.fromWorld(world)
+    val queue = new Array[Int](Width * Height)
+    regions.foreach(r => shared.field(r, queue))
+    shared.fork()
+  }
+
+  private def assertMatchesFresh(grid: NavGrid, world: WorldData, regions: Seq[Int]): Unit = {
+    val fresh = NavGrid.fromWorld(world)
+    val queue = new Array[Int](Width * Height)
+    regions.foreach { r =>
+      assertArrayEquals(s"region $r", fresh.field(r, queue), grid.field(r, queue))
+    }
+  }
+
+  private def toggle(grid: NavGrid, world: WorldData, x: Int, y: Int): Unit = {
+    val open = !world.isWalkable(x, y)
+    world.setTile(x, y, if (open) Tile.Grass else Tile.Wall)
+    grid.setWalkable(y * Width + x, open)
+  }
+
+  @Test
+  def testFieldIsZeroOnItsRegion(): Unit = {
+    val world = WorldData.createEmpty(Width, Height)
+    val grid = NavGrid.fromWorld(world)
+    val region = grid.regionOf(10, 10)
+    val field = grid.field(region, new Array[Int](Width * Height))
+    assertEquals(0, field(10 * Width + 10))
+    assertEquals(0, field(8 * Width + 8))
+    assertEquals(1, field(7 * Width + 8))
+    assertEquals(region, grid.regionOf(15, 15))
+  }
+
+  @Test
+  def testClosingACellMatchesFreshBuild(): Unit = {
+    val world = WorldData.createEmpty(Width, Height)
+    val regions = Seq(0, 5, 11)
+    val grid = warmFork(world, regions)
+    // A wall across the map, leaving one gap, then the gap
+    for (y <- 0 until Height - 1) toggle(grid, world, 20, y)
+    assertMatchesFresh(grid, world, regions)
+    toggle(grid, world, 20, Height - 1)
+    assertMatchesFresh(grid, world, regions)
+  }
+
+  @Test
+  def testOpeningACellMatchesFreshBuild(): Unit = {
+    val world = WorldData.createEmpty(Width, Height)
+    for (y <- 0 until Height) world.setTile(20, y, Tile.Wall)
+    val regions = Seq(0, 3, 7)
+    val grid = warmFork(world, regions)
+    toggle(grid, world, 20, 12)
+    assertMatchesFresh(grid, world, regions)
+    toggle(grid, world, 20, 0)
+    assertMatchesFresh(grid, world, regions)
+  }
+
+  @Test
+  def testRandomTogglesMatchFreshBuild(): Unit = {
+    val world = walledWorld(42L, 0.3)
+    val regions = Seq(0, 2, 6, 9)
+    val grid = warmFork(world, regions)
+    val rng = new scala.util.Random(7L)
+    var i = 0
+    while (i < 300) {
+      toggle(grid, world, rng.nextInt(Width), rng.nextInt(Height))
+      assertMatchesFresh(grid, world, regions)
+      i += 1
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.gridgame.server
+
+import com.gridgame.common.Constants
+import com.gridgame.common.protocol.PacketSigner
+import io.netty.bootstrap.Bootstrap
+import io.netty.channel._
+import io.netty.channel.epoll.Epoll
+import io.netty.channel.epoll.EpollChannelOption
+import io.netty.channel.epoll.EpollDatagramChannel
+import io.netty.channel.epoll.EpollEventLoopGroup
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.DatagramChannel
+import io.netty.channel.socket.DatagramPacket
+import io.netty.channel.socket.nio.NioDatagramChannel
+
+import java.net.InetSocketAddress
+import java.nio.ByteBuffer
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Loopback UDP ingress benchmark for the server transport: binds the game port the way
+ * GameServer.start does (NIO with one socket, or epoll with N SO_REUSEPORT sockets) behind a
+ * handler that verifies each datagram's HMAC in place, then floods it from many client flows and
+ * reports received packets/sec per socket count.
+ *
+ * Usage: UdpLoopbackBenchmark [port] [seconds per run] [sender threads] [flows per sender]
+ *
+ * Senders share the machine with the receivers, so run it on a host with spare cores and read
+ * the scaling from the epoll rows relative to each other and to the NIO baseline.
+ */
+object UdpLoopbackBenchmark {
+
+  def main(args: Array[String]): Unit = {
+    val port = if (args.length > 0) args(0).toInt else 25599
+    val seconds = if (args.length > 1) args(1).toInt else 5
+    val senders = if (args.length > 2) args(2).toInt else math.max(1, Runtime.getRuntime.availableProcessors() / 2)
+    val flowsPerSender = if (args.length > 3) args(3).toInt else 16
+
+    println(s"UdpLoopbackBenchmark: port $port, ${seconds}s per run, $senders senders x $flowsPerSender flows")
+    println("mode   sockets   packets/sec   verified/sec")
+    report("nio", 1, run(native = false, 1, port, seconds, senders, flowsPerSender))
+
+    if (!Epoll.isAvailable) {
+      println(s"epoll unavailable (${Epoll.unavailabilityCause().getMessage}), SO_REUSEPORT rows skipped")
+      return
+    }
+    // 1, 2, 4, ... up to the server's default socket count (one per core)
+    val max = Constants.UDP_REUSEPORT_SOCKETS
+    val counts = (Iterator.iterate(1)(_ * 2).takeWhile(_ < max).toSeq :+ max).distinct
+    counts.foreach { sockets =>
+      report("epoll", sockets, run(native = true, sockets, port, seconds, senders, flowsPerSender))
+    }
+  }
+
+  private def report(mode: String, sockets: Int, result: (Double, Double)): Unit = {
+    println(f"$mode%-6s $sockets%7d   ${result._1}%11.0f   ${result._2}%12.0f")
+  }
+
+  /** One run: (received packets/sec, HMAC-verified packets/sec). */
+  private def run(native: Boolean, sockets: Int, port: Int, seconds: Int, senders: Int, flowsPerSender: Int): (Double, Double) = {
+    val received = new LongAdder()
+    val verified = new LongAdder()
+    val token = new Array[Byte](32)
+    java.util.Arrays.fill(token, 7.toByte)
+
+    val group: EventLoopGroup = if (native) new EpollEventLoopGroup(sockets) else new NioEventLoopGroup(1)
+    val bootstrap = new Bootstrap()
+    bootstrap.group(group)
+      .channel(if (native) classOf[EpollDatagramChannel] else classOf[NioDatagramChannel])
+      .option[java.lang.Integer](ChannelOption.SO_SNDBUF, 1024 * 1024)
+      .option[java.lang.Integer](ChannelOption.SO_RCVBUF, 1024 * 1024)
+      .handler(new ChannelInitializer[DatagramChannel] {
+        override def initChannel(ch: DatagramChannel): Unit = {
+          ch.pipeline().addLast(new SimpleChannelInboundHandler[DatagramPacket] {
+            override def channelRead0(ctx: ChannelHandlerContext, msg: DatagramPacket): Unit = {
+              val buf = msg.content()
+              received.increment()
+              if (buf.readableBytes() == Constants.PACKET_SIZE &&
+                  PacketSigner.verify(buf.nioBuffer(buf.readerIndex(), Constants.PACKET_SIZE), token)) {
+                verified.increment()
+              }
+            }
+          })
+        }
+      })
+    if (native) bootstrap.option[java.lang.Boolean](EpollChannelOption.SO_REUSEPORT, true)
+    val channels = Array.fill(sockets)(bootstrap.bind(port).sync().channel())
+
+    val sending = new AtomicBoolean(true)
+    val payload = new Array[Byte](Constants.PACKET_PAYLOAD_SIZE)
+    val signed = PacketSigner.sign(payload, token)
+    val target = new InetSocketAddress("127.0.0.1", port)
+    val threads = Array.tabulate(senders) { s =>
+      new Thread(new Runnable {
+        def run(): Unit = {
+          // Each flow is its own source port, so the kernel hashes flows across the sockets
+          val flows = Array.fill(flowsPerSender)(java.nio.channels.DatagramChannel.open().bind(null))
+          val out = ByteBuffer.allocateDirect(Constants.PACKET_SIZE)
+          var f = 0
+          try {
+            while (sending.get()) {
+              out.clear()
+              out.put(signed)
+              out.flip()
+              flows(f).send(out, target)
+              f = if (f + 1 == flows.length) 0 else f + 1
+            }
+          } finally {
+            flows.foreach(_.close())
+          }
+        }
+      }, s"udp-bench-sender-$s")
+    }
+    threads.foreach(_.start())
+
+    // Warm up, then measure
+    Thread.sleep(1000)
+    received.reset()
+    verified.reset()
+    val start = System.nanoTime()
+    Thread.sleep(seconds * 1000L)
+    val elapsed = (System.nanoTime() - start) / 1e9
+    val receivedPps = received.sum() / elapsed
+    val verifiedPps = verified.sum() / elapsed
+
+    sending.set(false)
+    threads.foreach(_.join())
+    channels.foreach(_.close().sync())
+    group.shutdownGracefully().sync()
+    (receivedPps, verifiedPps)
+  }
+}